@@ -1,53 +1,57 @@
-import java.util.UUID;
-import java.util.concurrent.ThreadLocalRandom;
-
-
-
-
 /**
  * Argument class simulates the arguments of the argumentation simulation
  * @author Panagiotis
  *
  */
 public class Argument {
-	// id of argument
-	private UUID id; // TODO: more elaborate?
+	// dense id of the argument within its court's registry, -1 until registered
+	private int id = -1;
+	// registry that assigned the id
+	private ArgumentRegistry registry;
 	// Is argument exonerating or incriminating
 	private boolean innocent;
 	// Argument type
 	private Utils.ArgumentType type;
-	// instances counter
-	private static int counter = 0;
 
 	/**
 	 * Constructor of Argument class with user-specified properties
 	 * @param innocent
 	 */
 	public Argument(Utils.ArgumentType type, boolean innocent) {
-		counter++;
-		this.id = UUID.randomUUID();
 		this.type = type;
 		this.innocent = innocent;
 	}
 
 	/**
 	 * Constructor of Argument class with randomly initialized properties
+	 * @param random generator of the simulation
 	 */
-	public Argument() {
-		counter++;
-		this.id = UUID.randomUUID();
-		this.type = Utils.ArgumentType.getRandomArgumentType();
-		this.innocent = ThreadLocalRandom.current().nextBoolean();
+	public Argument(SimulationRandom random) {
+		this.type = Utils.ArgumentType.getRandomArgumentType(random);
+		this.innocent = random.nextBoolean();
 	}
 
 	/**
-	 * Getter of argument's id
-	 * @return int id
+	 * Getter of argument's id within its court
+	 * @return int id, -1 if the argument is not registered
 	 */
-	public UUID getId() {
+	public int getId() {
 		return id;
 	}
 
+	/**
+	 * Assigns the id of the argument, called by the registry
+	 * @param registry
+	 * @param id
+	 */
+	void assignId(ArgumentRegistry registry, int id) {
+		if(this.registry != null) {
+			throw new IllegalStateException("Argument is already registered with id " + this.id);
+		}
+		this.registry = registry;
+		this.id = id;
+	}
+
 	/**
 	 * Getter of innocent property
 	 * @return
@@ -72,13 +76,26 @@ public class Argument {
 		this.type = type;
 	}
 
+	/**
+	 * Registered arguments are equal if they have the same id in the same registry,
+	 * unregistered arguments are only equal to themselves
+	 */
 	@Override
 	public boolean equals(Object other) {
+		if(this == other) {
+			return true;
+		}
 		if(other instanceof Argument) {
-			return this.id.equals(((Argument)other).getId());
+			Argument argument = (Argument)other;
+			return this.registry != null && this.registry == argument.registry && this.id == argument.id;
 		}
 		else {
 			return false;
 		}
 	}
+
+	@Override
+	public int hashCode() {
+		return (this.registry != null) ? this.id : System.identityHashCode(this);
+	}
 }
@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registry of the arguments of a court. Gives every argument a dense int id, 0 for the first registered
+ * argument, so per argument state can be kept in primitive arrays indexed by id.
+ *
+ */
+public class ArgumentRegistry {
+	// registered arguments, by id
+	private ArrayList<Argument> arguments;
+
+	/**
+	 * Creates an empty registry
+	 */
+	public ArgumentRegistry() {
+		this.arguments = new ArrayList<Argument>();
+	}
+
+	/**
+	 * Registers an argument and assigns its id
+	 * @param argument an argument not registered yet
+	 * @return id of the argument
+	 */
+	public int register(Argument argument) {
+		int id = this.arguments.size();
+		argument.assignId(this, id);
+		this.arguments.add(argument);
+		return id;
+	}
+
+	/**
+	 * Registers a list of arguments in list order
+	 * @param arguments
+	 */
+	public void registerAll(List<Argument> arguments) {
+		this.arguments.ensureCapacity(this.arguments.size() + arguments.size());
+		for(Argument argument:arguments) {
+			this.register(argument);
+		}
+	}
+
+	/**
+	 * Registered argument with the given id
+	 * @param id
+	 * @return argument
+	 */
+	public Argument get(int id) {
+		return this.arguments.get(id);
+	}
+
+	/**
+	 * Number of registered arguments, ids range from 0 to size-1
+	 * @return size
+	 */
+	public int size() {
+		return this.arguments.size();
+	}
+}
@@ -0,0 +1,904 @@
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Array based version of the Court simulation. The jury and the arguments of the case are kept in
+ * primitive arrays instead of Juror and Argument objects, which avoids the object graph of a trial.
+ * Draws the same random numbers in the same order as Court, so for a given generator both produce the same trial.
+ * A CompactCourt can also serve as an arena for many trials: reset regenerates the court in place, reusing
+ * the arrays of earlier trials, so once they have grown to the largest trial no further trial allocates.
+ *
+ */
+public class CompactCourt implements Simulation {
+	private static final Utils.ArgumentType[] TYPE_VALUES = Utils.ArgumentType.values();
+	// number of argument types
+	private static final int TYPES = TYPE_VALUES.length;
+	// number of (argument type, side) slots
+	private static final int SLOTS = 2*TYPES;
+	private static final int CLAIM = Utils.ArgumentType.CLAIM.ordinal();
+	// initial capacity of a knowledge row, doubled whenever the row is full
+	private static final int INITIAL_ROW = 8;
+
+	// generator of the simulation
+	private SimulationRandom random;
+	// type of vote
+	private Utils.VoteType voteType;
+	// observer of the simulation's events, null if there is none
+	private SimulationListener listener;
+	// who hears whom during deliberation, null for everyone
+	private DeliberationTopology topology;
+
+	// Arguments: case arguments first, claims after them
+	// number of case arguments
+	private int numOfArguments;
+	// number of case arguments and claims
+	private int totalArguments;
+	// ordinal of the type of every argument
+	private byte[] argumentType;
+	// 1 if the argument is exonerating, 0 if incriminating
+	private byte[] argumentSide;
+	// number of distinct claims known by the jury before deliberation
+	private int assignedClaims;
+	// verdict based on the case arguments
+	private boolean correctVerdict;
+
+	// Jurors
+	private int numOfJurors;
+	// acceptance of every argument type, jurors*TYPES
+	private double[] acceptance;
+	// argument type ordinals by decreasing acceptance, jurors*TYPES
+	private byte[] typePreference;
+	private double[] participation;
+	private double[] willingness;
+	// knowledge bitsets, jurors*words
+	private long[] knownArguments;
+	private int words;
+	// knowledge per juror and (type, side) slot in acceptance order, jurors*SLOTS rows that grow with what the
+	// juror knows, so a jury that hears a large case only takes the memory of the arguments it accepts
+	private int[][] knowledge;
+	// number of arguments per juror and slot, jurors*SLOTS
+	private int[] knowledgeCount;
+	// exonerating minus incriminating arguments known by every juror
+	private int[] score;
+
+	// Deliberation
+	// times every argument has been presented
+	private int[] presentations;
+	private String trialVerdict;
+	private int totalDeliberations;
+	private int totalClaimsSpread;
+	private double avgClaimSpread;
+	private int totalNonClaimsSpread;
+	private double avgNonClaimSpread;
+	// work done by the speakers during deliberation
+	private int speakerTurns;
+	private int candidatesScanned;
+	private int repetitionSkips;
+
+	// Arena buffers, kept between trials
+	// jury and claim orders of the trial generation
+	private int[] order;
+	private int[] claimOrder;
+	// scratch rows of permuteJurors
+	private double[] doubleScratch;
+	private byte[] byteScratch;
+	private long[] longScratch;
+	private int[] intScratch;
+	private int[][] rowScratch;
+	// communication graph of sparse topologies
+	private JuryGraph graph;
+	// sampler of accepting listeners of large juries and its buffers
+	private ListenerSampler sampler;
+	private double[] samplerProbability;
+	private int[] selected;
+	// case arguments grouped by type for bulk intake, type t from typeStart[t]
+	private int[] argumentsByType;
+	private int[] typeStart;
+	// per type counts of the trial distribution
+	private int[] typeCounts;
+
+	/**
+	 * Creates an empty arena, to be filled by reset before every trial
+	 */
+	public CompactCourt() {
+		this.random = new SimulationRandom(0);
+	}
+
+	/**
+	 * Constructor of CompactCourt class with user-specified properties, same parameters as the Court constructor
+	 * @param voteType
+	 * @param numOfArguments
+	 * @param jurySize number of neutral and biased jurors
+	 * @param numOfBiasedJurors
+	 * @param biasedDetails
+	 * @param random generator of the simulation
+	 */
+	public CompactCourt(Utils.VoteType voteType, int numOfArguments, int jurySize, int numOfBiasedJurors, int[] biasedDetails,
+			SimulationRandom random) {
+		this.random = random;
+		this.generate(voteType, numOfArguments, jurySize, numOfBiasedJurors,
+				(numOfBiasedJurors>0) ? biasedDetails[0] : 0, (numOfBiasedJurors>0) ? biasedDetails[1] : 0);
+	}
+
+	/**
+	 * Regenerates the court in place for a new trial. Arrays of earlier trials are reused and only grow
+	 * when the trial is larger than every earlier one. The generator of the court is reseeded.
+	 * @param seed seed of the trial, e.g. SimulationRandom.streamSeed(masterSeed, simulation)
+	 * @param mso simulation parameters
+	 */
+	public void reset(long seed, MenuSelectionObject mso) {
+		this.random.reseed(seed);
+		this.generate(mso.getVoteChoice(), mso.getArgumentChoice(), mso.getJurySize(), mso.getBiasedChoice(),
+				mso.getLowBiasedChoice(), mso.getHighBiasedChoice());
+	}
+
+	/**
+	 * Generates the case and the jury, same draws as the Court constructor
+	 */
+	private void generate(Utils.VoteType voteType, int numOfArguments, int jurySize, int numOfBiasedJurors,
+			int lowBiased, int highBiased) {
+		SimulationRandom random = this.random;
+		this.voteType = voteType;
+		this.trialVerdict = null;
+		this.totalDeliberations = 0;
+		this.totalClaimsSpread = 0;
+		this.totalNonClaimsSpread = 0;
+		this.avgClaimSpread = 0;
+		this.avgNonClaimSpread = 0;
+
+		// generating the case, same proportions as Court
+		int innArgs = 0, guilArgs=0;
+		if(random.nextBoolean()) {
+			innArgs = (int)Math.floor(numOfArguments*0.45);
+			guilArgs = (int)Math.ceil(numOfArguments*0.55);
+		}
+		else {
+			innArgs = (int)Math.ceil(numOfArguments*0.55);
+			guilArgs = (int)Math.floor(numOfArguments*0.45);
+		}
+		this.numOfArguments = innArgs + guilArgs;
+		this.correctVerdict = innArgs >= guilArgs;
+		int numOfClaims = (numOfBiasedJurors>0) ? (int)Math.floor(0.5*this.numOfArguments) : 0;
+		this.totalArguments = this.numOfArguments + numOfClaims;
+		this.argumentType = grow(this.argumentType, this.totalArguments);
+		this.argumentSide = grow(this.argumentSide, this.totalArguments);
+		for(int i=0; i<this.numOfArguments; i++) {
+			boolean evidence = random.nextBoolean();
+			this.argumentType[i] = (byte)(evidence ? Utils.ArgumentType.EVIDENCE : Utils.ArgumentType.TESTIMONY).ordinal();
+			this.argumentSide[i] = (byte)(i < innArgs ? 1 : 0);
+		}
+		for(int i=this.numOfArguments; i<this.totalArguments; i++) {
+			this.argumentType[i] = (byte)CLAIM;
+			this.argumentSide[i] = (byte)(this.correctVerdict ? 0 : 1);
+		}
+		// generating jury, in creation order first and shuffled afterwards
+		int numOfBiased = (numOfBiasedJurors>0) ? lowBiased+highBiased : 0;
+		this.numOfJurors = numOfBiased + jurySize - numOfBiasedJurors;
+		this.acceptance = grow(this.acceptance, this.numOfJurors*TYPES);
+		this.typePreference = grow(this.typePreference, this.numOfJurors*TYPES);
+		this.participation = grow(this.participation, this.numOfJurors);
+		this.willingness = grow(this.willingness, this.numOfJurors);
+		this.words = (this.totalArguments+63) >>> 6;
+		if((long)this.numOfJurors*this.words > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A jury of " + this.numOfJurors + " jurors cannot know a case of "
+					+ this.totalArguments + " arguments and claims, the knowledge bitsets would exceed an array");
+		}
+		this.knownArguments = grow(this.knownArguments, this.numOfJurors*this.words);
+		Arrays.fill(this.knownArguments, 0, this.numOfJurors*this.words, 0L);
+		this.knowledge = grow(this.knowledge, this.numOfJurors*SLOTS);
+		this.knowledgeCount = grow(this.knowledgeCount, this.numOfJurors*SLOTS);
+		Arrays.fill(this.knowledgeCount, 0, this.numOfJurors*SLOTS, 0);
+		this.score = grow(this.score, this.numOfJurors);
+		Arrays.fill(this.score, 0, this.numOfJurors, 0);
+		this.assignedClaims = 0;
+		int juror = 0;
+		if(numOfBiasedJurors>0) {
+			this.claimOrder = grow(this.claimOrder, numOfClaims);
+			for(int i=0; i<numOfClaims; i++) {
+				this.claimOrder[i] = this.numOfArguments + i;
+			}
+			for(int i=0; i<numOfBiased; i++) {
+				Utils.BiasLevel biasLevel = (i < lowBiased) ? Utils.BiasLevel.LOW : Utils.BiasLevel.HIGH;
+				this.generateJuror(juror, Utils.ArgumentType.CLAIM);
+				// adding claims to biased agent's knowledge base
+				shuffle(this.claimOrder, numOfClaims, random);
+				int known = (int)(numOfArguments*biasLevel.getPercentage());
+				for(int c=0; c<known; c++) {
+					this.addKnowledge(juror, this.claimOrder[c]);
+				}
+				juror++;
+			}
+			// distinct claims known by the biased jurors
+			for(int a=this.numOfArguments; a<this.totalArguments; a++) {
+				for(int j=0; j<juror; j++) {
+					if(this.knows(j, a)) {
+						this.assignedClaims++;
+						break;
+					}
+				}
+			}
+		}
+		// neutral jurors
+		for(; juror<this.numOfJurors; juror++) {
+			this.generateJuror(juror, random.nextBoolean() ? Utils.ArgumentType.EVIDENCE : Utils.ArgumentType.TESTIMONY);
+		}
+		this.order = grow(this.order, this.numOfJurors);
+		for(int j=0; j<this.numOfJurors; j++) {
+			this.order[j] = j;
+		}
+		shuffle(this.order, this.numOfJurors, random);
+		this.permuteJurors(this.order);
+	}
+
+	public boolean isCorrectVerdict() {
+		return correctVerdict;
+	}
+
+	public String isTrialVerdict() {
+		return trialVerdict;
+	}
+
+	public int getTotalDeliberations() {
+		return totalDeliberations;
+	}
+
+	public int getSpeakerTurns() {
+		return speakerTurns;
+	}
+
+	public int getCandidatesScanned() {
+		return candidatesScanned;
+	}
+
+	public int getRepetitionSkips() {
+		return repetitionSkips;
+	}
+
+	public int getTotalClaimsSpread() {
+		return totalClaimsSpread;
+	}
+
+	public int getTotalNonClaimsSpread() {
+		return totalNonClaimsSpread;
+	}
+
+	public void setListener(SimulationListener listener) {
+		this.listener = listener;
+	}
+
+	public void setTopology(DeliberationTopology topology) {
+		this.topology = topology;
+	}
+
+	public double getAvgClaimSpread() {
+		return avgClaimSpread;
+	}
+
+	public double getAvgNonClaimsSpread() {
+		return avgNonClaimSpread;
+	}
+
+	public int getNumOfJurors() {
+		return numOfJurors;
+	}
+
+	public int getJurorScore(int position) {
+		return score[position];
+	}
+
+	public int getNumOfArgumentIds() {
+		return totalArguments;
+	}
+
+	public Utils.ArgumentType getArgumentType(int argument) {
+		return TYPE_VALUES[argumentType[argument]];
+	}
+
+	public boolean isArgumentInnocent(int argument) {
+		return argumentSide[argument] == 1;
+	}
+
+	public boolean jurorKnows(int position, int argument) {
+		return knows(position, argument);
+	}
+
+	/**
+	 * Emulates the presentation of arguments to all jury members.
+	 */
+	public void provideArguments() {
+		if(this.numOfArguments >= Juror.MIN_BULK_INTAKE) {
+			this.provideArgumentsInBulk();
+		}
+		else {
+			for(int j=0; j<this.numOfJurors; j++) {
+				for(int a=0; a<this.numOfArguments; a++) {
+					this.takeInArgument(j, a);
+				}
+			}
+		}
+		if(this.listener != null) {
+			this.listener.argumentsProvided(this);
+		}
+	}
+
+	/**
+	 * Skip sampling intake of large cases, draws the same random numbers as Juror.takeInArguments(Argument[][], ...)
+	 */
+	private void provideArgumentsInBulk() {
+		// case arguments grouped by type, in case order
+		this.typeStart = grow(this.typeStart, TYPES+1);
+		Arrays.fill(this.typeStart, 0);
+		for(int a=0; a<this.numOfArguments; a++) {
+			this.typeStart[this.argumentType[a]+1]++;
+		}
+		for(int t=0; t<TYPES; t++) {
+			this.typeStart[t+1] += this.typeStart[t];
+		}
+		this.argumentsByType = grow(this.argumentsByType, this.numOfArguments);
+		this.typeCounts = grow(this.typeCounts, TYPES);
+		Arrays.fill(this.typeCounts, 0);
+		for(int a=0; a<this.numOfArguments; a++) {
+			int t = this.argumentType[a];
+			this.argumentsByType[this.typeStart[t] + this.typeCounts[t]++] = a;
+		}
+		for(int j=0; j<this.numOfJurors; j++) {
+			for(int t=0; t<TYPES; t++) {
+				int start = this.typeStart[t];
+				int size = this.typeStart[t+1] - start;
+				double logMiss = Math.log1p(-Math.max(0, Math.min(1, this.acceptance[j*TYPES+t])));
+				for(int i=Utils.geometricSkip(this.random, logMiss); i<size; i+=1+Utils.geometricSkip(this.random, logMiss)) {
+					if(!this.knows(j, this.argumentsByType[start+i])) {
+						this.addKnowledge(j, this.argumentsByType[start+i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deliberation rounds, same rules as Court.juryDeliberation
+	 */
+	public void juryDeliberation() {
+		this.startDeliberation();
+		int distinctPresented = 0;
+		double penalty = 1-this.voteType.getPenalty();
+		double juryWillingness = this.calculateJuryWillingness();
+		// sparse topologies reach only the neighbors of the speaker, as in Court
+		JuryGraph graph = null;
+		if(this.topology != null && !this.topology.isComplete()) {
+			if(this.graph == null) {
+				this.graph = new JuryGraph();
+			}
+			this.topology.build(this.numOfJurors, this.random, this.graph);
+			graph = this.graph;
+		}
+		// large juries find the accepting listeners by sampling, as in Court
+		ListenerSampler sampler = null;
+		int[] selected = null;
+		if(graph == null && this.numOfJurors >= ListenerSampler.MIN_JURORS) {
+			this.samplerProbability = grow(this.samplerProbability, this.numOfJurors*TYPES);
+			for(int i=0; i<this.numOfJurors*TYPES; i++) {
+				this.samplerProbability[i] = Math.max(0, Math.min(1, this.acceptance[i]));
+			}
+			if(this.sampler == null) {
+				this.sampler = new ListenerSampler(this.samplerProbability, this.numOfJurors, TYPES);
+			}
+			else {
+				this.sampler.reset(this.samplerProbability, this.numOfJurors, TYPES);
+			}
+			sampler = this.sampler;
+			this.selected = grow(this.selected, this.numOfJurors);
+			selected = this.selected;
+		}
+		while(juryWillingness >= this.random.nextDouble() && distinctPresented < this.getArgumentsToPresent()) {
+			this.totalDeliberations++;
+			for(int j=0; j<this.numOfJurors; j++) {
+				// if the juror wants to speak
+				if(this.participation[j] >= this.random.nextDouble()) {
+					int argument = this.speak(j);
+					if(argument >= 0) {
+						int accepted = 0;
+						if(graph != null) {
+							for(int n=graph.getRowStart(j); n<graph.getRowEnd(j); n++) {
+								if(this.takeInArgument(graph.getNeighbor(n), argument)) {
+									accepted++;
+									this.accepted(graph.getNeighbor(n), argument);
+								}
+							}
+						}
+						else if(sampler != null) {
+							int numOfSelected = sampler.sample(this.argumentType[argument], this.random, selected);
+							for(int s=0; s<numOfSelected; s++) {
+								// the presenting juror knows the argument already
+								if(this.admit(selected[s], argument)) {
+									accepted++;
+									this.accepted(selected[s], argument);
+								}
+							}
+						}
+						else {
+							// present argument to all other jurors
+							for(int listener=0; listener<this.numOfJurors; listener++) {
+								if(listener != j && this.takeInArgument(listener, argument)) {
+									accepted++;
+									this.accepted(listener, argument);
+								}
+							}
+						}
+						if(this.countPresentation(argument, accepted)) {
+							distinctPresented++;
+						}
+						if(this.listener != null) {
+							this.listener.argumentPresented(this, this.totalDeliberations, j, argument,
+									TYPE_VALUES[this.argumentType[argument]], this.argumentSide[argument] == 1, accepted);
+						}
+					}
+				}
+				// after 10 deliberations
+				if(this.totalDeliberations > 10) {
+					this.willingness[j] *= penalty;
+				}
+			}
+			if(this.listener != null) {
+				this.listener.roundCompleted(this, this.totalDeliberations);
+			}
+			juryWillingness = this.calculateJuryWillingness();
+		}
+		this.finishDeliberation(this.totalDeliberations);
+	}
+
+	// Steps of the deliberation, for engines that deliberate several courts in lock-step (LockStepDeliberation).
+	// They draw nothing: such an engine draws from the generator state of the court, see getRandom, in the order
+	// of juryDeliberation, and keeps the willingness of the jurors, which only deliberation changes.
+
+	/**
+	 * Clears the counters of the deliberation and the presentations of every argument
+	 */
+	public void startDeliberation() {
+		this.totalDeliberations = 0;
+		this.totalClaimsSpread = 0;
+		this.totalNonClaimsSpread = 0;
+		this.speakerTurns = 0;
+		this.candidatesScanned = 0;
+		this.repetitionSkips = 0;
+		this.presentations = grow(this.presentations, this.totalArguments);
+		Arrays.fill(this.presentations, 0, this.totalArguments, 0);
+	}
+
+	/**
+	 * A juror who wants to speak picks the argument to present
+	 * @param juror
+	 * @return argument index or -1 if the juror has nothing left to present
+	 */
+	public int speak(int juror) {
+		this.speakerTurns++;
+		return this.nextArgumentToPresent(juror);
+	}
+
+	/**
+	 * A listener whose acceptance draw passed takes in a presented argument
+	 * @param juror
+	 * @param argument
+	 * @return true if the argument was new to the juror and added to their knowledge
+	 */
+	public boolean admit(int juror, int argument) {
+		if(this.knows(juror, argument)) {
+			return false;
+		}
+		this.addKnowledge(juror, argument);
+		return true;
+	}
+
+	/**
+	 * Counts a presented argument and the listeners that accepted it
+	 * @param argument
+	 * @param accepted number of listeners that took the argument in
+	 * @return true if the argument had not been presented before
+	 */
+	public boolean countPresentation(int argument, int accepted) {
+		if(this.argumentType[argument] == CLAIM) {
+			this.totalClaimsSpread += accepted;
+		}
+		else {
+			this.totalNonClaimsSpread += accepted;
+		}
+		return this.presentations[argument]++ == 0;
+	}
+
+	/**
+	 * Ends the deliberation after the given number of rounds
+	 * @param rounds
+	 */
+	public void finishDeliberation(int rounds) {
+		this.totalDeliberations = rounds;
+		this.avgClaimSpread = (double)this.totalClaimsSpread/this.totalDeliberations;
+		this.avgNonClaimSpread = (double)this.totalNonClaimsSpread/this.totalDeliberations;
+		if(this.listener != null) {
+			this.listener.deliberationCompleted(this);
+		}
+	}
+
+	/**
+	 * Distinct arguments the jury can present, deliberation stops once all of them have been presented
+	 * @return case arguments and the claims known by the biased jurors
+	 */
+	public int getArgumentsToPresent() {
+		return this.numOfArguments + this.assignedClaims;
+	}
+
+	/**
+	 * Generator of the court, whose state a lock-step engine takes over during deliberation
+	 * @return generator
+	 */
+	public SimulationRandom getRandom() {
+		return random;
+	}
+
+	public Utils.VoteType getVoteType() {
+		return voteType;
+	}
+
+	public double getAcceptance(int juror, int type) {
+		return acceptance[juror*TYPES+type];
+	}
+
+	public double getParticipation(int juror) {
+		return participation[juror];
+	}
+
+	public double getWillingness(int juror) {
+		return willingness[juror];
+	}
+
+	/**
+	 * Word of the knowledge bitset of a juror
+	 * @param juror
+	 * @param word index of the word, arguments 64*word to 64*word+63
+	 * @return bit a%64 set if the juror knows argument a
+	 */
+	public long getKnowledgeWord(int juror, int word) {
+		return knownArguments[juror*words+word];
+	}
+
+	/**
+	 * Ordinal of the type of an argument, Utils.ArgumentType
+	 * @param argument
+	 * @return ordinal
+	 */
+	public int getArgumentTypeOrdinal(int argument) {
+		return argumentType[argument];
+	}
+
+	/**
+	 * Voting process of the jury, same rules as Court.juryVote
+	 */
+	public String juryVote() {
+		int innocent = 0;
+		for(int j=0; j<this.numOfJurors; j++) {
+			innocent = (this.score[j] >= 0) ? innocent+1 : innocent-1;
+		}
+		if(this.voteType.equals(Utils.VoteType.UNANIMOUS)) {
+			if( (innocent < 0) && (Math.abs(innocent)==this.numOfJurors) ) {
+				this.trialVerdict = "guilty";
+			}
+			else if( (innocent >= 0) && (Math.abs(innocent)==this.numOfJurors) ) {
+				this.trialVerdict = "innocent";
+			}
+			else {
+				this.trialVerdict = "hung jury";
+			}
+		}
+		else {
+			if(innocent < 0) {
+				this.trialVerdict = "guilty";
+			}
+			else if(innocent > 0) {
+				this.trialVerdict = "innocent";
+			}
+			else {
+				this.trialVerdict = "hung jury";
+			}
+		}
+		if(this.listener != null) {
+			this.listener.voteCast(this, this.trialVerdict);
+		}
+		return this.trialVerdict;
+	}
+
+	/**
+	 * Argument distribution of current trial, computed as in Court
+	 * @return Map<Utils.ArgumentType, Double> typeDistribution
+	 */
+	public Map<Utils.ArgumentType, Double> getTrialArgumentTypeDistribution(){
+		Map<Utils.ArgumentType, Double> typeDistribution = new EnumMap<Utils.ArgumentType, Double>(Utils.ArgumentType.class);
+		double total = this.assignedClaims + this.numOfArguments;
+		typeDistribution.put(Utils.ArgumentType.CLAIM, (double)this.assignedClaims);
+		int[] counts = new int[TYPES];
+		for(int a=0; a<this.numOfArguments; a++) {
+			counts[this.argumentType[a]]++;
+		}
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			if(counts[type.ordinal()] > 0) {
+				typeDistribution.put(type, (double)counts[type.ordinal()]);
+			}
+		}
+		for(Map.Entry<Utils.ArgumentType, Double> entry : typeDistribution.entrySet()) {
+			entry.setValue(100*entry.getValue()/total);
+		}
+		return typeDistribution;
+	}
+
+	/**
+	 * Argument type distribution of current jury, computed as in Court
+	 * @return Map<Utils.ArgumentType, Double> typeDistribution
+	 */
+	public Map<Utils.ArgumentType, Double> getJuryArgumentTypeDistribution(){
+		double[] totals = new double[TYPES];
+		boolean[] present = new boolean[TYPES];
+		for(int j=0; j<this.numOfJurors; j++) {
+			int size = 0;
+			for(int s=0; s<SLOTS; s++) {
+				size += this.knowledgeCount[j*SLOTS+s];
+			}
+			for(int t=0; t<TYPES; t++) {
+				int count = this.knowledgeCount[j*SLOTS+2*t] + this.knowledgeCount[j*SLOTS+2*t+1];
+				if(count > 0) {
+					totals[t] = present[t] ? totals[t] + (double)count/size : (double)count/size;
+					present[t] = true;
+				}
+			}
+		}
+		Map<Utils.ArgumentType, Double> trialJuryStats = new EnumMap<Utils.ArgumentType, Double>(Utils.ArgumentType.class);
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			if(present[type.ordinal()]) {
+				trialJuryStats.put(type, 100*totals[type.ordinal()]/this.numOfJurors);
+			}
+		}
+		return trialJuryStats;
+	}
+
+	public void fillTrialArgumentTypeDistribution(double[] distribution) {
+		double total = this.assignedClaims + this.numOfArguments;
+		this.typeCounts = grow(this.typeCounts, TYPES);
+		Arrays.fill(this.typeCounts, 0);
+		for(int a=0; a<this.numOfArguments; a++) {
+			this.typeCounts[this.argumentType[a]]++;
+		}
+		this.typeCounts[CLAIM] = this.assignedClaims;
+		for(int t=0; t<TYPES; t++) {
+			distribution[t] = 100*(double)this.typeCounts[t]/total;
+		}
+	}
+
+	public void fillJuryArgumentTypeDistribution(double[] distribution) {
+		Arrays.fill(distribution, 0, TYPES, 0);
+		for(int j=0; j<this.numOfJurors; j++) {
+			int size = 0;
+			for(int s=0; s<SLOTS; s++) {
+				size += this.knowledgeCount[j*SLOTS+s];
+			}
+			for(int t=0; t<TYPES; t++) {
+				int count = this.knowledgeCount[j*SLOTS+2*t] + this.knowledgeCount[j*SLOTS+2*t+1];
+				if(count > 0) {
+					distribution[t] += (double)count/size;
+				}
+			}
+		}
+		for(int t=0; t<TYPES; t++) {
+			distribution[t] = 100*distribution[t]/this.numOfJurors;
+		}
+	}
+
+	/**
+	 * Picks the argument a speaking juror presents: the first argument on the side of their opinion,
+	 * of the type with the highest acceptance, that has not been presented more than 3 times
+	 * @param juror
+	 * @return argument index or -1 if the juror has nothing left to present
+	 */
+	private int nextArgumentToPresent(int juror) {
+		int side = (this.score[juror] >= 0) ? 1 : 0;
+		for(int rank=0; rank<TYPES; rank++) {
+			int slot = slot(this.typePreference[juror*TYPES+rank], side);
+			int[] row = this.knowledge[juror*SLOTS+slot];
+			int count = this.knowledgeCount[juror*SLOTS+slot];
+			for(int k=0; k<count; k++) {
+				this.candidatesScanned++;
+				if(this.presentations[row[k]] <= 3) {
+					return row[k];
+				}
+				this.repetitionSkips++;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Reports an argument a listener accepted during deliberation
+	 */
+	private void accepted(int juror, int argument) {
+		if(this.listener != null) {
+			this.listener.argumentAccepted(this, this.totalDeliberations, juror, argument);
+		}
+	}
+
+	/**
+	 * Decides if a juror accepts an argument, same draw as Juror.takeInArgument
+	 * @param juror
+	 * @param argument
+	 * @return true if the argument was added to the juror's knowledge
+	 */
+	private boolean takeInArgument(int juror, int argument) {
+		if(this.random.nextDouble(0.0, 1.0) <= this.acceptance[juror*TYPES+this.argumentType[argument]]
+				&& !this.knows(juror, argument)) {
+			this.addKnowledge(juror, argument);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean knows(int juror, int argument) {
+		return (this.knownArguments[juror*this.words + (argument >>> 6)] & (1L << argument)) != 0;
+	}
+
+	private void addKnowledge(int juror, int argument) {
+		this.knownArguments[juror*this.words + (argument >>> 6)] |= 1L << argument;
+		int slot = slot(this.argumentType[argument], this.argumentSide[argument]);
+		int count = this.knowledgeCount[juror*SLOTS+slot]++;
+		int[] row = this.knowledge[juror*SLOTS+slot];
+		if(row == null) {
+			row = new int[INITIAL_ROW];
+			this.knowledge[juror*SLOTS+slot] = row;
+		}
+		else if(count == row.length) {
+			row = Arrays.copyOf(row, 2*row.length);
+			this.knowledge[juror*SLOTS+slot] = row;
+		}
+		row[count] = argument;
+		this.score[juror] += (this.argumentSide[argument] == 1) ? 1 : -1;
+	}
+
+	/**
+	 * Draws the acceptance and participation of a juror, same draws as Utils.generateAcceptance and the Court constructor
+	 * @param juror
+	 * @param highest argument type with the highest acceptance
+	 */
+	private void generateJuror(int juror, Utils.ArgumentType highest) {
+		Utils.generateAcceptance(highest, this.random, this.acceptance, juror*TYPES);
+		// insertion sort of the types by decreasing acceptance, ties keep the enum order as in Juror
+		for(int t=0; t<TYPES; t++) {
+			int i = t;
+			while(i > 0 && this.acceptance[juror*TYPES+this.typePreference[juror*TYPES+i-1]] < this.acceptance[juror*TYPES+t]) {
+				this.typePreference[juror*TYPES+i] = this.typePreference[juror*TYPES+i-1];
+				i--;
+			}
+			this.typePreference[juror*TYPES+i] = (byte)t;
+		}
+		this.participation[juror] = this.random.nextDouble(0.8, 1.0);
+		this.willingness[juror] = 1.0;
+	}
+
+	/**
+	 * Moves every juror to its position after the jury shuffle
+	 * @param order creation index of the juror at every position
+	 */
+	private void permuteJurors(int[] order) {
+		this.acceptance = permute(this.acceptance, TYPES, order);
+		this.typePreference = permute(this.typePreference, TYPES, order);
+		this.participation = permute(this.participation, 1, order);
+		this.willingness = permute(this.willingness, 1, order);
+		this.knownArguments = permute(this.knownArguments, this.words, order);
+		this.knowledge = permute(this.knowledge, SLOTS, order);
+		this.knowledgeCount = permute(this.knowledgeCount, SLOTS, order);
+		this.score = permute(this.score, 1, order);
+	}
+
+	/**
+	 * Reorders the juror rows of an array through the scratch array of its type, the two arrays swap roles
+	 * @param rows array with one row per juror
+	 * @param width length of a row
+	 * @param order creation index of the juror at every position
+	 * @return the reordered rows
+	 */
+	private double[] permute(double[] rows, int width, int[] order) {
+		double[] target = grow(this.doubleScratch, rows.length);
+		for(int j=0; j<this.numOfJurors; j++) {
+			System.arraycopy(rows, order[j]*width, target, j*width, width);
+		}
+		this.doubleScratch = rows;
+		return target;
+	}
+
+	private byte[] permute(byte[] rows, int width, int[] order) {
+		byte[] target = grow(this.byteScratch, rows.length);
+		for(int j=0; j<this.numOfJurors; j++) {
+			System.arraycopy(rows, order[j]*width, target, j*width, width);
+		}
+		this.byteScratch = rows;
+		return target;
+	}
+
+	private long[] permute(long[] rows, int width, int[] order) {
+		long[] target = grow(this.longScratch, rows.length);
+		for(int j=0; j<this.numOfJurors; j++) {
+			System.arraycopy(rows, order[j]*width, target, j*width, width);
+		}
+		this.longScratch = rows;
+		return target;
+	}
+
+	private int[] permute(int[] rows, int width, int[] order) {
+		int[] target = grow(this.intScratch, rows.length);
+		for(int j=0; j<this.numOfJurors; j++) {
+			System.arraycopy(rows, order[j]*width, target, j*width, width);
+		}
+		this.intScratch = rows;
+		return target;
+	}
+
+	private int[][] permute(int[][] rows, int width, int[] order) {
+		int[][] target = grow(this.rowScratch, rows.length);
+		for(int j=0; j<this.numOfJurors; j++) {
+			System.arraycopy(rows, order[j]*width, target, j*width, width);
+		}
+		// rows past the jury keep their arrays, so no array is held by two rows once the scratch is reused
+		int used = this.numOfJurors*width;
+		System.arraycopy(rows, used, target, used, rows.length-used);
+		Arrays.fill(target, rows.length, target.length, null);
+		this.rowScratch = rows;
+		return target;
+	}
+
+	private double calculateJuryWillingness() {
+		double totalWillingness = 0.0;
+		for(int j=0; j<this.numOfJurors; j++) {
+			totalWillingness += this.willingness[j];
+		}
+		return totalWillingness/this.numOfJurors;
+	}
+
+	/**
+	 * Fisher-Yates shuffle of the first size elements, same draws as Utils.shuffle
+	 */
+	private static void shuffle(int[] values, int size, SimulationRandom random) {
+		for(int i=size-1; i>0; i--) {
+			int j = random.nextInt(i+1);
+			int temp = values[i];
+			values[i] = values[j];
+			values[j] = temp;
+		}
+	}
+
+	private static int slot(int type, int side) {
+		return 2*type + side;
+	}
+
+	/**
+	 * Array of at least the given size, the given one if it is large enough
+	 */
+	private static double[] grow(double[] array, int size) {
+		return (array != null && array.length >= size) ? array : new double[size];
+	}
+
+	private static byte[] grow(byte[] array, int size) {
+		return (array != null && array.length >= size) ? array : new byte[size];
+	}
+
+	private static long[] grow(long[] array, int size) {
+		return (array != null && array.length >= size) ? array : new long[size];
+	}
+
+	private static int[] grow(int[] array, int size) {
+		return (array != null && array.length >= size) ? array : new int[size];
+	}
+
+	/**
+	 * Array of rows of at least the given size, keeping the rows of the given one
+	 */
+	private static int[][] grow(int[][] array, int size) {
+		if(array == null) {
+			return new int[size][];
+		}
+		return (array.length >= size) ? array : Arrays.copyOf(array, size);
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * Listener that prints the progress of every simulation to the console, the output of the simulation
+ * before events were introduced. Every event is printed with a single call, so lines of different
+ * simulations do not mix, but events of parallel simulations interleave.
+ *
+ */
+public class ConsoleListener implements SimulationListener {
+
+	@Override
+	public void caseGenerated(Simulation simulation) {
+		System.out.println("\n=========================================================\n\n"
+						 + "Suspect is innocent: " + simulation.isCorrectVerdict());
+	}
+
+	@Override
+	public void argumentsProvided(Simulation simulation) {
+		System.out.print("BEFORE DELIBERATION\n" + jurorScores(simulation));
+	}
+
+	@Override
+	public void deliberationCompleted(Simulation simulation) {
+		System.out.print("Number of deliberations: " + simulation.getTotalDeliberations() + "\n"
+					   + "Number of non-claims spread in deliberation: " + simulation.getTotalNonClaimsSpread() + "\n"
+					   + "Number of claims spread in deliberation: " + simulation.getTotalClaimsSpread() + "\n"
+					   + "Average non-claim spread: " + simulation.getAvgNonClaimsSpread() + "\n"
+					   + "Average claim spread: " + simulation.getAvgClaimSpread() + "\n"
+					   + "AFTER DELIBERATION\n" + jurorScores(simulation));
+	}
+
+	@Override
+	public void voteCast(Simulation simulation, String verdict) {
+		System.out.println(verdict);
+	}
+
+	private static String jurorScores(Simulation simulation) {
+		StringBuilder scores = new StringBuilder();
+		for(int j=0; j<simulation.getNumOfJurors(); j++) {
+			scores.append("Juror ").append(j+1).append(" score: ").append(simulation.getJurorScore(j)).append('\n');
+		}
+		return scores.toString();
+	}
+}
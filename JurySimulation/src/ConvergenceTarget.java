@@ -0,0 +1,67 @@
+/**
+ * Precision a run has to reach before it stops: the largest accepted half width of the 95% confidence
+ * interval of the wrong verdict rate and of the hung jury rate. A rate without a target is not checked.
+ * The intervals are Wilson score intervals, so a rare outcome that has not happened yet still has the width
+ * of its upper bound and does not count as precise after the first wave.
+ *
+ */
+public class ConvergenceTarget {
+	private double wrongVerdictHalfWidth;
+	private double hungJuryHalfWidth;
+
+	/**
+	 * Constructor of ConvergenceTarget class
+	 * @param wrongVerdictHalfWidth target of the wrong verdict rate, NaN for none
+	 * @param hungJuryHalfWidth target of the hung jury rate, NaN for none
+	 */
+	public ConvergenceTarget(double wrongVerdictHalfWidth, double hungJuryHalfWidth) {
+		this.wrongVerdictHalfWidth = wrongVerdictHalfWidth;
+		this.hungJuryHalfWidth = hungJuryHalfWidth;
+	}
+
+	public double getWrongVerdictHalfWidth() {
+		return wrongVerdictHalfWidth;
+	}
+
+	public double getHungJuryHalfWidth() {
+		return hungJuryHalfWidth;
+	}
+
+	/**
+	 * Checks whether the statistics of a run are precise enough
+	 * @param stats
+	 * @return true if every target is met
+	 */
+	public boolean isMet(SimulationStatistics stats) {
+		if(stats.getNumOfSimulations() == 0) {
+			return false;
+		}
+		if(!Double.isNaN(this.wrongVerdictHalfWidth) && !(stats.getWrongVerdictHalfWidth() <= this.wrongVerdictHalfWidth)) {
+			return false;
+		}
+		if(!Double.isNaN(this.hungJuryHalfWidth) && !(stats.getHungJuryHalfWidth() <= this.hungJuryHalfWidth)) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a half width given as a fraction ("0.002") or a percentage ("0.2%")
+	 * @param value
+	 * @return halfWidth as a fraction
+	 */
+	public static double parseHalfWidth(String value) {
+		value = value.trim();
+		if(value.endsWith("%")) {
+			return Double.parseDouble(value.substring(0, value.length()-1).trim())/100;
+		}
+		return Double.parseDouble(value);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("wrong verdict rate +- %s, hung jury rate +- %s",
+				Double.isNaN(this.wrongVerdictHalfWidth) ? "any" : String.format("%.4f", this.wrongVerdictHalfWidth),
+				Double.isNaN(this.hungJuryHalfWidth) ? "any" : String.format("%.4f", this.hungJuryHalfWidth));
+	}
+}
@@ -1,34 +1,40 @@
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Court class is the regulator of the simulation
  * @author Panagiotis
  *
  */
-public class Court {
+public class Court implements Simulation {
 	// List of jury members
 	private ArrayList<Juror> jurorList;
 	// Jury size
-	private Utils.JurySize jurySize;
+	private int jurySize;
 	// List of all arguments to be presented in the simulation
 	private ArrayList<Argument> argumentList;
 	// Set of all claims that the jury has (uniques)
 	private Set<Argument> assignedClaims;
 	// List of all claims that the jury has
 	private ArrayList<Argument> claims;
+	// ids of the case arguments and claims, case arguments first
+	private ArgumentRegistry registry;
 	// verdict based on the list of all arguments
 	private boolean correctVerdict;
 	// verdict based on the votes of the jury
 	private String trialVerdict;
 	// type of vote
 	private Utils.VoteType voteType;
+	// generator of the simulation
+	private SimulationRandom random;
+	// observer of the simulation's events, null if there is none
+	private SimulationListener listener;
+	// who hears whom during deliberation, null for everyone
+	private DeliberationTopology topology;
 	
 	// Statistics counters
 	// number of deliberations that took place
@@ -37,6 +43,10 @@ public class Court {
 	private double avgClaimSpread;
 	private int totalNonClaimsSpread;
 	private double avgNonClaimSpread;
+	// work done by the speakers during deliberation
+	private int speakerTurns;
+	private int candidatesScanned;
+	private int repetitionSkips;
 	
 	// minimum number of arguments in a case
 	private static final int MIN_NUM_ARG = 20;
@@ -52,30 +62,39 @@ public class Court {
 	 * @param jurorList
 	 * @param argumentList
 	 * @param numOfDeliberations
+	 * @param random generator of the simulation
 	 */
-	public Court(ArrayList<Juror> jurorList, ArrayList<Argument> argumentList, ArrayList<Argument> claims, Utils.VoteType voteType) {
+	public Court(ArrayList<Juror> jurorList, ArrayList<Argument> argumentList, ArrayList<Argument> claims, Utils.VoteType voteType,
+			SimulationRandom random) {
+		this.random = random;
 		this.jurorList = jurorList;
 		this.argumentList = argumentList;
 		this.claims = claims;
 		this.voteType = voteType;
 		this.correctVerdict = this.calculateVerdict(this.argumentList);
+		this.registry = new ArgumentRegistry();
+		this.registry.registerAll(this.argumentList);
+		this.registry.registerAll(this.claims);
 	}
 	
 	/**
 	 * Constructor of Court class with user-specified properties
 	 * @param voteType
 	 * @param numOfArguments
-	 * @param jurySize
+	 * @param jurySize number of neutral and biased jurors
 	 * @param numOfBiasedJurors
 	 * @param biasedDetails
+	 * @param random generator of the simulation
 	 */
-	public Court(Utils.VoteType voteType, int numOfArguments, Utils.JurySize jurySize, int numOfBiasedJurors, int[] biasedDetails) {
+	public Court(Utils.VoteType voteType, int numOfArguments, int jurySize, int numOfBiasedJurors, int[] biasedDetails,
+			SimulationRandom random) {
+		this.random = random;
 		this.voteType = voteType;
 		this.argumentList = new ArrayList<Argument>();
 		
 		// generating random types of argument. 25% innocent - 75% guilty
 		int innArgs = 0, guilArgs=0;
-		if(ThreadLocalRandom.current().nextBoolean()) {
+		if(this.random.nextBoolean()) {
 			innArgs = (int)Math.floor(numOfArguments*0.45);
 			guilArgs = (int)Math.ceil(numOfArguments*0.55);
 		}
@@ -86,7 +105,7 @@ public class Court {
 		// exonerating
 		for(int i=0; i<innArgs; i++) {
 			// technical evidence
-			if(ThreadLocalRandom.current().nextBoolean()) {
+			if(this.random.nextBoolean()) {
 				this.argumentList.add(new Argument(Utils.ArgumentType.EVIDENCE, true));
 			}
 			//testimonies
@@ -97,7 +116,7 @@ public class Court {
 		// incriminating
 		for(int i=0; i<guilArgs; i++) {
 			// technical evidence
-			if(ThreadLocalRandom.current().nextBoolean()) {
+			if(this.random.nextBoolean()) {
 				this.argumentList.add(new Argument(Utils.ArgumentType.EVIDENCE, false));
 			}
 			//testimonies
@@ -107,6 +126,8 @@ public class Court {
 		}
 		
 		this.correctVerdict = this.calculateVerdict(this.argumentList);
+		this.registry = new ArgumentRegistry();
+		this.registry.registerAll(this.argumentList);
 		
 		// generating jury
 		this.jurySize = jurySize;
@@ -116,15 +137,16 @@ public class Court {
 		// biased jurors
 		if(numOfBiasedJurors>0) {
 			claims = Utils.generateClaims( (int)Math.floor(0.5*this.argumentList.size()), this.correctVerdict);
+			this.registry.registerAll(claims);
 			for(int i=0; i<biasedDetails[0]; i++) {
-				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.CLAIM), 
-						ThreadLocalRandom.current().nextDouble(0.8, 1.0), 1.0,
-						Utils.BiasLevel.LOW, numOfArguments, claims));
+				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.CLAIM, this.random), 
+						this.random.nextDouble(0.8, 1.0), 1.0,
+						Utils.BiasLevel.LOW, numOfArguments, claims, this.random));
 			}
 			for(int j=0; j<biasedDetails[1]; j++) {
-				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.CLAIM), 
-						ThreadLocalRandom.current().nextDouble(0.8, 1.0), 1.0,
-						Utils.BiasLevel.HIGH, numOfArguments, claims));
+				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.CLAIM, this.random), 
+						this.random.nextDouble(0.8, 1.0), 1.0,
+						Utils.BiasLevel.HIGH, numOfArguments, claims, this.random));
 			}
 			;
 			for(Juror j:this.jurorList) {
@@ -134,20 +156,19 @@ public class Court {
 			}
 		}
 		// neutral jurors
-		for(int i=0; i<jurySize.getsize()-numOfBiasedJurors; i++) {
+		for(int i=0; i<jurySize-numOfBiasedJurors; i++) {
 			// high evidence acceptance
-			if(ThreadLocalRandom.current().nextBoolean()) {
-				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.EVIDENCE),
-												ThreadLocalRandom.current().nextDouble(0.8, 1.0), 1.0));
+			if(this.random.nextBoolean()) {
+				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.EVIDENCE, this.random),
+												this.random.nextDouble(0.8, 1.0), 1.0));
 			}
 			// high testimony acceptance
 			else {
-				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.TESTIMONY),
-												ThreadLocalRandom.current().nextDouble(0.8, 1.0), 1.0));
+				this.jurorList.add(new Juror(Utils.generateAcceptance(Utils.ArgumentType.TESTIMONY, this.random),
+												this.random.nextDouble(0.8, 1.0), 1.0));
 			}
 		}
-		long seed = System.nanoTime();
-		Collections.shuffle(this.jurorList, new Random(seed));
+		Utils.shuffle(this.jurorList, this.random);
 	}
 
 	/**
@@ -158,6 +179,39 @@ public class Court {
 		return jurorList;
 	}
 
+	/**
+	 * Number of jurors in the jury
+	 * @return numOfJurors
+	 */
+	public int getNumOfJurors() {
+		return jurorList.size();
+	}
+
+	/**
+	 * Current score of a juror
+	 * @param position position of the juror in the jury
+	 * @return score
+	 */
+	public int getJurorScore(int position) {
+		return jurorList.get(position).testVoteScore();
+	}
+
+	public int getNumOfArgumentIds() {
+		return registry.size();
+	}
+
+	public Utils.ArgumentType getArgumentType(int argument) {
+		return registry.get(argument).getType();
+	}
+
+	public boolean isArgumentInnocent(int argument) {
+		return registry.get(argument).isInnocent();
+	}
+
+	public boolean jurorKnows(int position, int argument) {
+		return jurorList.get(position).knows(registry.get(argument));
+	}
+
 	/**
 	 * Getter of all arguments
 	 * @return ArrayList<Argument> argumentList
@@ -209,6 +263,22 @@ public class Court {
 		return avgNonClaimSpread;
 	}
 	
+	public int getTotalClaimsSpread() {
+		return totalClaimsSpread;
+	}
+
+	public int getTotalNonClaimsSpread() {
+		return totalNonClaimsSpread;
+	}
+
+	public void setListener(SimulationListener listener) {
+		this.listener = listener;
+	}
+
+	public void setTopology(DeliberationTopology topology) {
+		this.topology = topology;
+	}
+
 	/**
 	 * Get total number of deliberations	
 	 * @return totalDeliberations
@@ -217,15 +287,59 @@ public class Court {
 	public int getTotalDeliberations() {
 		return totalDeliberations;
 	}
+
+	public int getSpeakerTurns() {
+		return speakerTurns;
+	}
+
+	public int getCandidatesScanned() {
+		return candidatesScanned;
+	}
+
+	public int getRepetitionSkips() {
+		return repetitionSkips;
+	}
 	
 
 	/**
 	 * Emulates the presentation of arguments to all jury members.
 	 */
 	public void provideArguments() {
-		for(Juror j:jurorList) {
-			j.takeInArguments(argumentList);
+		if(this.argumentList.size() >= Juror.MIN_BULK_INTAKE) {
+			Argument[][] argumentsByType = this.groupArgumentsByType();
+			for(Juror j:jurorList) {
+				j.takeInArguments(argumentsByType, this.argumentList.size()-1, this.random);
+			}
+		}
+		else {
+			for(Juror j:jurorList) {
+				j.takeInArguments(argumentList, this.random);
+			}
+		}
+		if(this.listener != null) {
+			this.listener.argumentsProvided(this);
+		}
+	}
+
+	/**
+	 * Case arguments grouped by type ordinal, in case order
+	 * @return Argument[][] argumentsByType
+	 */
+	private Argument[][] groupArgumentsByType() {
+		int[] counts = new int[Utils.ArgumentType.values().length];
+		for(Argument a:this.argumentList) {
+			counts[a.getType().ordinal()]++;
+		}
+		Argument[][] argumentsByType = new Argument[counts.length][];
+		for(int t=0; t<counts.length; t++) {
+			argumentsByType[t] = new Argument[counts[t]];
+			counts[t] = 0;
+		}
+		for(Argument a:this.argumentList) {
+			int t = a.getType().ordinal();
+			argumentsByType[t][counts[t]++] = a;
 		}
+		return argumentsByType;
 	}
 
 	/**
@@ -252,73 +366,105 @@ public class Court {
 		this.avgClaimSpread = 0;
 		this.totalNonClaimsSpread = 0;
 		this.avgNonClaimSpread = 0;
+		this.speakerTurns = 0;
+		this.candidatesScanned = 0;
+		this.repetitionSkips = 0;
 		// get initial jury willingness
 		double juryWillingness = calculateJuryWillingness(this.jurorList);
-		Map<Argument, Integer> presentedArguments = new HashMap<Argument, Integer>();
+		// with a sparse topology arguments only reach the neighbors of the speaker
+		JuryGraph graph = null;
+		if(this.topology != null && !this.topology.isComplete()) {
+			graph = new JuryGraph();
+			this.topology.build(this.jurorList.size(), this.random, graph);
+		}
+		// large juries find the accepting listeners by sampling instead of one draw per listener
+		ListenerSampler sampler = null;
+		int[] selected = null;
+		if(graph == null && this.jurorList.size() >= ListenerSampler.MIN_JURORS) {
+			sampler = this.createListenerSampler();
+			selected = new int[this.jurorList.size()];
+		}
+		// times every argument has been presented, by argument id
+		int[] presentations = new int[this.registry.size()];
+		int distinctPresented = 0;
 		// keep deliberating as long as jury is willing 
 		// and not all arguments and claims have been presented
 		// and unanimity has not been reached 
-		while(juryWillingness >= ThreadLocalRandom.current().nextDouble()
-				&& presentedArguments.size() < (this.argumentList.size() + this.assignedClaims.size())
+		while(juryWillingness >= this.random.nextDouble()
+				&& distinctPresented < (this.argumentList.size() + this.assignedClaims.size())
 				) {
 			this.totalDeliberations++;
 			// every juror gets a chance to speak
-			for(Juror j:this.jurorList) {
+			for(int speaker=0; speaker<this.jurorList.size(); speaker++) {
+				Juror j = this.jurorList.get(speaker);
 				// if the juror wants to speak
-				if(j.getParticipation() >= ThreadLocalRandom.current().nextDouble()) {
+				if(j.getParticipation() >= this.random.nextDouble()) {
+					this.speakerTurns++;
 					boolean presented = false;
-					Map<Utils.ArgumentType, Double> tempAccMap = new HashMap<Utils.ArgumentType, Double>(j.getArgumentTypeAcceptance());
-					// while juror has not presented an argument and has arguments in his knowledge base that have not been presented
-					while(!presented && tempAccMap.size()>0) {
-						// get the next type with the highest acceptance
-						Utils.ArgumentType argType = Utils.getMaxValueKey(tempAccMap);
-						int argIndex = 0;
-						ArrayList<Argument> currJurorKnowledge = new ArrayList<Argument>(j.getKnowledge());
-						// while juror has not presented, search through juror's arguments to choose one to present
-						while(!presented && argIndex < currJurorKnowledge.size()) {
-							Argument argumentToPresent = currJurorKnowledge.get(argIndex);
+					// juror only presents arguments supporting their current opinion
+					boolean jurorOpinion = j.calculateVote();
+					// go through the types from highest to lowest acceptance until an argument is presented
+					for(int rank=0; !presented && rank<j.getNumOfPreferredTypes(); rank++) {
+						Utils.ArgumentType argType = j.getPreferredType(rank);
+						int candidates = j.getKnowledgeCount(argType, jurorOpinion);
+						// while juror has not presented, search through juror's arguments of that type and side
+						for(int argIndex=0; !presented && argIndex<candidates; argIndex++) {
+							Argument argumentToPresent = j.getKnowledge(argType, jurorOpinion, argIndex);
+							this.candidatesScanned++;
 							// check if next argument to be presented has been presented too many times
-							boolean repetition = false;
-							if(presentedArguments.containsKey(argumentToPresent)) {
-								repetition = (presentedArguments.get(argumentToPresent) > 3);
+							boolean repetition = (presentations[argumentToPresent.getId()] > 3);
+							if(repetition) {
+								this.repetitionSkips++;
 							}
-							boolean jurorOpinion = j.calculateVote();
-							// if juror current argument is of the specified type and it has not been presented too many times
-							if(argumentToPresent.getType().equals(argType) && argumentToPresent.isInnocent()==jurorOpinion && !repetition) {
-								// present argument to all other jurors
-								for(Juror listeningJuror:this.jurorList) {
-									// if it is not the presenting juror
-									if(!listeningJuror.equals(j)) {
-										int prevSize = listeningJuror.getKnowledge().size();										
-										listeningJuror.takeInArgument(argumentToPresent);
-										// keep track of accepted arguments
-										if(listeningJuror.getKnowledge().size() > prevSize) {
-											if(argumentToPresent.getType().equals(Utils.ArgumentType.CLAIM)) {
-												this.totalClaimsSpread++;
-											}
-											else {
-												this.totalNonClaimsSpread++;
+							// if it has not been presented too many times
+							if(!repetition) {
+								int accepted = 0;
+								if(graph != null) {
+									// present argument to the neighbors of the presenting juror
+									for(int n=graph.getRowStart(speaker); n<graph.getRowEnd(speaker); n++) {
+										if(this.jurorList.get(graph.getNeighbor(n)).takeInArgument(argumentToPresent, this.random)) {
+											accepted++;
+											this.countAccepted(graph.getNeighbor(n), argumentToPresent);
+										}
+									}
+								}
+								else if(sampler != null) {
+									int numOfSelected = sampler.sample(argumentToPresent.getType().ordinal(), this.random, selected);
+									for(int s=0; s<numOfSelected; s++) {
+										Juror listeningJuror = this.jurorList.get(selected[s]);
+										// the presenting juror knows the argument already
+										if(listeningJuror.acceptArgument(argumentToPresent)) {
+											accepted++;
+											this.countAccepted(selected[s], argumentToPresent);
+										}
+									}
+								}
+								else {
+									// present argument to all other jurors
+									for(int position=0; position<this.jurorList.size(); position++) {
+										Juror listeningJuror = this.jurorList.get(position);
+										// if it is not the presenting juror
+										if(!listeningJuror.equals(j)) {
+											// keep track of accepted arguments
+											if(listeningJuror.takeInArgument(argumentToPresent, this.random)) {
+												accepted++;
+												this.countAccepted(position, argumentToPresent);
 											}
 										}
 									}
 								}
+								if(this.listener != null) {
+									this.listener.argumentPresented(this, this.totalDeliberations, speaker, argumentToPresent.getId(),
+											argumentToPresent.getType(), argumentToPresent.isInnocent(), accepted);
+								}
 								// juror presented an argument
 								presented = true;
 								// argument occurrence is incremented to avoid extended repetition
-								if(presentedArguments.containsKey(argumentToPresent)){
-									presentedArguments.put(argumentToPresent, presentedArguments.get(argumentToPresent)+1);
-								}
-								else
-								{
-									presentedArguments.put(argumentToPresent, 1);
+								if(presentations[argumentToPresent.getId()]++ == 0) {
+									distinctPresented++;
 								}
 							}
-							// else go to next argument
-							else {
-								argIndex++;
-							}
 						}
-						tempAccMap.remove(argType);
 					}
 				}
 				// after 10 deliberations
@@ -327,16 +473,49 @@ public class Court {
 					j.setWillingness(j.getWillingness()*(1-this.voteType.getPenalty()));
 				}
 			}
+			if(this.listener != null) {
+				this.listener.roundCompleted(this, this.totalDeliberations);
+			}
 			// recalculate jury's willingness
 			juryWillingness = calculateJuryWillingness(this.jurorList);
 		}
 		this.avgClaimSpread = (double)this.totalClaimsSpread/this.totalDeliberations;
 		this.avgNonClaimSpread = (double)this.totalNonClaimsSpread/this.totalDeliberations;
-		System.out.println("Number of deliberations: " + this.totalDeliberations);
-		System.out.println("Number of non-claims spread in deliberation: " + this.totalNonClaimsSpread);
-		System.out.println("Number of claims spread in deliberation: " + this.totalClaimsSpread);
-		System.out.println("Average non-claim spread: " + this.avgClaimSpread);
-		System.out.println("Average claim spread: " + this.avgNonClaimSpread);
+		if(this.listener != null) {
+			this.listener.deliberationCompleted(this);
+		}
+	}
+
+	/**
+	 * Counts an argument a listener accepted during deliberation
+	 * @param position position of the listener in the jury
+	 * @param argument
+	 */
+	private void countAccepted(int position, Argument argument) {
+		if(argument.getType().equals(Utils.ArgumentType.CLAIM)) {
+			this.totalClaimsSpread++;
+		}
+		else {
+			this.totalNonClaimsSpread++;
+		}
+		if(this.listener != null) {
+			this.listener.argumentAccepted(this, this.totalDeliberations, position, argument.getId());
+		}
+	}
+
+	/**
+	 * Groups the jurors by their acceptance probability of every argument type
+	 * @return sampler of accepting listeners
+	 */
+	private ListenerSampler createListenerSampler() {
+		Utils.ArgumentType[] types = Utils.ArgumentType.values();
+		double[] probability = new double[this.jurorList.size()*types.length];
+		for(int j=0; j<this.jurorList.size(); j++) {
+			for(Utils.ArgumentType type:types) {
+				probability[j*types.length+type.ordinal()] = this.jurorList.get(j).getAcceptanceProbability(type);
+			}
+		}
+		return new ListenerSampler(probability, this.jurorList.size(), types.length);
 	}
 
 	/**
@@ -377,6 +556,9 @@ public class Court {
 				this.trialVerdict = "hung jury";
 			}
 		}
+		if(this.listener != null) {
+			this.listener.voteCast(this, this.trialVerdict);
+		}
 		return this.trialVerdict;
 	}
 
@@ -385,9 +567,9 @@ public class Court {
 	 * @return Map<Utils.ArgumentType, Double> typeDistribution
 	 */
 	public Map<Utils.ArgumentType, Double> getTrialArgumentTypeDistribution(){
-		Map<Utils.ArgumentType, Double> typeDistribution = new HashMap<Utils.ArgumentType, Double>();
+		Map<Utils.ArgumentType, Double> typeDistribution = new EnumMap<Utils.ArgumentType, Double>(Utils.ArgumentType.class);
 		
-		typeDistribution.put(Utils.ArgumentType.CLAIM, 100*(double)this.assignedClaims.size()/(this.assignedClaims.size()+this.argumentList.size()));
+		typeDistribution.put(Utils.ArgumentType.CLAIM, (double)this.assignedClaims.size());
 		for(Argument a:this.argumentList) {
 			if(typeDistribution.containsKey(a.getType())){
 				typeDistribution.put(a.getType(), typeDistribution.get(a.getType())+1);
@@ -408,7 +590,7 @@ public class Court {
 	 * @return Map<Utils.ArgumentType, Double> typeDistribution
 	 */
 	public Map<Utils.ArgumentType, Double> getJuryArgumentTypeDistribution(){		
-		Map<Utils.ArgumentType, Double> trialJuryStats = new HashMap<Utils.ArgumentType, Double>();
+		Map<Utils.ArgumentType, Double> trialJuryStats = new EnumMap<Utils.ArgumentType, Double>(Utils.ArgumentType.class);
 		for(Juror j:this.jurorList) {
 			Map<Utils.ArgumentType, Double> jurorStats = j.calculateArgumentTypeStatistics();
 			for(Map.Entry<Utils.ArgumentType, Double> entry : jurorStats.entrySet()) {
@@ -426,6 +608,21 @@ public class Court {
 		return trialJuryStats;
 	}
 	
+	public void fillTrialArgumentTypeDistribution(double[] distribution) {
+		fill(distribution, this.getTrialArgumentTypeDistribution());
+	}
+
+	public void fillJuryArgumentTypeDistribution(double[] distribution) {
+		fill(distribution, this.getJuryArgumentTypeDistribution());
+	}
+
+	private static void fill(double[] distribution, Map<Utils.ArgumentType, Double> values) {
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			Double value = values.get(type);
+			distribution[type.ordinal()] = (value == null) ? 0 : value;
+		}
+	}
+
 	/**
 	 * String form of current trial distributions of argument types
 	 * @return String completeStats
@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Who hears whom during deliberation. With the complete topology every juror hears every presented argument;
+ * with any other one a presented argument only reaches the neighbors of the speaker in a JuryGraph, which is
+ * built for every trial from its number of jurors. Jury positions are shuffled, so neighbors are random jurors.
+ * Topologies are written as kind:parameters:
+ * complete, ring:k (k neighbors on each side), smallworld:k:beta (ring rewired with probability beta, Watts-Strogatz),
+ * scalefree:m (preferential attachment of m edges per juror, Barabasi-Albert) and edges:file (one "a b" pair of
+ * juror positions per line, starting from 0, # for comments).
+ *
+ */
+public class DeliberationTopology {
+	public enum Kind {
+		COMPLETE, RING, SMALL_WORLD, SCALE_FREE, EDGE_LIST
+	}
+
+	public static final DeliberationTopology COMPLETE = new DeliberationTopology(Kind.COMPLETE, 0, 0, null, "complete");
+
+	private Kind kind;
+	// neighbors on each side of the ring, or edges of every new juror of a scale-free graph
+	private int degree;
+	// rewiring probability of a small world
+	private double rewiring;
+	// pairs of juror positions of an edge list
+	private int[] edges;
+	// description as given
+	private String name;
+
+	private DeliberationTopology(Kind kind, int degree, double rewiring, int[] edges, String name) {
+		this.kind = kind;
+		this.degree = degree;
+		this.rewiring = rewiring;
+		this.edges = edges;
+		this.name = name;
+	}
+
+	/**
+	 * Ring where every juror talks to the k jurors on each side
+	 * @param k
+	 * @return topology
+	 */
+	public static DeliberationTopology ring(int k) {
+		if(k <= 0) {
+			throw new IllegalArgumentException("Ring neighbors must be positive: " + k);
+		}
+		return new DeliberationTopology(Kind.RING, k, 0, null, "ring:" + k);
+	}
+
+	/**
+	 * Watts-Strogatz small world: a ring of k neighbors on each side whose edges are rewired to a random juror
+	 * with probability beta. A rewired edge that repeats an existing one is dropped.
+	 * @param k
+	 * @param beta
+	 * @return topology
+	 */
+	public static DeliberationTopology smallWorld(int k, double beta) {
+		if(k <= 0 || !(beta >= 0 && beta <= 1)) {
+			throw new IllegalArgumentException("Invalid small world: " + k + " neighbors, rewiring " + beta);
+		}
+		return new DeliberationTopology(Kind.SMALL_WORLD, k, beta, null, String.format(Locale.ROOT, "smallworld:%d:%s", k, beta));
+	}
+
+	/**
+	 * Barabasi-Albert scale-free graph: a complete core of m+1 jurors, then every juror links to m distinct
+	 * earlier jurors chosen with probability proportional to their degree
+	 * @param m
+	 * @return topology
+	 */
+	public static DeliberationTopology scaleFree(int m) {
+		if(m <= 0) {
+			throw new IllegalArgumentException("Scale-free edges per juror must be positive: " + m);
+		}
+		return new DeliberationTopology(Kind.SCALE_FREE, m, 0, null, "scalefree:" + m);
+	}
+
+	/**
+	 * Graph read from an edge list file. Edges to positions beyond the jury of a trial are ignored.
+	 * @param path
+	 * @return topology
+	 */
+	public static DeliberationTopology edgeList(String path) throws IOException {
+		int[] edges = new int[16];
+		int count = 0;
+		for(String line:Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+			int comment = line.indexOf('#');
+			if(comment >= 0) {
+				line = line.substring(0, comment);
+			}
+			line = line.trim();
+			if(line.isEmpty()) {
+				continue;
+			}
+			String[] ends = line.split("[\\s,]+");
+			if(ends.length != 2) {
+				throw new IllegalArgumentException("Invalid edge in " + path + ": " + line);
+			}
+			if(count+2 > edges.length) {
+				edges = Arrays.copyOf(edges, 2*edges.length);
+			}
+			for(String end:ends) {
+				int juror = Integer.parseInt(end);
+				if(juror < 0) {
+					throw new IllegalArgumentException("Invalid edge in " + path + ": " + line);
+				}
+				edges[count++] = juror;
+			}
+		}
+		return new DeliberationTopology(Kind.EDGE_LIST, 0, 0, Arrays.copyOf(edges, count), "edges:" + path);
+	}
+
+	/**
+	 * Reads a topology given as kind:parameters, e.g. "ring:2", "smallworld:4:0.1", "scalefree:3" or "edges:jury.txt".
+	 * Parameters left out take the defaults ring:1, smallworld:2:0.1 and scalefree:2.
+	 * @param value
+	 * @return topology
+	 */
+	public static DeliberationTopology parse(String value) throws IOException {
+		String[] parts = value.trim().split(":", 2);
+		String kind = parts[0].trim().toLowerCase(Locale.ROOT);
+		String[] parameters = (parts.length > 1) ? parts[1].split(":") : new String[0];
+		switch(kind) {
+		case "complete":
+			return COMPLETE;
+		case "ring":
+			return ring(parameter(parameters, 0, 1));
+		case "smallworld":
+			return smallWorld(parameter(parameters, 0, 2), (parameters.length > 1) ? Double.parseDouble(parameters[1].trim()) : 0.1);
+		case "scalefree":
+			return scaleFree(parameter(parameters, 0, 2));
+		case "edges":
+			if(parts.length < 2) {
+				throw new IllegalArgumentException("Missing edge list file: " + value);
+			}
+			return edgeList(parts[1].trim());
+		default:
+			throw new IllegalArgumentException("Unknown deliberation topology: " + value);
+		}
+	}
+
+	private static int parameter(String[] parameters, int index, int defaultValue) {
+		return (parameters.length > index) ? Integer.parseInt(parameters[index].trim()) : defaultValue;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Whether every juror hears every other, in which case no graph is built
+	 * @return true for the complete topology
+	 */
+	public boolean isComplete() {
+		return this.kind == Kind.COMPLETE;
+	}
+
+	/**
+	 * Builds the graph of a trial
+	 * @param numOfJurors
+	 * @param random generator of the simulation, drawn from by the random topologies
+	 * @param graph filled with the edges of the trial
+	 */
+	public void build(int numOfJurors, SimulationRandom random, JuryGraph graph) {
+		graph.clear(numOfJurors);
+		switch(this.kind) {
+		case COMPLETE:
+			for(int a=0; a<numOfJurors; a++) {
+				for(int b=a+1; b<numOfJurors; b++) {
+					graph.addEdge(a, b);
+				}
+			}
+			break;
+		case RING:
+			for(int a=0; a<numOfJurors; a++) {
+				for(int s=1; s<=this.degree; s++) {
+					graph.addEdge(a, (a+s)%numOfJurors);
+				}
+			}
+			break;
+		case SMALL_WORLD:
+			for(int a=0; a<numOfJurors; a++) {
+				for(int s=1; s<=this.degree; s++) {
+					int b = (a+s)%numOfJurors;
+					if(numOfJurors > 1 && random.nextDouble() < this.rewiring) {
+						do {
+							b = random.nextInt(numOfJurors);
+						} while(b == a);
+					}
+					graph.addEdge(a, b);
+				}
+			}
+			break;
+		case SCALE_FREE:
+			this.buildScaleFree(numOfJurors, random, graph);
+			break;
+		case EDGE_LIST:
+			for(int e=0; e<this.edges.length; e+=2) {
+				if(this.edges[e] < numOfJurors && this.edges[e+1] < numOfJurors) {
+					graph.addEdge(this.edges[e], this.edges[e+1]);
+				}
+			}
+			break;
+		}
+		graph.build();
+	}
+
+	private void buildScaleFree(int numOfJurors, SimulationRandom random, JuryGraph graph) {
+		int core = Math.min(numOfJurors, this.degree+1);
+		for(int a=0; a<core; a++) {
+			for(int b=a+1; b<core; b++) {
+				graph.addEdge(a, b);
+			}
+		}
+		for(int juror=core; juror<numOfJurors; juror++) {
+			// a uniform end of the edges so far is a juror chosen with probability proportional to its degree
+			int ends = 2*graph.getNumOfAddedEdges();
+			int first = graph.getNumOfAddedEdges();
+			while(graph.getNumOfAddedEdges() - first < this.degree) {
+				int end = random.nextInt(ends);
+				int target = graph.getAddedEdgeEnd(end>>1, end&1);
+				boolean repeated = false;
+				for(int e=first; e<graph.getNumOfAddedEdges() && !repeated; e++) {
+					repeated = (graph.getAddedEdgeEnd(e, 1) == target);
+				}
+				if(!repeated) {
+					graph.addEdge(juror, target);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
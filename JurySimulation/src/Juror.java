@@ -1,8 +1,10 @@
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 /**
  * Juror class simulates the agents of the argumentation simulation
  * @author Panagiotis
@@ -11,8 +13,22 @@ import java.util.concurrent.ThreadLocalRandom;
 public class Juror {
 	// id of argument
 	private int id; // TODO: more elaborate?
-	// Agent's knowledge base of presented arguments they paid attention to
-	private ArrayList<Argument> knowledge;
+	// Agent's knowledge base of presented arguments they paid attention to, in the order they were accepted
+	private Argument[] knowledge;
+	// number of arguments in the knowledge base
+	private int knowledgeSize;
+	// bitset of the indices of the arguments in the knowledge base
+	private long[] knownArguments;
+	// read-only list view of the knowledge base, created on first use
+	private List<Argument> knowledgeView;
+	// exonerating minus incriminating arguments in the knowledge base, kept up to date on every addition
+	private int voteScore;
+	// knowledge base split per argument type and side, indexed by typeSideSlot()
+	private Argument[][] knowledgeByTypeSide;
+	// number of arguments per argument type and side
+	private int[] knowledgeByTypeSideSize;
+	// argument types of the acceptance map ordered by decreasing acceptance
+	private Utils.ArgumentType[] typePreference;
 	// Agent's acceptance of every argument type
 	private Map<Utils.ArgumentType, Double> argumentTypeAcceptance;
 	// Agent's initiative to participate in the deliberations
@@ -21,21 +37,24 @@ public class Juror {
 	private double willingness;
 
 	// instances counter
-	private static int counter = 0;
+	private static final AtomicInteger counter = new AtomicInteger();
 	// members in a small jury
 	private static final double MIN_ACCEPTANCE = 0.0;
 	// members in a big jury
 	private static final double MAX_ACCEPTANCE = 1.0;
+	// initial capacity of the knowledge base
+	private static final int INITIAL_KNOWLEDGE = 64;
+	// cases of at least this many arguments are taken in by skip sampling, smaller ones with one draw per argument
+	public static final int MIN_BULK_INTAKE = 1000;
 
 	/**
 	 * Constructor of Juror class with user-specified properties
 	 * @param argumentTypeAcceptance required
 	 */
 	public Juror(Map<Utils.ArgumentType, Double> argumentTypeAcceptance, double participation, double willingness) {
-		counter++;
-		this.id = counter;
-		this.knowledge = new ArrayList<Argument>();
-		this.argumentTypeAcceptance = argumentTypeAcceptance;
+		this.id = counter.incrementAndGet();
+		this.initKnowledge();
+		this.setArgumentTypeAcceptance(argumentTypeAcceptance);
 		this.participation = participation;
 		this.willingness = willingness;
 	}
@@ -45,21 +64,20 @@ public class Juror {
 	 * @param: biased whether the generated agent will be biased
 	 * @param: biasLevel how many claims the biased juror will have, relative to trial's num of arguments 
 	 * @param: correctVerdict the expected verdict
+	 * @param: random generator of the simulation
 	 */
 	public Juror(Map<Utils.ArgumentType, Double> argumentTypeAcceptance, double participation, double willingness,
-			Utils.BiasLevel biasLevel, int trialArguments, ArrayList<Argument> claims) {
-		counter++;
-		this.id = counter;
+			Utils.BiasLevel biasLevel, int trialArguments, ArrayList<Argument> claims, SimulationRandom random) {
+		this.id = counter.incrementAndGet();
 		this.participation = participation;
 		this.willingness = willingness;		
-		this.argumentTypeAcceptance = new HashMap<Utils.ArgumentType, Double>();
-		this.argumentTypeAcceptance = argumentTypeAcceptance;
-		this.knowledge = new ArrayList<Argument>();
+		this.setArgumentTypeAcceptance(argumentTypeAcceptance);
+		this.initKnowledge();
 		// adding claims to biased agent's knowledge base
 		int numOfClaims = (int)(trialArguments*biasLevel.getPercentage());
-		Collections.shuffle(claims);
+		Utils.shuffle(claims, random);
 		for(int i=0; i<numOfClaims; i++) {
-			this.knowledge.add(claims.get(i));
+			this.addKnowledge(claims.get(i));
 		}
 	}
 
@@ -73,18 +91,96 @@ public class Juror {
 
 	/**
 	 * Getter of knowledge property
-	 * @return ArrayList<Argument> knowledge
+	 * @return read-only list view of the knowledge base
 	 */
-	public ArrayList<Argument> getKnowledge() {
-		return knowledge;
+	public List<Argument> getKnowledge() {
+		if(this.knowledgeView == null) {
+			this.knowledgeView = new AbstractList<Argument>() {
+				@Override
+				public Argument get(int index) {
+					if(index >= knowledgeSize) {
+						throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + knowledgeSize);
+					}
+					return knowledge[index];
+				}
+
+				@Override
+				public int size() {
+					return knowledgeSize;
+				}
+			};
+		}
+		return this.knowledgeView;
 	}
 
 	/**
 	 * Setter of knowledge property
 	 * @param knowledge
 	 */
-	public void setKnowledge(ArrayList<Argument> knowledge) {
-		this.knowledge = knowledge;
+	public void setKnowledge(List<Argument> knowledge) {
+		this.initKnowledge();
+		for(Argument a:knowledge) {
+			if(!this.knows(a)) {
+				this.addKnowledge(a);
+			}
+		}
+	}
+
+	/**
+	 * Number of arguments of the given type and side in the knowledge base
+	 * @param type
+	 * @param innocent
+	 * @return count
+	 */
+	public int getKnowledgeCount(Utils.ArgumentType type, boolean innocent) {
+		return this.knowledgeByTypeSideSize[typeSideSlot(type, innocent)];
+	}
+
+	/**
+	 * Argument of the given type and side in the knowledge base
+	 * @param type
+	 * @param innocent
+	 * @param index from 0 to getKnowledgeCount(type, innocent), in the order the arguments were accepted
+	 * @return argument
+	 */
+	public Argument getKnowledge(Utils.ArgumentType type, boolean innocent, int index) {
+		return this.knowledgeByTypeSide[typeSideSlot(type, innocent)][index];
+	}
+
+	/**
+	 * Number of argument types in the juror's acceptance map
+	 * @return number of preferred types
+	 */
+	public int getNumOfPreferredTypes() {
+		return this.typePreference.length;
+	}
+
+	/**
+	 * Argument type by rank of acceptance
+	 * @param rank 0 for the type with the highest acceptance
+	 * @return argument type
+	 */
+	public Utils.ArgumentType getPreferredType(int rank) {
+		return this.typePreference[rank];
+	}
+
+	/**
+	 * Number of arguments in the knowledge base
+	 * @return knowledgeSize
+	 */
+	public int getKnowledgeSize() {
+		return knowledgeSize;
+	}
+
+	/**
+	 * Checks if an argument is in the knowledge base
+	 * @param argument argument registered with its court
+	 * @return true if the juror knows the argument
+	 */
+	public boolean knows(Argument argument) {
+		int id = argument.getId();
+		int word = id >>> 6;
+		return word < this.knownArguments.length && (this.knownArguments[word] & (1L << id)) != 0;
 	}
 
 	/**
@@ -99,6 +195,20 @@ public class Juror {
 	 */
 	public void setArgumentTypeAcceptance(Map<Utils.ArgumentType, Double> argumentTypeAcceptance) {
 		this.argumentTypeAcceptance = argumentTypeAcceptance;
+		// insertion sort of the types by decreasing acceptance, ties keep the enum order
+		this.typePreference = new Utils.ArgumentType[argumentTypeAcceptance.size()];
+		int size = 0;
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			if(argumentTypeAcceptance.containsKey(type)) {
+				double acceptance = argumentTypeAcceptance.get(type);
+				int i = size++;
+				while(i > 0 && argumentTypeAcceptance.get(this.typePreference[i-1]) < acceptance) {
+					this.typePreference[i] = this.typePreference[i-1];
+					i--;
+				}
+				this.typePreference[i] = type;
+			}
+		}
 	}
 	/**
 	 * Gets agent's participation
@@ -130,24 +240,145 @@ public class Juror {
 	/**
 	 * Function that decides which arguments the juror accepts. Runs through the whole list of arguments.
 	 * @param providedArguments: all of the arguments in the current case/court
+	 * @param random: generator of the simulation
 	 */
-	public void takeInArguments(ArrayList<Argument> providedArguments) {
+	public void takeInArguments(ArrayList<Argument> providedArguments, SimulationRandom random) {
 		// for every argument in the argument list
 		for(Argument a:providedArguments) {
 			// check if random chance equal or smaller than acceptance of argument type to add argument
-			this.takeInArgument(a);
+			this.takeInArgument(a, random);
+		}
+	}
+
+	/**
+	 * Bulk version of takeInArguments for large cases. The arguments of every type are walked with geometric skips
+	 * at the juror's acceptance probability of the type, so only accepted arguments are visited. Every argument
+	 * is accepted with the same probability as in takeInArguments, but fewer random numbers are drawn.
+	 * @param argumentsByType: the arguments of the case grouped by type ordinal, in case order
+	 * @param maxIndex: largest argument id in the case
+	 * @param random: generator of the simulation
+	 */
+	public void takeInArguments(Argument[][] argumentsByType, int maxIndex, SimulationRandom random) {
+		Utils.ArgumentType[] types = Utils.ArgumentType.values();
+		// room for the expected accepted arguments, so the knowledge base rarely grows during intake
+		double expected = 0;
+		for(Utils.ArgumentType type:types) {
+			expected += this.getAcceptanceProbability(type)*argumentsByType[type.ordinal()].length;
+		}
+		this.reserveKnowledge((int)(1.05*expected) + 16, maxIndex);
+		for(Utils.ArgumentType type:types) {
+			Argument[] arguments = argumentsByType[type.ordinal()];
+			double logMiss = Math.log1p(-this.getAcceptanceProbability(type));
+			for(int i=Utils.geometricSkip(random, logMiss); i<arguments.length; i+=1+Utils.geometricSkip(random, logMiss)) {
+				if(!this.knows(arguments[i])) {
+					this.addKnowledge(arguments[i]);
+				}
+			}
 		}
 	}
 
 	/**
 	 * Function that decides if the juror accepts an argument.
 	 * @param providedArgument: argument to decided if it is going to be accepted
+	 * @param random: generator of the simulation
+	 * @return true if the argument was added to the knowledge base
 	 */
-	public void takeInArgument(Argument providedArgument) {
-		if( ThreadLocalRandom.current().nextDouble(MIN_ACCEPTANCE, MAX_ACCEPTANCE) <= this.argumentTypeAcceptance.get(providedArgument.getType()) 
-				&& !this.knowledge.contains(providedArgument)) {
-			this.knowledge.add(providedArgument);
-		}	
+	public boolean takeInArgument(Argument providedArgument, SimulationRandom random) {
+		if( random.nextDouble(MIN_ACCEPTANCE, MAX_ACCEPTANCE) <= this.argumentTypeAcceptance.get(providedArgument.getType()) 
+				&& !this.knows(providedArgument)) {
+			this.addKnowledge(providedArgument);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Probability that the juror accepts an argument of the given type, the chance of the draw in takeInArgument
+	 * @param type
+	 * @return probability
+	 */
+	public double getAcceptanceProbability(Utils.ArgumentType type) {
+		double p = (this.argumentTypeAcceptance.get(type) - MIN_ACCEPTANCE)/(MAX_ACCEPTANCE - MIN_ACCEPTANCE);
+		return Math.max(0, Math.min(1, p));
+	}
+
+	/**
+	 * Adds an argument the juror already decided to accept, used when the accepting jurors are sampled by the court
+	 * @param acceptedArgument
+	 * @return true if the argument was added to the knowledge base, false if it was known
+	 */
+	public boolean acceptArgument(Argument acceptedArgument) {
+		if(!this.knows(acceptedArgument)) {
+			this.addKnowledge(acceptedArgument);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds an argument the juror does not know yet to the knowledge base
+	 * @param argument
+	 */
+	private void addKnowledge(Argument argument) {
+		int id = argument.getId();
+		if(id < 0) {
+			throw new IllegalArgumentException("Argument is not registered with a court");
+		}
+		int word = id >>> 6;
+		if(word >= this.knownArguments.length) {
+			this.knownArguments = Arrays.copyOf(this.knownArguments, Math.max(word+1, 2*this.knownArguments.length));
+		}
+		this.knownArguments[word] |= 1L << id;
+		if(this.knowledgeSize == this.knowledge.length) {
+			this.knowledge = Arrays.copyOf(this.knowledge, 2*this.knowledge.length);
+		}
+		this.knowledge[this.knowledgeSize++] = argument;
+		this.voteScore = (argument.isInnocent()) ? this.voteScore+1 : this.voteScore-1;
+		int slot = typeSideSlot(argument.getType(), argument.isInnocent());
+		if(this.knowledgeByTypeSideSize[slot] == this.knowledgeByTypeSide[slot].length) {
+			this.knowledgeByTypeSide[slot] = Arrays.copyOf(this.knowledgeByTypeSide[slot], 2*this.knowledgeByTypeSide[slot].length);
+		}
+		this.knowledgeByTypeSide[slot][this.knowledgeByTypeSideSize[slot]++] = argument;
+	}
+
+	/**
+	 * Starts an empty knowledge base
+	 */
+	private void initKnowledge() {
+		this.knowledge = new Argument[INITIAL_KNOWLEDGE];
+		this.knownArguments = new long[INITIAL_KNOWLEDGE >>> 6];
+		this.knowledgeSize = 0;
+		this.voteScore = 0;
+		this.knowledgeByTypeSide = new Argument[2*Utils.ArgumentType.values().length][];
+		for(int i=0; i<this.knowledgeByTypeSide.length; i++) {
+			this.knowledgeByTypeSide[i] = new Argument[INITIAL_KNOWLEDGE/2];
+		}
+		this.knowledgeByTypeSideSize = new int[this.knowledgeByTypeSide.length];
+	}
+
+	/**
+	 * Grows the knowledge base to hold more arguments and the given argument id
+	 * @param additional: number of arguments to make room for
+	 * @param maxIndex: largest argument id to make room for
+	 */
+	private void reserveKnowledge(int additional, int maxIndex) {
+		if(this.knowledgeSize + additional > this.knowledge.length) {
+			this.knowledge = Arrays.copyOf(this.knowledge, this.knowledgeSize + additional);
+		}
+		int words = (maxIndex >>> 6) + 1;
+		if(words > this.knownArguments.length) {
+			this.knownArguments = Arrays.copyOf(this.knownArguments, words);
+		}
+	}
+
+	/**
+	 * Slot of an argument type and side in the split knowledge base
+	 * @param type
+	 * @param innocent
+	 * @return slot
+	 */
+	private static int typeSideSlot(Utils.ArgumentType type, boolean innocent) {
+		return 2*type.ordinal() + (innocent ? 1 : 0);
 	}
 
 	// TODO: not necessary?
@@ -189,19 +420,15 @@ public class Juror {
 	 * @return innocent=false if most arguments in knowledge are negative. True otherwise.
 	 */
 	public boolean calculateVote() {
-		int innocent = 0;
-		for(Argument a:knowledge) {
-			innocent = (a.isInnocent()) ? innocent+1 : innocent-1;
-		}
-		return (innocent>=0);
+		return (this.voteScore>=0);
 	}
 	
+	/**
+	 * Current score of the juror, the side of an argument is taken when it enters the knowledge base
+	 * @return exonerating minus incriminating arguments in knowledge
+	 */
 	public int testVoteScore() {
-		int innocent = 0;
-		for(Argument a:knowledge) {
-			innocent = (a.isInnocent()) ? innocent+1 : innocent-1;
-		}
-		return innocent;
+		return this.voteScore;
 	}
 
 	@Override
@@ -210,7 +437,7 @@ public class Juror {
 				+ " Num of arguments in knowledge: %d.\n"
 				+ " Acceptance : %s.\n"
 				+ " Innocent suspect: %b \n",
-				this.id, this.knowledge.size(), this.argumentTypeAcceptance, calculateVote());
+				this.id, this.knowledgeSize, this.argumentTypeAcceptance, calculateVote());
 	}
 	
 	/**
@@ -219,7 +446,8 @@ public class Juror {
 	 */
 	public Map<Utils.ArgumentType, Double> calculateArgumentTypeStatistics(){
 		Map<Utils.ArgumentType, Double> stats = new HashMap<Utils.ArgumentType, Double>();
-		for(Argument a:this.knowledge) {
+		for(int i=0; i<this.knowledgeSize; i++) {
+			Argument a = this.knowledge[i];
 			if(stats.containsKey(a.getType())){
 				stats.put(a.getType(), stats.get(a.getType())+1);
 			}
@@ -229,7 +457,7 @@ public class Juror {
 			}			
 		}
 		for(Map.Entry<Utils.ArgumentType, Double> entry : stats.entrySet()) {
-			entry.setValue(entry.getValue()/this.knowledge.size());
+			entry.setValue(entry.getValue()/this.knowledgeSize);
 		}
 		return stats;
 	}
@@ -241,16 +469,16 @@ public class Juror {
 	public Map<String, Double> calculateArgumentSideStatistics(){
 		Map<String, Double> stats = new HashMap<String, Double>();
 		double positive = 0, negative = 0;
-		for(Argument a:this.knowledge) {
-			if(a.isInnocent()) {
+		for(int i=0; i<this.knowledgeSize; i++) {
+			if(this.knowledge[i].isInnocent()) {
 				positive++;
 			}
 			else {
 				negative++;
 			}
 		}
-		stats.put("Exonerating", positive/this.knowledge.size());
-		stats.put("Incriminating", negative/this.knowledge.size());
+		stats.put("Exonerating", positive/this.knowledgeSize);
+		stats.put("Incriminating", negative/this.knowledgeSize);
 		return stats;
 	}
 	
@@ -0,0 +1,151 @@
+import java.util.Arrays;
+
+/**
+ * Undirected communication graph of a jury in compressed sparse row form: the neighbors of juror j are
+ * neighbors[offsets[j]] to neighbors[offsets[j+1]-1], in increasing order. Edges are collected with addEdge
+ * and turned into rows by build, which drops self loops and repeated edges. The arrays are kept when the
+ * graph is cleared, so a graph can be rebuilt for every trial without allocating once it has grown.
+ *
+ */
+public class JuryGraph {
+	private int numOfJurors;
+	// start of the row of every juror, numOfJurors+1 entries
+	private int[] offsets = new int[1];
+	private int[] neighbors = new int[0];
+	// edges added since the last clear
+	private int numOfAddedEdges;
+	private int[] edgeFrom = new int[0];
+	private int[] edgeTo = new int[0];
+	// next free place of every row, used while building
+	private int[] cursor = new int[0];
+
+	/**
+	 * Removes every edge and sets the number of jurors
+	 * @param numOfJurors
+	 */
+	public void clear(int numOfJurors) {
+		this.numOfJurors = numOfJurors;
+		this.numOfAddedEdges = 0;
+	}
+
+	/**
+	 * Adds an undirected edge, visible after build
+	 * @param a juror position
+	 * @param b juror position
+	 */
+	public void addEdge(int a, int b) {
+		if(this.numOfAddedEdges == this.edgeFrom.length) {
+			int capacity = Math.max(16, 2*this.edgeFrom.length);
+			this.edgeFrom = Arrays.copyOf(this.edgeFrom, capacity);
+			this.edgeTo = Arrays.copyOf(this.edgeTo, capacity);
+		}
+		this.edgeFrom[this.numOfAddedEdges] = a;
+		this.edgeTo[this.numOfAddedEdges] = b;
+		this.numOfAddedEdges++;
+	}
+
+	/**
+	 * Number of edges added since the last clear, repeated ones included
+	 * @return numOfAddedEdges
+	 */
+	public int getNumOfAddedEdges() {
+		return numOfAddedEdges;
+	}
+
+	/**
+	 * One end of an added edge
+	 * @param edge index of the edge in adding order
+	 * @param side 0 for the first end, 1 for the second
+	 * @return juror position
+	 */
+	public int getAddedEdgeEnd(int edge, int side) {
+		return (side == 0) ? this.edgeFrom[edge] : this.edgeTo[edge];
+	}
+
+	/**
+	 * Builds the rows of the added edges
+	 */
+	public void build() {
+		int n = this.numOfJurors;
+		if(this.offsets.length < n+1) {
+			this.offsets = new int[n+1];
+			this.cursor = new int[n];
+		}
+		Arrays.fill(this.offsets, 0, n+1, 0);
+		// degrees, every edge once in each direction
+		for(int e=0; e<this.numOfAddedEdges; e++) {
+			if(this.edgeFrom[e] != this.edgeTo[e]) {
+				this.offsets[this.edgeFrom[e]+1]++;
+				this.offsets[this.edgeTo[e]+1]++;
+			}
+		}
+		for(int j=0; j<n; j++) {
+			this.offsets[j+1] += this.offsets[j];
+		}
+		if(this.neighbors.length < this.offsets[n]) {
+			this.neighbors = new int[this.offsets[n]];
+		}
+		System.arraycopy(this.offsets, 0, this.cursor, 0, n);
+		for(int e=0; e<this.numOfAddedEdges; e++) {
+			int a = this.edgeFrom[e];
+			int b = this.edgeTo[e];
+			if(a != b) {
+				this.neighbors[this.cursor[a]++] = b;
+				this.neighbors[this.cursor[b]++] = a;
+			}
+		}
+		// sort every row and drop repeated edges, moving the rows down in place
+		int write = 0;
+		for(int j=0; j<n; j++) {
+			int start = this.offsets[j];
+			int end = this.offsets[j+1];
+			Arrays.sort(this.neighbors, start, end);
+			this.offsets[j] = write;
+			for(int i=start; i<end; i++) {
+				if(i == start || this.neighbors[i] != this.neighbors[i-1]) {
+					this.neighbors[write++] = this.neighbors[i];
+				}
+			}
+		}
+		this.offsets[n] = write;
+	}
+
+	public int getNumOfJurors() {
+		return numOfJurors;
+	}
+
+	/**
+	 * Number of undirected edges of the built graph
+	 * @return numOfEdges
+	 */
+	public int getNumOfEdges() {
+		return this.offsets[this.numOfJurors]/2;
+	}
+
+	/**
+	 * Start of the row of a juror
+	 * @param juror
+	 * @return index of the first neighbor
+	 */
+	public int getRowStart(int juror) {
+		return this.offsets[juror];
+	}
+
+	/**
+	 * End of the row of a juror
+	 * @param juror
+	 * @return index after the last neighbor
+	 */
+	public int getRowEnd(int juror) {
+		return this.offsets[juror+1];
+	}
+
+	/**
+	 * Neighbor at an index of a row
+	 * @param index between getRowStart and getRowEnd of a juror
+	 * @return juror position
+	 */
+	public int getNeighbor(int index) {
+		return this.neighbors[index];
+	}
+}
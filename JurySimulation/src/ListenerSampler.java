@@ -0,0 +1,142 @@
+import java.util.Arrays;
+
+/**
+ * Finds the listeners that accept a presented argument without one draw per listener, for large juries.
+ * For every argument type the jurors are grouped in bands of similar acceptance probability, band k holding
+ * the probabilities in (RATIO^(k+1), RATIO^k]. Inside a band, candidates are found by geometric skips with the
+ * upper bound of the band and every candidate is kept with probability p/upper bound, so every juror is
+ * selected independently with its own probability, exactly as with one draw per listener.
+ * The cost of a broadcast is proportional to the number of accepting listeners plus the number of bands.
+ *
+ */
+public class ListenerSampler {
+	// juries of at least this size broadcast through the sampler, smaller ones draw once per listener
+	public static final int MIN_JURORS = 64;
+	// ratio of the bounds of two neighbouring bands
+	private static final double RATIO = 0.9;
+	// number of bands, the last one takes every probability below its upper bound
+	private static final int NUM_OF_BANDS = 48;
+	// upper bound of the probabilities of every band
+	private static final double[] UPPER = new double[NUM_OF_BANDS];
+	// log(1 - upper bound) of every band
+	private static final double[] LOG_MISS = new double[NUM_OF_BANDS];
+	static {
+		for(int k=0; k<NUM_OF_BANDS; k++) {
+			UPPER[k] = Math.pow(RATIO, k);
+			LOG_MISS[k] = Math.log1p(-UPPER[k]);
+		}
+	}
+
+	private int types;
+	// acceptance probability of every juror and type, jurors*types
+	private double[] probability;
+	// jurors of every type ordered by band, types*jurors
+	private int[] members;
+	// start of every band inside the jurors of a type, types*(NUM_OF_BANDS+1)
+	private int[] bandOffset;
+	// band of every juror and next free place of every band, used while grouping
+	private int[] band;
+	private int[] next;
+
+	/**
+	 * Groups the jurors by acceptance probability
+	 * @param probability acceptance probability of every juror and argument type, jurors*types
+	 * @param numOfJurors
+	 * @param types number of argument types
+	 */
+	public ListenerSampler(double[] probability, int numOfJurors, int types) {
+		this.reset(probability, numOfJurors, types);
+	}
+
+	/**
+	 * Groups the jurors of another trial, reusing the arrays of this sampler when they are large enough
+	 * @param probability acceptance probability of every juror and argument type, jurors*types
+	 * @param numOfJurors
+	 * @param types number of argument types
+	 */
+	public void reset(double[] probability, int numOfJurors, int types) {
+		this.types = types;
+		this.probability = probability;
+		if(this.members == null || this.members.length < types*numOfJurors) {
+			this.members = new int[types*numOfJurors];
+			this.band = new int[numOfJurors];
+		}
+		if(this.bandOffset == null || this.bandOffset.length < types*(NUM_OF_BANDS+1)) {
+			this.bandOffset = new int[types*(NUM_OF_BANDS+1)];
+			this.next = new int[NUM_OF_BANDS];
+		}
+		Arrays.fill(this.bandOffset, 0);
+		int[] band = this.band;
+		int[] next = this.next;
+		for(int t=0; t<types; t++) {
+			int offsets = t*(NUM_OF_BANDS+1);
+			// counting sort of the jurors by band, jurors that never accept belong to no band
+			int placed = 0;
+			for(int j=0; j<numOfJurors; j++) {
+				double p = probability[j*types+t];
+				band[j] = (p > 0) ? band(p) : -1;
+				if(band[j] >= 0) {
+					this.bandOffset[offsets+band[j]+1]++;
+					placed++;
+				}
+			}
+			for(int k=0; k<NUM_OF_BANDS; k++) {
+				this.bandOffset[offsets+k+1] += this.bandOffset[offsets+k];
+			}
+			Arrays.fill(next, 0);
+			for(int j=0; j<numOfJurors; j++) {
+				if(band[j] >= 0) {
+					this.members[t*numOfJurors + this.bandOffset[offsets+band[j]] + next[band[j]]++] = j;
+				}
+			}
+			// members of a type start at t*numOfJurors
+			for(int k=0; k<=NUM_OF_BANDS; k++) {
+				this.bandOffset[offsets+k] += t*numOfJurors;
+			}
+			assert this.bandOffset[offsets+NUM_OF_BANDS] == t*numOfJurors + placed;
+		}
+	}
+
+	/**
+	 * Selects every juror independently with its acceptance probability of the given type
+	 * @param type ordinal of the argument type
+	 * @param random generator of the simulation
+	 * @param selected filled with the positions of the selected jurors, in band order
+	 * @return number of selected jurors
+	 */
+	public int sample(int type, SimulationRandom random, int[] selected) {
+		int count = 0;
+		int offsets = type*(NUM_OF_BANDS+1);
+		for(int k=0; k<NUM_OF_BANDS; k++) {
+			int end = this.bandOffset[offsets+k+1];
+			int i = this.bandOffset[offsets+k] - 1;
+			while(true) {
+				i += 1 + Utils.geometricSkip(random, LOG_MISS[k]);
+				if(i >= end) {
+					break;
+				}
+				int juror = this.members[i];
+				// thinning from the upper bound of the band to the probability of the juror
+				if(random.nextDouble()*UPPER[k] < this.probability[juror*this.types+type]) {
+					selected[count++] = juror;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Band of a positive probability
+	 */
+	private static int band(double p) {
+		if(p >= 1) {
+			return 0;
+		}
+		int k = (int)Math.min(NUM_OF_BANDS-1, Math.floor(Math.log(p)/Math.log(RATIO)));
+		// guard against rounding at the band bounds
+		while(k > 0 && p > UPPER[k]) {
+			k--;
+		}
+		return k;
+	}
+}
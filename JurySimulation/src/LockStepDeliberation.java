@@ -0,0 +1,58 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deliberation of several CompactCourts at once, one court per lane, by an engine outside this module.
+ * The engine of --engine vector is VectorDeliberation of the vector-engine module, which needs a JDK with
+ * jdk.incubator.vector; it is loaded by name, so this module builds and runs on Java 8 without it.
+ * An engine runs a range of the simulations of a point: it builds the court of every simulation from the stream
+ * of the simulation, provides the arguments, deliberates the courts together and hands them over in the order of
+ * the simulations. It draws the same random numbers as every court's own juryDeliberation, so the trials are
+ * those of the compact engine.
+ *
+ */
+public interface LockStepDeliberation {
+	// courts an engine keeps per worker thread at most, in the lanes or waiting for earlier simulations to finish
+	int MAX_COURTS = 32;
+	// options of a JVM that runs the engine
+	List<String> JVM_OPTIONS = Collections.unmodifiableList(Arrays.asList("--add-modules", "jdk.incubator.vector"));
+
+	/**
+	 * Receives the deliberated trials of a range in the order of their simulations
+	 */
+	interface TrialSink {
+		/**
+		 * A trial has deliberated
+		 * @param simulation index of the simulation
+		 * @param court court of the simulation before the vote, reused once the method returns
+		 * @param scoresBefore scores of the jurors before deliberation
+		 */
+		void deliberated(int simulation, CompactCourt court, int[] scoresBefore);
+	}
+
+	/**
+	 * Runs a range of the simulations of a point on the calling thread
+	 * @param mso simulation parameters, juries smaller than ListenerSampler.MIN_JURORS with every juror hearing every other
+	 * @param masterSeed seed of the run
+	 * @param first index of the first simulation
+	 * @param size number of simulations
+	 * @param sink receiver of every trial
+	 */
+	void run(MenuSelectionObject mso, long masterSeed, int first, int size, TrialSink sink);
+
+	/**
+	 * Creates the engine of the vector-engine module
+	 * @return engine, to be used by a single thread
+	 * @throws IllegalStateException if the module or jdk.incubator.vector is missing
+	 */
+	static LockStepDeliberation load() {
+		try {
+			return (LockStepDeliberation) Class.forName("VectorDeliberation").getConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError e) {
+			throw new IllegalStateException("The vector engine needs the vector-engine module on the class path and a JDK 16"
+					+ " or later started with " + String.join(" ", JVM_OPTIONS), e);
+		}
+	}
+}
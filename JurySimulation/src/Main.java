@@ -1,90 +1,361 @@
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.HashMap;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class Main {
 	
-	public static void main(String[] args) throws FileNotFoundException {
-		// init statistics stuff
-		int falsePositive = 0, falseNegative = 0, hungJury = 0, correctVerdicts = 0;
-		double totalAvgClaimSpread = 0, totalAvgNonClaimSpread = 0, avgDeliberations = 0;
-		Map<Utils.ArgumentType, Double> totalTrialArgTypeDistr = new HashMap<Utils.ArgumentType, Double>();
-		Map<Utils.ArgumentType, Double> totalJuryArgTypeDistr = new HashMap<Utils.ArgumentType, Double>();
-		// results file
-		PrintWriter out = new PrintWriter("results.txt");
-		// number of simulations
-		MenuSelectionObject mso = Utils.getSimulationParametersFromUser();
-		// go
-		for(int i=1; i<=mso.getNumOfSimulations(); i++) {
-			System.out.println("\n=========================================================\n");
-			// initialize a simulation
-			Court simulation = new Court(mso.getVoteChoice(), mso.getArgumentChoice(), mso.getJuryChoice(), 
-											mso.getBiasedChoice(), new int[]{mso.getLowBiasedChoice(), mso.getHighBiasedChoice()});
-			System.out.println("Suspect is innocent: " + simulation.isCorrectVerdict());
-			// arguments are presented to the jury
-			simulation.provideArguments();
-			System.out.println("BEFORE DELIBERATION");
-			for(Juror j:simulation.getJurorList()) {
-				System.out.println("Juror " + j.getId() + " score: " + j.testVoteScore());
-			}
-			// deliberation takes place
-			simulation.juryDeliberation();
-			// statistics stuff counting
-			totalAvgClaimSpread += simulation.getAvgClaimSpread();
-			totalAvgNonClaimSpread += simulation.getAvgNonClaimsSpread();
-			avgDeliberations += simulation.getTotalDeliberations();
-			
-			System.out.println("AFTER DELIBERATION");
-			for(Juror j:simulation.getJurorList()) {
-				System.out.println("Juror " + j.getId() + " score: " + j.testVoteScore());
-			}
-			// voting takes place
-			String verdict = simulation.juryVote();
-			
-			// statistics stuff counting
-			Map<Utils.ArgumentType, Double> trialArgTypeDistr = new HashMap<Utils.ArgumentType, Double>(simulation.getTrialArgumentTypeDistribution());
-			for(Map.Entry<Utils.ArgumentType, Double> entry : trialArgTypeDistr.entrySet()) {
-				if( totalTrialArgTypeDistr.containsKey(entry.getKey()) ) {
-					totalTrialArgTypeDistr.put(entry.getKey(), totalTrialArgTypeDistr.get(entry.getKey()) + entry.getValue());
-				}
-				else {
-					totalTrialArgTypeDistr.put(entry.getKey(), entry.getValue());
-				}
-			}			
-			Map<Utils.ArgumentType, Double> juryArgTypeDistr = new HashMap<Utils.ArgumentType, Double>(simulation.getJuryArgumentTypeDistribution());
-			for(Map.Entry<Utils.ArgumentType, Double> entry : juryArgTypeDistr.entrySet()) {
-				if( totalJuryArgTypeDistr.containsKey(entry.getKey()) ) {
-					totalJuryArgTypeDistr.put(entry.getKey(), totalJuryArgTypeDistr.get(entry.getKey()) + entry.getValue());
-				}
-				else {
-					totalJuryArgTypeDistr.put(entry.getKey(), entry.getValue());
-				}
-			}
-			if(simulation.isCorrectVerdict() && verdict.equals("guilty") ) {
-				falsePositive++;
-			}
-			else if(!simulation.isCorrectVerdict() && verdict.equals("innocent")) {
-				falseNegative++;
-			}
-			else if(verdict.equals("hung jury")){
-				hungJury++;
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+		// number of worker threads, all cores (shared by the worker processes) unless given with --threads
+		int numOfThreads = 0;
+		// number of worker processes of a coordinated run, the run stays in this JVM unless given with --processes
+		int numOfProcesses = 0;
+		// port of the coordinator when this JVM is a worker process
+		int workerPort = 0;
+		// master seed of the run, random unless given with --seed
+		long masterSeed = System.nanoTime() ^ System.currentTimeMillis();
+		// simulation engine, object based unless given with --engine
+		Utils.EngineType engine = Utils.EngineType.OBJECT;
+		// parameter sweep to run instead of the menu, given with --sweep or --sweep-file
+		SweepSpec sweepSpec = null;
+		// CSV file of the sweep results
+		String sweepOut = "sweep.csv";
+		// file of the per simulation records, not written unless given with --records
+		String recordsPath = null;
+		// print the progress of every simulation, only with --verbose
+		boolean verbose = false;
+		// convergence targets of the wrong verdict and hung jury rates, run a fixed number of simulations if none is given
+		double targetWrong = Double.NaN;
+		double targetHung = Double.NaN;
+		// who hears whom during deliberation, everyone unless given with --topology
+		DeliberationTopology topology = DeliberationTopology.COMPLETE;
+		// file of the progress of the run, not written unless given with --checkpoint, and seconds between two writes
+		String checkpointPath = null;
+		long checkpointInterval = 60;
+		// continue the run of the checkpoint file instead of starting a new one, only with --resume
+		boolean resume = false;
+		// file of the deliberation traces, not written unless given with --trace, every how many simulations a trace
+		// is recorded and megabytes of the file
+		String tracePath = null;
+		int traceEvery = 100;
+		int traceSize = 256;
+		// publish the work of the simulations as a JMX MBean, only with --metrics
+		boolean metrics = false;
+		// port of the progress endpoint on localhost, not served unless given with --progress-port
+		int progressPort = -1;
+		// exact verdict probabilities before deliberation instead of simulations, only with --analytic
+		boolean analytic = false;
+		for(int i=0; i<args.length; i++) {
+			if(args[i].equals("--threads")) {
+				numOfThreads = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--seed")) {
+				masterSeed = Long.parseLong(args[++i]);
+			}
+			else if(args[i].equals("--engine")) {
+				engine = Utils.EngineType.valueOf(args[++i].toUpperCase());
+			}
+			else if(args[i].equals("--sweep")) {
+				sweepSpec = SweepSpec.fromString(args[++i]);
+			}
+			else if(args[i].equals("--sweep-file")) {
+				sweepSpec = SweepSpec.fromFile(args[++i]);
+			}
+			else if(args[i].equals("--out")) {
+				sweepOut = args[++i];
+			}
+			else if(args[i].equals("--records")) {
+				recordsPath = args[++i];
+			}
+			else if(args[i].equals("--verbose")) {
+				verbose = true;
+			}
+			else if(args[i].equals("--target-wrong")) {
+				targetWrong = ConvergenceTarget.parseHalfWidth(args[++i]);
+			}
+			else if(args[i].equals("--target-hung")) {
+				targetHung = ConvergenceTarget.parseHalfWidth(args[++i]);
+			}
+			else if(args[i].equals("--topology")) {
+				topology = DeliberationTopology.parse(args[++i]);
+			}
+			else if(args[i].equals("--processes")) {
+				numOfProcesses = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--worker")) {
+				workerPort = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--checkpoint")) {
+				checkpointPath = args[++i];
+			}
+			else if(args[i].equals("--checkpoint-interval")) {
+				checkpointInterval = Long.parseLong(args[++i]);
+			}
+			else if(args[i].equals("--resume")) {
+				resume = true;
+			}
+			else if(args[i].equals("--trace")) {
+				tracePath = args[++i];
+			}
+			else if(args[i].equals("--trace-every")) {
+				traceEvery = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--trace-size")) {
+				traceSize = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--metrics")) {
+				metrics = true;
+			}
+			else if(args[i].equals("--progress-port")) {
+				progressPort = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--analytic")) {
+				analytic = true;
+			}
+		}
+		if(analytic) {
+			if(sweepSpec != null) {
+				writeAnalyticSweep(sweepOut, sweepSpec.expand());
 			}
 			else {
-				correctVerdicts++;
+				printAnalytic(VerdictProbabilities.compute(Utils.getSimulationParametersFromUser()));
 			}
-			System.out.println(simulation.isTrialVerdict());
+			return;
 		}
-		// last calcs on statistics
-		totalAvgClaimSpread = totalAvgClaimSpread/mso.getNumOfSimulations();
-		totalAvgNonClaimSpread = totalAvgNonClaimSpread/mso.getNumOfSimulations();
-		avgDeliberations = avgDeliberations/mso.getNumOfSimulations();
-		for(Map.Entry<Utils.ArgumentType, Double> entry : totalTrialArgTypeDistr.entrySet()) {
-			entry.setValue(entry.getValue()/mso.getNumOfSimulations());
+		if(resume && checkpointPath == null) {
+			throw new IllegalArgumentException("--resume needs the checkpoint file of the run, given with --checkpoint");
+		}
+		// the files would be truncated, and simulations run after the last checkpoint would be written twice
+		if(resume && (recordsPath != null || tracePath != null)) {
+			throw new IllegalArgumentException("--resume cannot be combined with --records or --trace");
+		}
+		if(numOfThreads <= 0) {
+			numOfThreads = Math.max(1, Runtime.getRuntime().availableProcessors()/Math.max(1, numOfProcesses));
+		}
+		SimulationRunner runner = new SimulationRunner(numOfThreads);
+		runner.setEngine(engine);
+		runner.setTopology(topology);
+		// a coordinator runs no simulations, its workers publish their own metrics
+		if(metrics && numOfProcesses == 0) {
+			runner.setMetrics(SimulationMetrics.register());
+		}
+		if(workerPort > 0) {
+			SweepCoordinator.runWorker(workerPort, runner);
+			runner.shutdown();
+			return;
+		}
+		// worker processes of a coordinated run, null to run in this JVM
+		SweepCoordinator coordinator = null;
+		if(numOfProcesses > 0) {
+			if(verbose || recordsPath != null || tracePath != null || !Double.isNaN(targetWrong) || !Double.isNaN(targetHung)) {
+				throw new IllegalArgumentException("--processes cannot be combined with --verbose, --records, --trace or convergence targets");
+			}
+			coordinator = new SweepCoordinator(numOfProcesses, numOfThreads);
+			coordinator.setEngine(engine);
+			coordinator.setTopology(topology);
+			coordinator.setMetrics(metrics);
+		}
+		if(verbose) {
+			runner.setListener(new ConsoleListener());
+		}
+		// the number of simulations becomes the cap of a run with targets
+		ConvergenceTarget target = (Double.isNaN(targetWrong) && Double.isNaN(targetHung)) ? null : new ConvergenceTarget(targetWrong, targetHung);
+		SimulationRecordWriter recordWriter = null;
+		if(recordsPath != null) {
+			recordWriter = new SimulationRecordWriter(Paths.get(recordsPath));
+			runner.setRecordWriter(recordWriter);
+		}
+		TraceRecorder traceRecorder = null;
+		if(tracePath != null) {
+			traceRecorder = new TraceRecorder(Paths.get(tracePath), traceEvery, (int)Math.min(Integer.MAX_VALUE, 1024L*1024*traceSize));
+			runner.setTraceRecorder(traceRecorder);
+		}
+		ProgressServer progressServer = null;
+		if(progressPort >= 0) {
+			RunProgress progress = new RunProgress();
+			runner.setProgress(progress);
+			if(coordinator != null) {
+				coordinator.setProgress(progress);
+			}
+			progressServer = new ProgressServer(progressPort, progress);
+			System.out.println("Progress at http://localhost:" + progressServer.getPort() + "/progress");
+		}
+		// a resumed run continues with the seed and, for the menu, the parameters of the checkpoint
+		SweepCheckpoint checkpoint = null;
+		if(resume) {
+			checkpoint = SweepCheckpoint.resume(Paths.get(checkpointPath), 1000*checkpointInterval);
+			masterSeed = checkpoint.getMasterSeed();
+		}
+		if(sweepSpec != null) {
+			List<MenuSelectionObject> points = sweepSpec.expand();
+			checkpoint = checkpoint(checkpoint, checkpointPath, checkpointInterval, masterSeed, topology, target, points);
+			List<SimulationStatistics> results = run(runner, coordinator, points, masterSeed, target, checkpoint);
+			writeSweep(sweepOut, points, results, masterSeed, target);
+		}
+		else {
+			// results file
+			PrintWriter out = new PrintWriter("results.txt");
+			// number of simulations
+			MenuSelectionObject mso = (checkpoint != null) ? checkpoint.getPoints().get(0) : Utils.getSimulationParametersFromUser();
+			checkpoint = checkpoint(checkpoint, checkpointPath, checkpointInterval, masterSeed, topology, target,
+					Collections.singletonList(mso));
+			// go
+			SimulationStatistics stats = run(runner, coordinator, Collections.singletonList(mso), masterSeed, target, checkpoint).get(0);
+			printResults(stats, target);
+			writeResults(out, mso, stats, masterSeed, target, topology);
+			out.close();
 		}
-		for(Map.Entry<Utils.ArgumentType, Double> entry : totalJuryArgTypeDistr.entrySet()) {
-			entry.setValue(entry.getValue()/mso.getNumOfSimulations());
+		runner.shutdown();
+		if(progressServer != null) {
+			progressServer.stop();
 		}
+		if(recordWriter != null) {
+			recordWriter.close();
+		}
+		if(traceRecorder != null) {
+			traceRecorder.close();
+			System.out.println("Traces of " + traceRecorder.getRecorded() + " simulations written to " + tracePath
+					+ ((traceRecorder.getDropped() > 0) ? ", " + traceRecorder.getDropped() + " did not fit" : ""));
+		}
+	}
+
+	/**
+	 * Checks a resumed checkpoint against the run, or creates the checkpoint of a new run
+	 * @param resumed checkpoint read with --resume, null for a new run
+	 * @param path checkpoint file, null for a run without checkpoints
+	 * @param interval seconds between two writes
+	 * @param masterSeed
+	 * @param topology
+	 * @param target convergence target, null to run the simulations of every point
+	 * @param points simulation parameters of the run
+	 * @return checkpoint of the run, null if there is none
+	 */
+	private static SweepCheckpoint checkpoint(SweepCheckpoint resumed, String path, long interval, long masterSeed,
+			DeliberationTopology topology, ConvergenceTarget target, List<MenuSelectionObject> points) {
+		if(resumed != null) {
+			resumed.verify(topology, target, points);
+			return resumed;
+		}
+		return (path == null) ? null : SweepCheckpoint.start(Paths.get(path), 1000*interval, masterSeed, topology, target, points);
+	}
+
+	/**
+	 * Runs every point in this JVM or on the worker processes
+	 * @param runner runner of a run in this JVM
+	 * @param coordinator worker processes of the run, null to run it in this JVM
+	 * @param points simulation parameters of every point
+	 * @param masterSeed
+	 * @param target convergence target, null to run the simulations of every point
+	 * @param checkpoint progress of the run, null to run without one
+	 * @return merged statistics of every point
+	 */
+	private static List<SimulationStatistics> run(SimulationRunner runner, SweepCoordinator coordinator, List<MenuSelectionObject> points,
+			long masterSeed, ConvergenceTarget target, SweepCheckpoint checkpoint) throws IOException, InterruptedException, ExecutionException {
+		if(coordinator != null) {
+			return coordinator.runSweep(points, masterSeed, checkpoint);
+		}
+		return (target == null) ? runner.runSweep(points, masterSeed, checkpoint)
+				: runner.runUntilConverged(points, masterSeed, target, checkpoint);
+	}
+
+	/**
+	 * Writes one CSV row per point of a sweep
+	 * @param path CSV file
+	 * @param points sweep parameters
+	 * @param results statistics of every point
+	 * @param masterSeed
+	 * @param target convergence target, null if the simulations of every point ran
+	 */
+	private static void writeSweep(String path, List<MenuSelectionObject> points, List<SimulationStatistics> results, long masterSeed,
+			ConvergenceTarget target) throws IOException {
+		PrintWriter out = new PrintWriter(path);
+		out.println("jury_size,vote_type,arguments,biased,low_bias,high_bias,simulations,master_seed,"
+				  + "avg_deliberations,trial_evidence,trial_testimony,trial_claims,jury_evidence,jury_testimony,jury_claims,"
+				  + "avg_claim_spread,avg_non_claim_spread,wrong_verdicts,hung_juries,correct_verdicts,"
+				  + "deliberations_ci95,claim_spread_ci95,non_claim_spread_ci95,wrong_verdict_rate,wrong_verdict_ci95,hung_jury_rate,hung_jury_ci95,converged");
+		for(int i=0; i<points.size(); i++) {
+			MenuSelectionObject mso = points.get(i);
+			SimulationStatistics stats = results.get(i);
+			Map<Utils.ArgumentType, Double> trialDistr = stats.getTrialArgumentTypeDistribution();
+			Map<Utils.ArgumentType, Double> juryDistr = stats.getJuryArgumentTypeDistribution();
+			out.println(String.format(Locale.ROOT, "%d,%s,%d,%d,%d,%d,%d,%d,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%d,%d,%d,"
+					+ "%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%s",
+					mso.getJurySize(), mso.getVoteChoice(), mso.getArgumentChoice(),
+					mso.getBiasedChoice(), mso.getLowBiasedChoice(), mso.getHighBiasedChoice(),
+					stats.getNumOfSimulations(), masterSeed, stats.getAvgDeliberations(),
+					valueOrZero(trialDistr, Utils.ArgumentType.EVIDENCE), valueOrZero(trialDistr, Utils.ArgumentType.TESTIMONY),
+					valueOrZero(trialDistr, Utils.ArgumentType.CLAIM),
+					valueOrZero(juryDistr, Utils.ArgumentType.EVIDENCE), valueOrZero(juryDistr, Utils.ArgumentType.TESTIMONY),
+					valueOrZero(juryDistr, Utils.ArgumentType.CLAIM),
+					stats.getAvgClaimSpread(), stats.getAvgNonClaimSpread(),
+					stats.getWrongVerdicts(), stats.getHungJuries(), stats.getCorrectVerdicts(),
+					stats.getDeliberations().getConfidenceHalfWidth(),
+					stats.getClaimSpread().getConfidenceHalfWidth(), stats.getNonClaimSpread().getConfidenceHalfWidth(),
+					stats.getWrongVerdictRate(), stats.getWrongVerdictHalfWidth(),
+					stats.getHungJuryRate(), stats.getHungJuryHalfWidth(),
+					(target == null) ? "" : (target.isMet(stats) ? "1" : "0")));
+		}
+		out.close();
+		System.out.println("Sweep of " + points.size() + " points written to " + path);
+	}
+
+	/**
+	 * Writes one CSV row of exact verdict probabilities before deliberation per point of a sweep
+	 * @param path CSV file
+	 * @param points sweep parameters, the number of simulations is not used
+	 */
+	private static void writeAnalyticSweep(String path, List<MenuSelectionObject> points) throws IOException {
+		PrintWriter out = new PrintWriter(path);
+		out.println("jury_size,vote_type,arguments,biased,low_bias,high_bias,innocent,guilty,hung_jury,wrong_verdict,correct_verdict,mean_score");
+		for(MenuSelectionObject mso:points) {
+			VerdictProbabilities probabilities = VerdictProbabilities.compute(mso);
+			out.println(String.format(Locale.ROOT, "%d,%s,%d,%d,%d,%d,%.8f,%.8f,%.8f,%.8f,%.8f,%.4f",
+					mso.getJurySize(), mso.getVoteChoice(), mso.getArgumentChoice(),
+					mso.getBiasedChoice(), mso.getLowBiasedChoice(), mso.getHighBiasedChoice(),
+					probabilities.getInnocent(), probabilities.getGuilty(), probabilities.getHungJury(),
+					probabilities.getWrongVerdict(), probabilities.getCorrectVerdict(), probabilities.getMeanScore()));
+		}
+		out.close();
+		System.out.println("Exact probabilities of " + points.size() + " points written to " + path);
+	}
+
+	/**
+	 * Prints the exact verdict probabilities before deliberation to the console
+	 * @param probabilities
+	 */
+	private static void printAnalytic(VerdictProbabilities probabilities) {
+		System.out.println(String.format("> Verdict of the jury before deliberation, exact probabilities:\n"
+									   + "* Innocent: %.6f  Guilty: %.6f  Hung jury: %.6f\n"
+									   + "* Wrong verdict rate: %.6f\n"
+									   + "* Hung jury rate: %.6f\n"
+									   + "* Correct verdict rate: %.6f\n"
+									   + "* Mean juror score: %.4f",
+										 probabilities.getInnocent(), probabilities.getGuilty(), probabilities.getHungJury(),
+										 probabilities.getWrongVerdict(), probabilities.getHungJury(), probabilities.getCorrectVerdict(),
+										 probabilities.getMeanScore()));
+	}
+
+	private static double valueOrZero(Map<Utils.ArgumentType, Double> distribution, Utils.ArgumentType type) {
+		Double value = distribution.get(type);
+		return (value == null) ? 0 : value;
+	}
+
+	/**
+	 * Prints the statistics of a run to the console
+	 * @param stats
+	 * @param target convergence target of the run, null if there was none
+	 */
+	private static void printResults(SimulationStatistics stats, ConvergenceTarget target) {
+		// last calcs on statistics
+		double totalAvgClaimSpread = stats.getAvgClaimSpread();
+		double totalAvgNonClaimSpread = stats.getAvgNonClaimSpread();
+		double avgDeliberations = stats.getAvgDeliberations();
+		Map<Utils.ArgumentType, Double> totalTrialArgTypeDistr = stats.getTrialArgumentTypeDistribution();
+		Map<Utils.ArgumentType, Double> totalJuryArgTypeDistr = stats.getJuryArgumentTypeDistribution();
 		// console printing
 		System.out.println(String.format("> For an average of %.2f deliberations per simulation: \n"
 									   + "* Trial argument averages: Evidence : %.2f %%  Testimonies: %.2f %%  Claims: %.2f %% \n"
@@ -103,21 +374,47 @@ public class Main {
 		System.out.println(String.format("* Wrong Verdicts: %d\n"
 									   + "* Hung Juries: %d\n"
 									   + "* Correct Verdicts: %d",
-										 falseNegative+falsePositive, hungJury, correctVerdicts));
-		
+										 stats.getWrongVerdicts(), stats.getHungJuries(), stats.getCorrectVerdicts()));
+		System.out.print(confidenceIntervals(stats));
+		if(target != null) {
+			System.out.println(convergence(stats, target));
+		}
+	}
+
+	/**
+	 * Writes the parameters and statistics of a run to the results file
+	 * @param out results file
+	 * @param mso simulation parameters
+	 * @param stats
+	 * @param masterSeed
+	 * @param target convergence target of the run, null if there was none
+	 * @param topology deliberation topology of the run
+	 */
+	private static void writeResults(PrintWriter out, MenuSelectionObject mso, SimulationStatistics stats, long masterSeed,
+			ConvergenceTarget target, DeliberationTopology topology) {
+		Map<Utils.ArgumentType, Double> totalTrialArgTypeDistr = stats.getTrialArgumentTypeDistribution();
+		Map<Utils.ArgumentType, Double> totalJuryArgTypeDistr = stats.getJuryArgumentTypeDistribution();
 		// Output statistics to file
 		out.println("\n==================== Experiment Parameters ========================\n");
 		out.println(String.format("Jury size: %d\n"
 								+ "Voting system: %s\n"
 								+ "Total number of arguments: %d\n"
 								+ "Biased agents in total: %d, low bias level: %d, high bias level: %d\n"
-								+ "Number of simulations ran: %d\n", 
-								  mso.getJuryChoice().getsize(),
+								+ "Number of simulations ran: %d\n"
+								+ "Master seed: %d\n", 
+								  mso.getJurySize(),
 								  mso.getVoteChoice().toString(),
 								  mso.getArgumentChoice(),
 								  mso.getBiasedChoice(), mso.getLowBiasedChoice(), mso.getHighBiasedChoice(),
-								  mso.getNumOfSimulations()));
-		out.println("\n==================== Accuracy of " + mso.getNumOfSimulations() + " simulations ========================\n");
+								  stats.getNumOfSimulations(),
+								  masterSeed));
+		if(!topology.isComplete()) {
+			out.println("Deliberation topology: " + topology + "\n");
+		}
+		if(target != null) {
+			out.println(convergence(stats, target) + "\n");
+		}
+		out.println("\n==================== Accuracy of " + stats.getNumOfSimulations() + " simulations ========================\n");
 		out.println(String.format("Trial argument type distribution: Evidence : %.2f %%  Testimonies: %.2f %%  Claims: %.2f %% \n"
 				   + "Jury argument type distribution after deliberations: Evidence: %.2f %%  Testimonies: %.2f %%  Claims: %.2f %% \n", 
 				   totalTrialArgTypeDistr.get(Utils.ArgumentType.EVIDENCE), 
@@ -129,9 +426,47 @@ public class Main {
 		out.println(String.format("* Wrong Verdicts: %d\n"
 								+ "* Hung Juries: %d\n"
 								+ "* Correct Verdicts: %d",
-								  falseNegative+falsePositive, hungJury, correctVerdicts));
-		
-		out.close();
+								  stats.getWrongVerdicts(), stats.getHungJuries(), stats.getCorrectVerdicts()));
+		out.println("\n==================== 95% confidence intervals ========================\n");
+		out.print(confidenceIntervals(stats));
+	}
+
+	/**
+	 * Outcome of a run with a convergence target
+	 * @param stats
+	 * @param target
+	 * @return description of the target and whether it was met
+	 */
+	private static String convergence(SimulationStatistics stats, ConvergenceTarget target) {
+		return "Convergence target: " + target + (target.isMet(stats)
+				? ", met after " + stats.getNumOfSimulations() + " simulations"
+				: ", not met within the cap of " + stats.getNumOfSimulations() + " simulations");
+	}
+
+	/**
+	 * Mean, 95% confidence interval, minimum and maximum of the statistics of a run
+	 * @param stats
+	 * @return one line per statistic
+	 */
+	private static String confidenceIntervals(SimulationStatistics stats) {
+		StringBuilder lines = new StringBuilder();
+		lines.append(String.format("* Wrong verdict rate: %.4f +- %.4f\n", stats.getWrongVerdictRate(), stats.getWrongVerdictHalfWidth()));
+		lines.append(String.format("* Hung jury rate: %.4f +- %.4f\n", stats.getHungJuryRate(), stats.getHungJuryHalfWidth()));
+		lines.append(interval("Deliberations", stats.getDeliberations()));
+		lines.append(interval("Claim spread per deliberation round", stats.getClaimSpread()));
+		lines.append(interval("Non-claim spread per deliberation round", stats.getNonClaimSpread()));
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			lines.append(interval("Trial " + type + " %", stats.getTrialArgumentTypeShare(type)));
+		}
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			lines.append(interval("Jury " + type + " %", stats.getJuryArgumentTypeShare(type)));
+		}
+		return lines.toString();
+	}
+
+	private static String interval(String name, OnlineStatistic statistic) {
+		return String.format("* %s: %.2f +- %.2f (sd %.2f, min %.2f, max %.2f)\n", name, statistic.getMean(),
+				statistic.getConfidenceHalfWidth(), statistic.getStandardDeviation(), statistic.getMin(), statistic.getMax());
 	}
 
 }
@@ -1,3 +1,7 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Utility class to facilitate user provided parameters for the simulations
@@ -5,7 +9,8 @@
  *
  */
 public class MenuSelectionObject {
-	private Utils.JurySize juryChoice;
+	// number of jurors
+	private int jurySize;
 	private Utils.VoteType voteChoice;
 	private int argumentChoice;
 	private int biasedChoice;
@@ -26,10 +31,10 @@ public class MenuSelectionObject {
 	public MenuSelectionObject(int juryChoice, int voteChoice, int argumentChoice, int biasedChoice,
 			int lowBiasedChoice, int highBiasedChoice, int numOfSimulations) {
 		if(juryChoice==1) {
-			this.juryChoice = Utils.JurySize.SMALL;
+			this.jurySize = Utils.JurySize.SMALL.getsize();
 		}
 		else {
-			this.juryChoice = Utils.JurySize.BIG;
+			this.jurySize = Utils.JurySize.BIG.getsize();
 		}
 		if(voteChoice == 1) {
 			this.voteChoice = Utils.VoteType.UNANIMOUS;
@@ -44,8 +49,29 @@ public class MenuSelectionObject {
 		this.numOfSimulations = numOfSimulations;
 	}
 
-	public Utils.JurySize getJuryChoice() {
-		return juryChoice;
+	/**
+	 * Creates a menu selection object for a jury of any size
+	 * @param jurySize number of jurors
+	 * @param voteChoice
+	 * @param argumentChoice
+	 * @param biasedChoice
+	 * @param lowBiasedChoice
+	 * @param highBiasedChoice
+	 * @param numOfSimulations
+	 */
+	public MenuSelectionObject(int jurySize, Utils.VoteType voteChoice, int argumentChoice, int biasedChoice,
+			int lowBiasedChoice, int highBiasedChoice, int numOfSimulations) {
+		this.jurySize = jurySize;
+		this.voteChoice = voteChoice;
+		this.argumentChoice = argumentChoice;
+		this.biasedChoice = biasedChoice;
+		this.lowBiasedChoice = lowBiasedChoice;
+		this.highBiasedChoice = highBiasedChoice;
+		this.numOfSimulations = numOfSimulations;
+	}
+
+	public int getJurySize() {
+		return jurySize;
 	}
 
 
@@ -77,5 +103,52 @@ public class MenuSelectionObject {
 	public int getNumOfSimulations() {
 		return numOfSimulations;
 	}
-	
+
+	/**
+	 * Writes the parameters, to be read back by readFrom in another process or a later run
+	 * @param out
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(this.jurySize);
+		out.writeUTF(this.voteChoice.name());
+		out.writeInt(this.argumentChoice);
+		out.writeInt(this.biasedChoice);
+		out.writeInt(this.lowBiasedChoice);
+		out.writeInt(this.highBiasedChoice);
+		out.writeInt(this.numOfSimulations);
+	}
+
+	/**
+	 * Reads parameters written by writeTo
+	 * @param in
+	 * @return parameters
+	 */
+	public static MenuSelectionObject readFrom(DataInput in) throws IOException {
+		int jurySize = in.readInt();
+		Utils.VoteType voteChoice = Utils.VoteType.valueOf(in.readUTF());
+		int argumentChoice = in.readInt();
+		int biasedChoice = in.readInt();
+		int lowBiasedChoice = in.readInt();
+		int highBiasedChoice = in.readInt();
+		int numOfSimulations = in.readInt();
+		return new MenuSelectionObject(jurySize, voteChoice, argumentChoice, biasedChoice, lowBiasedChoice, highBiasedChoice,
+				numOfSimulations);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if(!(other instanceof MenuSelectionObject)) {
+			return false;
+		}
+		MenuSelectionObject mso = (MenuSelectionObject) other;
+		return this.jurySize == mso.jurySize && this.voteChoice == mso.voteChoice && this.argumentChoice == mso.argumentChoice
+				&& this.biasedChoice == mso.biasedChoice && this.lowBiasedChoice == mso.lowBiasedChoice
+				&& this.highBiasedChoice == mso.highBiasedChoice && this.numOfSimulations == mso.numOfSimulations;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.jurySize, this.voteChoice, this.argumentChoice, this.biasedChoice,
+				this.lowBiasedChoice, this.highBiasedChoice, this.numOfSimulations);
+	}
 }
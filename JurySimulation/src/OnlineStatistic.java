@@ -0,0 +1,229 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Running statistics of a metric: count, mean and variance by Welford's method, minimum, maximum and
+ * a histogram of fixed width buckets. Every worker fills instances of its own, which are combined with
+ * merge once the workers are done, so no locks are needed.
+ *
+ */
+public class OnlineStatistic {
+	// z value of a two-sided 95% confidence interval
+	public static final double Z_95 = 1.959963984540054;
+
+	private long count;
+	private double mean;
+	// sum of squared differences from the mean
+	private double m2;
+	private double min;
+	private double max;
+	// histogram range and buckets, values outside the range go to the first or the last bucket
+	private double low;
+	private double high;
+	private long[] buckets;
+
+	/**
+	 * Creates an empty statistic
+	 * @param low lower bound of the histogram
+	 * @param high upper bound of the histogram
+	 * @param numOfBuckets number of histogram buckets
+	 */
+	public OnlineStatistic(double low, double high, int numOfBuckets) {
+		if(!(high > low) || numOfBuckets <= 0) {
+			throw new IllegalArgumentException("Invalid histogram: [" + low + ", " + high + ") in " + numOfBuckets + " buckets");
+		}
+		this.low = low;
+		this.high = high;
+		this.buckets = new long[numOfBuckets];
+		this.min = Double.POSITIVE_INFINITY;
+		this.max = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Adds a value
+	 * @param value
+	 */
+	public void add(double value) {
+		this.count++;
+		double delta = value - this.mean;
+		this.mean += delta/this.count;
+		this.m2 += delta*(value - this.mean);
+		if(value < this.min) {
+			this.min = value;
+		}
+		if(value > this.max) {
+			this.max = value;
+		}
+		this.buckets[bucket(value)]++;
+	}
+
+	/**
+	 * Adds the values of another statistic with the same histogram to this one (Chan et al.)
+	 * @param other
+	 */
+	public void merge(OnlineStatistic other) {
+		if(other.low != this.low || other.high != this.high || other.buckets.length != this.buckets.length) {
+			throw new IllegalArgumentException("Cannot merge statistics with different histograms");
+		}
+		if(other.count == 0) {
+			return;
+		}
+		if(this.count == 0) {
+			this.count = other.count;
+			this.mean = other.mean;
+			this.m2 = other.m2;
+		}
+		else {
+			long total = this.count + other.count;
+			double delta = other.mean - this.mean;
+			this.mean += delta*other.count/total;
+			this.m2 += other.m2 + delta*delta*((double)this.count*other.count/total);
+			this.count = total;
+		}
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+		for(int i=0; i<this.buckets.length; i++) {
+			this.buckets[i] += other.buckets[i];
+		}
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return (this.count > 0) ? this.mean : Double.NaN;
+	}
+
+	/**
+	 * Sample variance of the values
+	 * @return variance, 0 for fewer than two values
+	 */
+	public double getVariance() {
+		return (this.count > 1) ? this.m2/(this.count-1) : 0;
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Half width of the 95% confidence interval of the mean, normal approximation
+	 * @return halfWidth
+	 */
+	public double getConfidenceHalfWidth() {
+		return (this.count > 0) ? Z_95*Math.sqrt(getVariance()/this.count) : Double.NaN;
+	}
+
+	public double getMin() {
+		return (this.count > 0) ? this.min : Double.NaN;
+	}
+
+	public double getMax() {
+		return (this.count > 0) ? this.max : Double.NaN;
+	}
+
+	public int getNumOfBuckets() {
+		return buckets.length;
+	}
+
+	/**
+	 * Number of values in a histogram bucket
+	 * @param bucket
+	 * @return count
+	 */
+	public long getBucketCount(int bucket) {
+		return buckets[bucket];
+	}
+
+	/**
+	 * Lower bound of a histogram bucket
+	 * @param bucket
+	 * @return bound
+	 */
+	public double getBucketLow(int bucket) {
+		return this.low + bucket*(this.high-this.low)/this.buckets.length;
+	}
+
+	/**
+	 * Writes the state of the statistic, to be read back by readFrom in another process
+	 * @param out
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeLong(this.count);
+		out.writeDouble(this.mean);
+		out.writeDouble(this.m2);
+		out.writeDouble(this.min);
+		out.writeDouble(this.max);
+		out.writeDouble(this.low);
+		out.writeDouble(this.high);
+		out.writeInt(this.buckets.length);
+		for(long bucket:this.buckets) {
+			out.writeLong(bucket);
+		}
+	}
+
+	/**
+	 * Reads a statistic written by writeTo
+	 * @param in
+	 * @return statistic with the same state
+	 */
+	public static OnlineStatistic readFrom(DataInput in) throws IOException {
+		long count = in.readLong();
+		double mean = in.readDouble();
+		double m2 = in.readDouble();
+		double min = in.readDouble();
+		double max = in.readDouble();
+		OnlineStatistic statistic = new OnlineStatistic(in.readDouble(), in.readDouble(), in.readInt());
+		statistic.count = count;
+		statistic.mean = mean;
+		statistic.m2 = m2;
+		statistic.min = min;
+		statistic.max = max;
+		for(int i=0; i<statistic.buckets.length; i++) {
+			statistic.buckets[i] = in.readLong();
+		}
+		return statistic;
+	}
+
+	private int bucket(double value) {
+		int bucket = (int)Math.floor((value-this.low)/(this.high-this.low)*this.buckets.length);
+		return Math.max(0, Math.min(this.buckets.length-1, bucket));
+	}
+
+	/**
+	 * Half width of the 95% Wilson score interval of a proportion, as the larger distance from the observed
+	 * proportion to either bound. Unlike the normal approximation it is not 0 when no trial, or every trial,
+	 * is a success: with 0 successes in n trials it is about 3.84/n.
+	 * @param successes
+	 * @param trials
+	 * @return halfWidth
+	 */
+	public static double proportionHalfWidth(long successes, long trials) {
+		if(trials == 0) {
+			return Double.NaN;
+		}
+		double p = (double)successes/trials;
+		return Math.max(p - proportionBound(successes, trials, -1), proportionBound(successes, trials, 1) - p);
+	}
+
+	/**
+	 * Bound of the 95% Wilson score interval of a proportion
+	 * @param successes
+	 * @param trials
+	 * @param side -1 for the lower bound, 1 for the upper bound
+	 * @return bound
+	 */
+	public static double proportionBound(long successes, long trials, int side) {
+		if(trials == 0) {
+			return Double.NaN;
+		}
+		double n = trials;
+		double p = successes/n;
+		double z2 = Z_95*Z_95;
+		double center = (p + z2/(2*n))/(1 + z2/n);
+		double spread = Z_95/(1 + z2/n)*Math.sqrt(p*(1-p)/n + z2/(4*n*n));
+		return Math.max(0, Math.min(1, center + side*spread));
+	}
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the progress of a run as JSON on localhost, http://localhost:PORT/progress, answered on the thread
+ * of the server from the counters of RunProgress without stopping the workers:
+ * completed and total simulations, throughput, estimated time left, utilization of every worker and
+ * the verdict counts and average deliberation rounds of the simulations finished so far.
+ *
+ */
+public class ProgressServer {
+	// least time between two samples of the current throughput
+	private static final long RATE_SAMPLE_NANOS = 1000000000L;
+
+	private HttpServer server;
+	private RunProgress progress;
+	// last sample of the current throughput, only used by the thread of the server
+	private long sampleNanos;
+	private long sampleCompleted;
+	private double currentRate;
+
+	/**
+	 * Starts serving the progress
+	 * @param port port on localhost, 0 for any free port
+	 * @param progress progress of the run
+	 */
+	public ProgressServer(int port, RunProgress progress) throws IOException {
+		this.progress = progress;
+		this.sampleNanos = progress.getStartNanos();
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.server.createContext("/progress", exchange -> this.respond(exchange));
+		this.server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops serving
+	 */
+	public void stop() {
+		this.server.stop(0);
+	}
+
+	private void respond(HttpExchange exchange) throws IOException {
+		byte[] body = this.toJson().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Snapshot of the progress, the workers are summed one after the other while they keep running
+	 * @return JSON object
+	 */
+	private String toJson() {
+		long now = System.nanoTime();
+		long start = this.progress.getStartNanos();
+		// simulations taken from checkpoints count as completed but not in the throughput
+		RunProgress.Worker resumed = this.progress.getResumed();
+		long completed = 0;
+		long wrong = resumed.getWrongVerdicts();
+		long hung = resumed.getHungJuries();
+		long correct = resumed.getCorrectVerdicts();
+		long deliberations = resumed.getDeliberations();
+		StringBuilder workers = new StringBuilder();
+		for(RunProgress.Worker worker:this.progress.getWorkers()) {
+			completed += worker.getCompleted();
+			wrong += worker.getWrongVerdicts();
+			hung += worker.getHungJuries();
+			correct += worker.getCorrectVerdicts();
+			deliberations += worker.getDeliberations();
+			workers.append((workers.length() > 0) ? ", " : "").append(String.format(Locale.ROOT,
+					"{\"name\": \"%s\", \"completed\": %d, \"busy\": %b, \"utilization\": %.4f}",
+					worker.getName(), worker.getCompleted(), worker.isBusy(), worker.getUtilization(start, now)));
+		}
+		double elapsed = (now - start)/1e9;
+		double rate = (elapsed > 0) ? completed/elapsed : 0;
+		if(now - this.sampleNanos >= RATE_SAMPLE_NANOS) {
+			this.currentRate = (completed - this.sampleCompleted)/((now - this.sampleNanos)/1e9);
+			this.sampleNanos = now;
+			this.sampleCompleted = completed;
+		}
+		long done = resumed.getCompleted() + completed;
+		long remaining = Math.max(0, this.progress.getTotal() - done);
+		// estimated from the current throughput, unknown until something has finished
+		double speed = (this.currentRate > 0) ? this.currentRate : rate;
+		String eta = (remaining == 0) ? "0" : (speed > 0) ? String.format(Locale.ROOT, "%.0f", remaining/speed) : "null";
+		return String.format(Locale.ROOT, "{\"running\": %b, \"completed\": %d, \"total\": %d, \"resumed\": %d, "
+				+ "\"elapsedSeconds\": %.1f, \"simulationsPerSecond\": %.1f, \"currentSimulationsPerSecond\": %.1f, \"etaSeconds\": %s, "
+				+ "\"wrongVerdicts\": %d, \"hungJuries\": %d, \"correctVerdicts\": %d, \"avgDeliberations\": %.4f, \"workers\": [%s]}\n",
+				this.progress.isRunning(), done, this.progress.getTotal(), resumed.getCompleted(), elapsed, rate, this.currentRate, eta,
+				wrong, hung, correct, (done > 0) ? (double) deliberations/done : 0, workers);
+	}
+}
@@ -0,0 +1,199 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Live progress of a run, read by the progress endpoint while the workers keep running.
+ * Every worker, a thread of the runner or a worker process of the coordinator, counts its own finished
+ * simulations and busy time in volatile fields that only it writes, so workers never wait for each other
+ * or for a reader, and a reader sums the workers without stopping them.
+ *
+ */
+public class RunProgress {
+	private final long createdNanos = System.nanoTime();
+	// start of the first run, 0 before it
+	private volatile long startNanos;
+	// simulations of the runs, and those done before them taken from checkpoints, written by the thread of the runs
+	private volatile long total;
+	private final Worker resumed = new Worker("resumed");
+	private volatile boolean running;
+	private final List<Worker> workers = new CopyOnWriteArrayList<Worker>();
+	// worker of every thread of the runner
+	private final ThreadLocal<Worker> threadWorkers = ThreadLocal.withInitial(() -> newWorker(Thread.currentThread().getName()));
+
+	/**
+	 * Counters of one worker, written only by the thread of the worker
+	 */
+	public static class Worker {
+		private final String name;
+		private volatile long completed;
+		private volatile long wrongVerdicts;
+		private volatile long hungJuries;
+		private volatile long correctVerdicts;
+		private volatile long deliberations;
+		// time spent on finished batches, and start of the running batch, 0 if idle
+		private volatile long busyNanos;
+		private volatile long batchStart;
+
+		private Worker(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * The worker starts a batch of simulations
+		 */
+		public void beginBatch() {
+			this.batchStart = System.nanoTime();
+		}
+
+		/**
+		 * The worker is done with its batch
+		 */
+		public void endBatch() {
+			this.busyNanos += System.nanoTime() - this.batchStart;
+			this.batchStart = 0;
+		}
+
+		/**
+		 * Adds a finished simulation
+		 * @param simulation the simulation, after the vote
+		 * @param verdict verdict of the jury
+		 */
+		public void add(Simulation simulation, String verdict) {
+			if(verdict.equals("hung jury")) {
+				this.hungJuries++;
+			}
+			// a correct verdict acquits an innocent defendant and convicts a guilty one
+			else if(simulation.isCorrectVerdict() == verdict.equals("innocent")) {
+				this.correctVerdicts++;
+			}
+			else {
+				this.wrongVerdicts++;
+			}
+			this.deliberations += simulation.getTotalDeliberations();
+			this.completed++;
+		}
+
+		/**
+		 * Adds the simulations of a batch run elsewhere
+		 * @param batch statistics of the batch
+		 */
+		public void add(SimulationStatistics batch) {
+			this.hungJuries += batch.getHungJuries();
+			this.correctVerdicts += batch.getCorrectVerdicts();
+			this.wrongVerdicts += batch.getWrongVerdicts();
+			this.deliberations += Math.round(batch.getAvgDeliberations()*batch.getNumOfSimulations());
+			this.completed += batch.getNumOfSimulations();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCompleted() {
+			return completed;
+		}
+
+		public long getWrongVerdicts() {
+			return wrongVerdicts;
+		}
+
+		public long getHungJuries() {
+			return hungJuries;
+		}
+
+		public long getCorrectVerdicts() {
+			return correctVerdicts;
+		}
+
+		public long getDeliberations() {
+			return deliberations;
+		}
+
+		/**
+		 * Share of the time since a moment that the worker spent running simulations
+		 * @param since System.nanoTime of the moment
+		 * @param now System.nanoTime of now
+		 * @return utilization between 0 and 1
+		 */
+		public double getUtilization(long since, long now) {
+			long start = this.batchStart;
+			long busy = this.busyNanos + ((start != 0) ? now - Math.max(start, since) : 0);
+			return (now > since) ? Math.min(1, (double) busy/(now - since)) : 0;
+		}
+
+		public boolean isBusy() {
+			return batchStart != 0;
+		}
+	}
+
+	/**
+	 * Adds a point of a run about to start
+	 * @param simulations simulations of the point, the cap of a run with convergence targets
+	 * @param done statistics of the simulations of the point done before, taken from a checkpoint, null if none
+	 */
+	public void begin(long simulations, SimulationStatistics done) {
+		if(this.startNanos == 0) {
+			this.startNanos = System.nanoTime();
+		}
+		this.total += simulations;
+		if(done != null) {
+			this.resumed.add(done);
+		}
+		this.running = true;
+	}
+
+	/**
+	 * The run is over
+	 */
+	public void finish() {
+		this.running = false;
+	}
+
+	/**
+	 * Worker of the calling thread of the runner, created the first time the thread asks
+	 * @return worker
+	 */
+	public Worker getThreadWorker() {
+		return threadWorkers.get();
+	}
+
+	/**
+	 * Adds a worker
+	 * @param name shown by the endpoint
+	 * @return worker, to be written by a single thread
+	 */
+	public Worker newWorker(String name) {
+		Worker worker = new Worker(name);
+		this.workers.add(worker);
+		return worker;
+	}
+
+	public List<Worker> getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * Start of the run, the creation of the progress if no run has started
+	 * @return System.nanoTime of the start
+	 */
+	public long getStartNanos() {
+		long start = this.startNanos;
+		return (start != 0) ? start : createdNanos;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Simulations done before the runs, they count as completed but not in the throughput
+	 * @return counters of the simulations taken from checkpoints
+	 */
+	public Worker getResumed() {
+		return resumed;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+}
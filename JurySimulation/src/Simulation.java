@@ -0,0 +1,162 @@
+import java.util.Map;
+
+/**
+ * A single trial simulation: arguments are provided to the jury, the jury deliberates and votes.
+ * Implemented by the object based Court and the array based CompactCourt.
+ *
+ */
+public interface Simulation {
+
+	/**
+	 * Emulates the presentation of arguments to all jury members.
+	 */
+	void provideArguments();
+
+	/**
+	 * Simulates the deliberation rounds of the jury
+	 */
+	void juryDeliberation();
+
+	/**
+	 * Simulates the voting process of the jury
+	 * @return verdict: "guilty", "innocent" or "hung jury"
+	 */
+	String juryVote();
+
+	/**
+	 * Returns verdict based on full argument list
+	 * @return false: guilty, true: innocent
+	 */
+	boolean isCorrectVerdict();
+
+	/**
+	 * Returns verdict based on jury vote
+	 * @return verdict
+	 */
+	String isTrialVerdict();
+
+	/**
+	 * Get total number of deliberations
+	 * @return totalDeliberations
+	 */
+	int getTotalDeliberations();
+
+	/**
+	 * Number of times a juror wanted to speak during deliberation
+	 * @return speakerTurns
+	 */
+	int getSpeakerTurns();
+
+	/**
+	 * Number of known arguments the speakers looked at while choosing what to present
+	 * @return candidatesScanned
+	 */
+	int getCandidatesScanned();
+
+	/**
+	 * Number of candidate arguments passed over because they had been presented more than 3 times
+	 * @return repetitionSkips
+	 */
+	int getRepetitionSkips();
+
+	/**
+	 * Number of times a claim was added to a juror's knowledge during deliberation
+	 * @return totalClaimsSpread
+	 */
+	int getTotalClaimsSpread();
+
+	/**
+	 * Number of times a non-claim argument was added to a juror's knowledge during deliberation
+	 * @return totalNonClaimsSpread
+	 */
+	int getTotalNonClaimsSpread();
+
+	/**
+	 * Gets the average spread of claims through all deliberation rounds
+	 * @return avgClaimSpread
+	 */
+	double getAvgClaimSpread();
+
+	/**
+	 * Gets the average spread of non-claim arguments through all deliberation rounds
+	 * @return avgNonClaimsSpread
+	 */
+	double getAvgNonClaimsSpread();
+
+	/**
+	 * Argument distribution of current trial
+	 * @return Map<Utils.ArgumentType, Double> typeDistribution
+	 */
+	Map<Utils.ArgumentType, Double> getTrialArgumentTypeDistribution();
+
+	/**
+	 * Argument type distribution of current jury
+	 * @return Map<Utils.ArgumentType, Double> typeDistribution
+	 */
+	Map<Utils.ArgumentType, Double> getJuryArgumentTypeDistribution();
+
+	/**
+	 * Argument distribution of current trial without allocating, types missing from the map version are 0
+	 * @param distribution filled with the percentage of every type, by type ordinal
+	 */
+	void fillTrialArgumentTypeDistribution(double[] distribution);
+
+	/**
+	 * Argument type distribution of current jury without allocating, types missing from the map version are 0
+	 * @param distribution filled with the percentage of every type, by type ordinal
+	 */
+	void fillJuryArgumentTypeDistribution(double[] distribution);
+
+	/**
+	 * Sets the observer of the simulation's events
+	 * @param listener null for no events
+	 */
+	void setListener(SimulationListener listener);
+
+	/**
+	 * Sets who hears whom during deliberation
+	 * @param topology null or complete for every juror hearing every other
+	 */
+	void setTopology(DeliberationTopology topology);
+
+	/**
+	 * Number of jurors in the jury
+	 * @return numOfJurors
+	 */
+	int getNumOfJurors();
+
+	/**
+	 * Current score of a juror
+	 * @param position position of the juror in the jury
+	 * @return exonerating minus incriminating arguments in the juror's knowledge
+	 */
+	int getJurorScore(int position);
+
+	/**
+	 * Number of argument ids of the court, case arguments first and claims after them
+	 * @return numOfArgumentIds
+	 */
+	int getNumOfArgumentIds();
+
+	/**
+	 * Type of an argument
+	 * @param argument id of the argument within the court
+	 * @return type
+	 */
+	Utils.ArgumentType getArgumentType(int argument);
+
+	/**
+	 * Side of an argument
+	 * @param argument id of the argument within the court
+	 * @return true if the argument is exonerating
+	 */
+	boolean isArgumentInnocent(int argument);
+
+	/**
+	 * Checks if a juror has an argument in its knowledge
+	 * @param position position of the juror in the jury
+	 * @param argument id of the argument within the court
+	 * @return true if the juror knows the argument
+	 */
+	boolean jurorKnows(int position, int argument);
+}
@@ -0,0 +1,252 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the phases of every trial: the whole trial, argument intake, every deliberation
+ * round and the vote. Every event carries the parameters of its point, so a recording can be sliced by phase and
+ * by configuration. The events are disabled unless a recording enables them, for example with
+ * -XX:StartFlightRecording:settings=JurySimulation/jurysimulation.jfc, and a trial only gets a listener while one
+ * of them is enabled, so the events cost nothing when nothing is recorded.
+ *
+ */
+public class SimulationEvents {
+	// recording of the trial of every worker thread
+	private ThreadLocal<Trial> trials = ThreadLocal.withInitial(() -> new Trial());
+
+	/**
+	 * Creates the events if the JVM has the flight recorder API
+	 * @return events, null without flight recorder
+	 */
+	public static SimulationEvents create() {
+		try {
+			Class.forName("jdk.jfr.Event");
+		}
+		catch (ClassNotFoundException e) {
+			return null;
+		}
+		return new SimulationEvents();
+	}
+
+	/**
+	 * Starts the trial event of a simulation about to be built, if any event is enabled
+	 * @param mso simulation parameters
+	 * @param simulation index of the simulation within its point
+	 * @return listener emitting the events of the trial, null if no event is enabled
+	 */
+	public SimulationListener startTrial(MenuSelectionObject mso, int simulation) {
+		Trial trial = this.trials.get();
+		return trial.begin(mso, simulation) ? trial : null;
+	}
+
+	/**
+	 * Checks if any event is enabled, so trials of the calling thread would get a listener
+	 * @return true while a recording enables an event
+	 */
+	public boolean isEnabled() {
+		return this.trials.get().isEnabled();
+	}
+
+	/**
+	 * Fields shared by every event: the point of the trial
+	 */
+	@Category("Jury Simulation")
+	@Enabled(false)
+	@StackTrace(false)
+	private abstract static class PointEvent extends Event {
+		@Label("Jury Size")
+		int jurySize;
+		@Label("Vote Type")
+		String voteType;
+		@Label("Arguments")
+		int arguments;
+		@Label("Biased Jurors")
+		@Description("Number of biased jurors, low plus high")
+		int biased;
+		@Label("Low Bias")
+		int lowBias;
+		@Label("High Bias")
+		int highBias;
+		@Label("Simulation")
+		@Description("Index of the simulation within its point")
+		int simulation;
+
+		void point(MenuSelectionObject mso, int simulation) {
+			this.jurySize = mso.getJurySize();
+			this.voteType = mso.getVoteChoice().name();
+			this.arguments = mso.getArgumentChoice();
+			this.biased = mso.getBiasedChoice();
+			this.lowBias = mso.getLowBiasedChoice();
+			this.highBias = mso.getHighBiasedChoice();
+			this.simulation = simulation;
+		}
+	}
+
+	@Name("JurySimulation.Trial")
+	@Label("Trial")
+	@Description("A simulation from the creation of its court to the vote")
+	static class TrialEvent extends PointEvent {
+		@Label("Rounds")
+		int rounds;
+		@Label("Verdict")
+		String verdict;
+		@Label("Correct Verdict")
+		@Description("Verdict of the full argument list, true for innocent")
+		boolean correctVerdict;
+	}
+
+	@Name("JurySimulation.ArgumentIntake")
+	@Label("Argument Intake")
+	@Description("The case arguments presented to the jury, provideArguments")
+	static class IntakeEvent extends PointEvent {
+		@Label("Jurors")
+		int jurors;
+	}
+
+	@Name("JurySimulation.DeliberationRound")
+	@Label("Deliberation Round")
+	@Description("Every juror getting a chance to speak once")
+	static class RoundEvent extends PointEvent {
+		@Label("Round")
+		int round;
+		@Label("Presented")
+		@Description("Arguments presented in the round")
+		int presented;
+		@Label("Accepted")
+		@Description("Arguments added to the knowledge of listeners in the round")
+		int accepted;
+	}
+
+	@Name("JurySimulation.Vote")
+	@Label("Vote")
+	@Description("The vote of the jury, juryVote")
+	static class VoteEvent extends PointEvent {
+		@Label("Verdict")
+		String verdict;
+	}
+
+	/**
+	 * Events of the trial run by a worker thread, reused for every trial of the thread
+	 */
+	private static class Trial implements SimulationListener {
+		// never committed, only asked whether their event type is enabled
+		private final TrialEvent trialProbe = new TrialEvent();
+		private final IntakeEvent intakeProbe = new IntakeEvent();
+		private final RoundEvent roundProbe = new RoundEvent();
+		private final VoteEvent voteProbe = new VoteEvent();
+		private MenuSelectionObject mso;
+		private int simulation;
+		// events of the running phases, null if their type is disabled
+		private TrialEvent trial;
+		private IntakeEvent intake;
+		private RoundEvent round;
+		private VoteEvent vote;
+
+		private boolean isEnabled() {
+			return this.trialProbe.isEnabled() || this.intakeProbe.isEnabled() || this.roundProbe.isEnabled()
+					|| this.voteProbe.isEnabled();
+		}
+
+		private boolean begin(MenuSelectionObject mso, int simulation) {
+			if(!this.isEnabled()) {
+				return false;
+			}
+			this.mso = mso;
+			this.simulation = simulation;
+			this.trial = this.trialProbe.isEnabled() ? new TrialEvent() : null;
+			if(this.trial != null) {
+				this.trial.begin();
+			}
+			return true;
+		}
+
+		@Override
+		public void caseGenerated(Simulation simulation) {
+			this.intake = this.intakeProbe.isEnabled() ? new IntakeEvent() : null;
+			if(this.intake != null) {
+				this.intake.begin();
+			}
+		}
+
+		@Override
+		public void argumentsProvided(Simulation simulation) {
+			if(this.intake != null) {
+				this.intake.end();
+				if(this.intake.shouldCommit()) {
+					this.intake.point(this.mso, this.simulation);
+					this.intake.jurors = simulation.getNumOfJurors();
+					this.intake.commit();
+				}
+				this.intake = null;
+			}
+			this.beginRound();
+		}
+
+		@Override
+		public void argumentPresented(Simulation simulation, int round, int speaker, int argument,
+				Utils.ArgumentType type, boolean innocent, int accepted) {
+			if(this.round != null) {
+				this.round.presented++;
+				this.round.accepted += accepted;
+			}
+		}
+
+		@Override
+		public void roundCompleted(Simulation simulation, int round) {
+			if(this.round != null) {
+				this.round.end();
+				if(this.round.shouldCommit()) {
+					this.round.point(this.mso, this.simulation);
+					this.round.round = round;
+					this.round.commit();
+				}
+			}
+			this.beginRound();
+		}
+
+		@Override
+		public void deliberationCompleted(Simulation simulation) {
+			// the round begun after the last one never took place
+			this.round = null;
+			this.vote = this.voteProbe.isEnabled() ? new VoteEvent() : null;
+			if(this.vote != null) {
+				this.vote.begin();
+			}
+		}
+
+		@Override
+		public void voteCast(Simulation simulation, String verdict) {
+			if(this.vote != null) {
+				this.vote.end();
+				if(this.vote.shouldCommit()) {
+					this.vote.point(this.mso, this.simulation);
+					this.vote.verdict = verdict;
+					this.vote.commit();
+				}
+				this.vote = null;
+			}
+			if(this.trial != null) {
+				this.trial.end();
+				if(this.trial.shouldCommit()) {
+					this.trial.point(this.mso, this.simulation);
+					this.trial.rounds = simulation.getTotalDeliberations();
+					this.trial.verdict = verdict;
+					this.trial.correctVerdict = simulation.isCorrectVerdict();
+					this.trial.commit();
+				}
+				this.trial = null;
+			}
+		}
+
+		private void beginRound() {
+			this.round = this.roundProbe.isEnabled() ? new RoundEvent() : null;
+			if(this.round != null) {
+				this.round.begin();
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * Observer of the events of a simulation. All methods do nothing by default, so a listener only overrides
+ * the events it needs. A simulation without a listener skips the events altogether.
+ * A listener set on the runner is shared by all worker threads and must be thread-safe.
+ *
+ */
+public interface SimulationListener {
+
+	/**
+	 * The case and the jury have been generated, fired by the runner once the simulation is built
+	 * @param simulation
+	 */
+	default void caseGenerated(Simulation simulation) {
+	}
+
+	/**
+	 * The case arguments have been presented to the jury
+	 * @param simulation
+	 */
+	default void argumentsProvided(Simulation simulation) {
+	}
+
+	/**
+	 * A listener added a presented argument to its knowledge, fired before argumentPresented of the argument
+	 * @param simulation
+	 * @param round deliberation round, starting from 1
+	 * @param listener position of the accepting juror in the jury
+	 * @param argument id of the argument within the court
+	 */
+	default void argumentAccepted(Simulation simulation, int round, int listener, int argument) {
+	}
+
+	/**
+	 * A juror presented an argument to the rest of the jury
+	 * @param simulation
+	 * @param round deliberation round, starting from 1
+	 * @param speaker position of the presenting juror in the jury
+	 * @param argument id of the argument within the court
+	 * @param type type of the argument
+	 * @param innocent side of the argument
+	 * @param accepted number of jurors that added the argument to their knowledge
+	 */
+	default void argumentPresented(Simulation simulation, int round, int speaker, int argument,
+			Utils.ArgumentType type, boolean innocent, int accepted) {
+	}
+
+	/**
+	 * Every juror got a chance to speak in a deliberation round
+	 * @param simulation
+	 * @param round deliberation round, starting from 1
+	 */
+	default void roundCompleted(Simulation simulation, int round) {
+	}
+
+	/**
+	 * The jury stopped deliberating
+	 * @param simulation
+	 */
+	default void deliberationCompleted(Simulation simulation) {
+	}
+
+	/**
+	 * The jury voted
+	 * @param simulation
+	 * @param verdict
+	 */
+	default void voteCast(Simulation simulation, String verdict) {
+	}
+
+	/**
+	 * Listener that passes every event to two listeners
+	 * @param first null for none
+	 * @param second null for none
+	 * @return listener of both, or the one that is not null
+	 */
+	static SimulationListener combine(final SimulationListener first, final SimulationListener second) {
+		if(first == null) {
+			return second;
+		}
+		if(second == null) {
+			return first;
+		}
+		return new SimulationListener() {
+			@Override
+			public void caseGenerated(Simulation simulation) {
+				first.caseGenerated(simulation);
+				second.caseGenerated(simulation);
+			}
+
+			@Override
+			public void argumentsProvided(Simulation simulation) {
+				first.argumentsProvided(simulation);
+				second.argumentsProvided(simulation);
+			}
+
+			@Override
+			public void argumentAccepted(Simulation simulation, int round, int listener, int argument) {
+				first.argumentAccepted(simulation, round, listener, argument);
+				second.argumentAccepted(simulation, round, listener, argument);
+			}
+
+			@Override
+			public void argumentPresented(Simulation simulation, int round, int speaker, int argument,
+					Utils.ArgumentType type, boolean innocent, int accepted) {
+				first.argumentPresented(simulation, round, speaker, argument, type, innocent, accepted);
+				second.argumentPresented(simulation, round, speaker, argument, type, innocent, accepted);
+			}
+
+			@Override
+			public void roundCompleted(Simulation simulation, int round) {
+				first.roundCompleted(simulation, round);
+				second.roundCompleted(simulation, round);
+			}
+
+			@Override
+			public void deliberationCompleted(Simulation simulation) {
+				first.deliberationCompleted(simulation);
+				second.deliberationCompleted(simulation);
+			}
+
+			@Override
+			public void voteCast(Simulation simulation, String verdict) {
+				first.voteCast(simulation, verdict);
+				second.voteCast(simulation, verdict);
+			}
+		};
+	}
+}
@@ -0,0 +1,218 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters of the work done by the simulations of a runner, published as a JMX MBean so that a long run can be
+ * watched in JConsole or VisualVM. Worker threads add to striped LongAdder counters once per trial, so they
+ * do not contend with each other, and the sums are only taken when a console reads an attribute.
+ * Histograms have fixed buckets of LongAdder counters. The recent rate is sampled by a timer thread, so reading
+ * an attribute never changes what another console reads.
+ *
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+	// name the metrics are registered under
+	public static final String OBJECT_NAME = "JurySimulation:type=SimulationMetrics";
+	// rounds of a bucket of the rounds histogram, the last bucket holds the longer deliberations
+	private static final int ROUND_BUCKET_WIDTH = 5;
+	private static final int ROUND_BUCKETS = 41;
+	// buckets of the trial time histogram, powers of two of microseconds up to about 8 seconds
+	private static final int TIME_BUCKETS = 24;
+	// seconds between two samples of the recent rate
+	private static final long RECENT_WINDOW_SECONDS = 5;
+
+	private final LongAdder simulations = new LongAdder();
+	// nanoseconds spent in every phase of a trial
+	private final LongAdder constructionNanos = new LongAdder();
+	private final LongAdder provideArgumentsNanos = new LongAdder();
+	private final LongAdder deliberationNanos = new LongAdder();
+	private final LongAdder voteNanos = new LongAdder();
+	// deliberation work
+	private final LongAdder rounds = new LongAdder();
+	private final LongAdder speakerTurns = new LongAdder();
+	private final LongAdder candidatesScanned = new LongAdder();
+	private final LongAdder repetitionSkips = new LongAdder();
+	private final Histogram trialMicros = new Histogram(TIME_BUCKETS);
+	private final Histogram roundsPerTrial = new Histogram(ROUND_BUCKETS);
+	// start of the rates, last sample of the recent rate and the rate of the window before it, NaN until the first sample
+	private volatile long startNanos = System.nanoTime();
+	private long sampleNanos = startNanos;
+	private long sampleSimulations;
+	private volatile double recentRate = Double.NaN;
+	// timer of the recent rate samples, null until the metrics are registered
+	private ScheduledExecutorService sampler;
+
+	/**
+	 * Creates metrics, registers them with the platform MBean server and starts sampling the recent rate
+	 * @return metrics, to be given to the runner
+	 */
+	public static SimulationMetrics register() {
+		SimulationMetrics metrics = new SimulationMetrics();
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+		}
+		catch (JMException e) {
+			throw new IllegalStateException("Cannot register the simulation metrics", e);
+		}
+		metrics.sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "simulation-metrics-sampler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		metrics.sampler.scheduleAtFixedRate(metrics::sample, RECENT_WINDOW_SECONDS, RECENT_WINDOW_SECONDS, TimeUnit.SECONDS);
+		return metrics;
+	}
+
+	/**
+	 * Takes the rate of the window since the previous sample
+	 */
+	synchronized void sample() {
+		long now = System.nanoTime();
+		long count = this.simulations.sum();
+		this.recentRate = (count - this.sampleSimulations)/seconds(now - this.sampleNanos);
+		this.sampleNanos = now;
+		this.sampleSimulations = count;
+	}
+
+	/**
+	 * Adds a finished trial
+	 * @param simulation the trial, after the vote
+	 * @param construction nanoseconds spent creating or resetting the court
+	 * @param provideArguments nanoseconds spent in provideArguments
+	 * @param deliberation nanoseconds spent in juryDeliberation
+	 * @param vote nanoseconds spent in juryVote
+	 */
+	public void record(Simulation simulation, long construction, long provideArguments, long deliberation, long vote) {
+		this.simulations.increment();
+		this.constructionNanos.add(construction);
+		this.provideArgumentsNanos.add(provideArguments);
+		this.deliberationNanos.add(deliberation);
+		this.voteNanos.add(vote);
+		this.rounds.add(simulation.getTotalDeliberations());
+		this.speakerTurns.add(simulation.getSpeakerTurns());
+		this.candidatesScanned.add(simulation.getCandidatesScanned());
+		this.repetitionSkips.add(simulation.getRepetitionSkips());
+		long micros = (construction + provideArguments + deliberation + vote)/1000;
+		this.trialMicros.add(64 - Long.numberOfLeadingZeros(micros));
+		this.roundsPerTrial.add(simulation.getTotalDeliberations()/ROUND_BUCKET_WIDTH);
+	}
+
+	public long getSimulations() {
+		return simulations.sum();
+	}
+
+	public double getSimulationsPerSecond() {
+		return this.simulations.sum()/seconds(System.nanoTime() - this.startNanos);
+	}
+
+	public double getRecentSimulationsPerSecond() {
+		double rate = this.recentRate;
+		// the overall rate until the first window has passed
+		return Double.isNaN(rate) ? getSimulationsPerSecond() : rate;
+	}
+
+	public double getAverageConstructionMicros() {
+		return perSimulation(this.constructionNanos)/1000;
+	}
+
+	public double getAverageProvideArgumentsMicros() {
+		return perSimulation(this.provideArgumentsNanos)/1000;
+	}
+
+	public double getAverageDeliberationMicros() {
+		return perSimulation(this.deliberationNanos)/1000;
+	}
+
+	public double getAverageVoteMicros() {
+		return perSimulation(this.voteNanos)/1000;
+	}
+
+	public long[] getTrialMicrosHistogram() {
+		return trialMicros.counts();
+	}
+
+	public double getAverageRoundsPerTrial() {
+		return perSimulation(this.rounds);
+	}
+
+	public long[] getRoundsHistogram() {
+		return roundsPerTrial.counts();
+	}
+
+	public double getCandidatesScannedPerSpeaker() {
+		long turns = this.speakerTurns.sum();
+		return (turns > 0) ? (double) this.candidatesScanned.sum()/turns : 0;
+	}
+
+	public long getRepetitionSkips() {
+		return repetitionSkips.sum();
+	}
+
+	public double getRepetitionSkipsPerTrial() {
+		return perSimulation(this.repetitionSkips);
+	}
+
+	public synchronized void reset() {
+		this.simulations.reset();
+		this.constructionNanos.reset();
+		this.provideArgumentsNanos.reset();
+		this.deliberationNanos.reset();
+		this.voteNanos.reset();
+		this.rounds.reset();
+		this.speakerTurns.reset();
+		this.candidatesScanned.reset();
+		this.repetitionSkips.reset();
+		this.trialMicros.reset();
+		this.roundsPerTrial.reset();
+		this.startNanos = System.nanoTime();
+		this.sampleNanos = this.startNanos;
+		this.sampleSimulations = 0;
+		this.recentRate = Double.NaN;
+	}
+
+	private double perSimulation(LongAdder counter) {
+		long count = this.simulations.sum();
+		return (count > 0) ? (double) counter.sum()/count : 0;
+	}
+
+	private static double seconds(long nanos) {
+		return Math.max(1, nanos)/1e9;
+	}
+
+	/**
+	 * Histogram of fixed buckets, values past the last bucket are counted in it
+	 */
+	private static class Histogram {
+		private final LongAdder[] buckets;
+
+		private Histogram(int numOfBuckets) {
+			this.buckets = new LongAdder[numOfBuckets];
+			for(int b=0; b<numOfBuckets; b++) {
+				this.buckets[b] = new LongAdder();
+			}
+		}
+
+		private void add(int bucket) {
+			this.buckets[Math.min(bucket, this.buckets.length-1)].increment();
+		}
+
+		private long[] counts() {
+			long[] counts = new long[this.buckets.length];
+			for(int b=0; b<this.buckets.length; b++) {
+				counts[b] = this.buckets[b].sum();
+			}
+			return counts;
+		}
+
+		private void reset() {
+			for(LongAdder bucket:this.buckets) {
+				bucket.reset();
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * Attributes of SimulationMetrics shown by JMX consoles such as JConsole and VisualVM
+ *
+ */
+public interface SimulationMetricsMBean {
+
+	/**
+	 * Number of simulations finished since the metrics were started or reset
+	 * @return simulations
+	 */
+	long getSimulations();
+
+	/**
+	 * Simulations per second since the metrics were started or reset
+	 * @return rate
+	 */
+	double getSimulationsPerSecond();
+
+	/**
+	 * Simulations per second over the last few seconds, the current speed of a long run
+	 * @return rate
+	 */
+	double getRecentSimulationsPerSecond();
+
+	/**
+	 * Average time spent creating or resetting the court of a trial
+	 * @return microseconds per simulation
+	 */
+	double getAverageConstructionMicros();
+
+	/**
+	 * Average time spent in provideArguments
+	 * @return microseconds per simulation
+	 */
+	double getAverageProvideArgumentsMicros();
+
+	/**
+	 * Average time spent in juryDeliberation
+	 * @return microseconds per simulation
+	 */
+	double getAverageDeliberationMicros();
+
+	/**
+	 * Average time spent in juryVote
+	 * @return microseconds per simulation
+	 */
+	double getAverageVoteMicros();
+
+	/**
+	 * Number of simulations by their whole time, bucket i holds the times from 2^(i-1) to 2^i microseconds
+	 * and the last bucket the longer ones
+	 * @return counts of every bucket
+	 */
+	long[] getTrialMicrosHistogram();
+
+	/**
+	 * Average number of deliberation rounds of a trial
+	 * @return rounds per simulation
+	 */
+	double getAverageRoundsPerTrial();
+
+	/**
+	 * Number of simulations by their deliberation rounds, bucket i holds 5*i to 5*i+4 rounds and the last
+	 * bucket the longer deliberations
+	 * @return counts of every bucket
+	 */
+	long[] getRoundsHistogram();
+
+	/**
+	 * Average number of known arguments a speaker looked at before presenting one or giving up
+	 * @return candidates per speaker turn
+	 */
+	double getCandidatesScannedPerSpeaker();
+
+	/**
+	 * Number of candidate arguments passed over because they had been presented more than 3 times
+	 * @return repetitionSkips
+	 */
+	long getRepetitionSkips();
+
+	/**
+	 * Average number of candidate arguments passed over by the repetition limit in a trial
+	 * @return skips per simulation
+	 */
+	double getRepetitionSkipsPerTrial();
+
+	/**
+	 * Clears every counter and restarts the rates
+	 */
+	void reset();
+}
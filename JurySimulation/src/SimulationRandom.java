@@ -0,0 +1,118 @@
+/**
+ * Seeded random number generator of a simulation (SplitMix64).
+ * Every simulation of a run gets its own stream derived from the master seed and the index of the simulation,
+ * so results do not depend on which worker thread ran the simulation. Not thread-safe, one instance per simulation.
+ *
+ */
+public final class SimulationRandom {
+	// odd increment of the generator state (golden ratio)
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	// smallest difference between two doubles in [0, 1)
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	// generator state
+	private long seed;
+
+	/**
+	 * Creates a generator with the given seed
+	 * @param seed
+	 */
+	public SimulationRandom(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Creates the generator of a simulation
+	 * @param masterSeed seed of the whole run
+	 * @param simulation index of the simulation in the run
+	 * @return generator independent of the generators of the other simulations
+	 */
+	public static SimulationRandom forSimulation(long masterSeed, long simulation) {
+		return new SimulationRandom(streamSeed(masterSeed, simulation));
+	}
+
+	/**
+	 * Seed of the stream of a simulation
+	 * @param masterSeed seed of the whole run
+	 * @param simulation index of the simulation in the run
+	 * @return seed of the stream
+	 */
+	public static long streamSeed(long masterSeed, long simulation) {
+		return mix64(masterSeed + mix64((simulation+1)*GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Restarts the generator with the given seed
+	 * @param seed
+	 */
+	public void reseed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * State of the generator, reseed with it continues the stream where it is
+	 * @return state
+	 */
+	public long getState() {
+		return seed;
+	}
+
+	/**
+	 * Next pseudo-random long
+	 * @return long
+	 */
+	public long nextLong() {
+		this.seed += GOLDEN_GAMMA;
+		return mix64(this.seed);
+	}
+
+	/**
+	 * Next pseudo-random int in [0, bound)
+	 * @param bound positive upper bound
+	 * @return int
+	 */
+	public int nextInt(int bound) {
+		int r = (int)(nextLong() >>> 33);
+		int m = bound - 1;
+		if((bound & m) == 0) {
+			return (int)((bound * (long)r) >>> 31);
+		}
+		for(int u = r; u - (r = u % bound) + m < 0; u = (int)(nextLong() >>> 33)) {
+			;
+		}
+		return r;
+	}
+
+	/**
+	 * Next pseudo-random double in [0, 1)
+	 * @return double
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * Next pseudo-random double in [origin, bound)
+	 * @param origin
+	 * @param bound
+	 * @return double
+	 */
+	public double nextDouble(double origin, double bound) {
+		double r = origin + nextDouble()*(bound-origin);
+		return (r < bound) ? r : Math.nextDown(bound);
+	}
+
+	/**
+	 * Next pseudo-random boolean
+	 * @return boolean
+	 */
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
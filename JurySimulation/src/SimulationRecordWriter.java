@@ -0,0 +1,236 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes one CSV record per finished simulation to a file.
+ * Workers encode their records into buffers of their own and hand full buffers to a background thread,
+ * which writes them to the file channel, so workers never wait on the disk unless all buffers are in flight.
+ * Records of different batches interleave in the file; the simulation column gives the order of the run.
+ *
+ */
+public class SimulationRecordWriter implements Closeable {
+	// size of a record buffer
+	private static final int BUFFER_SIZE = 64*1024;
+	// number of record buffers, bounds the memory of records waiting for the disk
+	private static final int NUM_OF_BUFFERS = 64;
+	// room for the fixed columns of a record
+	private static final int FIXED_RECORD_SIZE = 512;
+	// room for the two scores of a juror
+	private static final int JUROR_RECORD_SIZE = 24;
+	private static final String HEADER = "master_seed,simulation,stream_seed,jury_size,vote_type,arguments,biased,low_bias,high_bias,"
+									   + "innocent_suspect,trial_verdict,deliberations,avg_claim_spread,avg_non_claim_spread,"
+									   + "scores_before,scores_after\n";
+	// marks the end of the queue for the background thread
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+	private FileChannel channel;
+	// empty buffers
+	private BlockingQueue<ByteBuffer> freeBuffers;
+	// buffers waiting to be written
+	private BlockingQueue<ByteBuffer> fullBuffers;
+	private Thread flusher;
+	// first error of the background thread
+	private volatile IOException failure;
+
+	/**
+	 * Creates the records file and starts the background thread
+	 * @param path records file, overwritten if it exists
+	 */
+	public SimulationRecordWriter(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.freeBuffers = new ArrayBlockingQueue<ByteBuffer>(NUM_OF_BUFFERS);
+		this.fullBuffers = new ArrayBlockingQueue<ByteBuffer>(NUM_OF_BUFFERS+1);
+		for(int i=0; i<NUM_OF_BUFFERS; i++) {
+			this.freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+		}
+		this.channel.write(ByteBuffer.wrap(HEADER.getBytes(StandardCharsets.US_ASCII)));
+		this.flusher = new Thread(this::flush, "simulation-record-writer");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+	/**
+	 * Starts the records of a batch of simulations
+	 * @return collector of the batch, to be used by a single worker
+	 */
+	public Batch newBatch() {
+		return new Batch();
+	}
+
+	/**
+	 * Writes the remaining buffers and closes the file
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			this.fullBuffers.put(END);
+			this.flusher.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while closing the records file", e);
+		}
+		finally {
+			this.channel.close();
+		}
+		if(this.failure != null) {
+			throw this.failure;
+		}
+	}
+
+	/**
+	 * Body of the background thread: writes full buffers until the end marker
+	 */
+	private void flush() {
+		try {
+			while(true) {
+				ByteBuffer buffer = this.fullBuffers.take();
+				if(buffer == END) {
+					break;
+				}
+				if(this.failure == null) {
+					try {
+						while(buffer.hasRemaining()) {
+							this.channel.write(buffer);
+						}
+					}
+					catch (IOException e) {
+						this.failure = e;
+					}
+				}
+				buffer.clear();
+				if(buffer.capacity() == BUFFER_SIZE) {
+					this.freeBuffers.put(buffer);
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private ByteBuffer acquire(int size) {
+		if(size > BUFFER_SIZE) {
+			// records of very large juries get a buffer of their own
+			return ByteBuffer.allocate(size);
+		}
+		try {
+			return this.freeBuffers.take();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a record buffer", e);
+		}
+	}
+
+	private void submit(ByteBuffer buffer) {
+		buffer.flip();
+		try {
+			this.fullBuffers.put(buffer);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while submitting records", e);
+		}
+	}
+
+	/**
+	 * Records of a batch of simulations, filled by a single worker
+	 */
+	public class Batch {
+		private ByteBuffer buffer;
+
+		/**
+		 * Appends the record of a finished simulation
+		 * @param mso simulation parameters
+		 * @param masterSeed seed of the run
+		 * @param index index of the simulation in the run
+		 * @param simulation the simulation after voting
+		 * @param scoresBefore scores of the jurors before deliberation
+		 */
+		public void add(MenuSelectionObject mso, long masterSeed, long index, Simulation simulation, int[] scoresBefore) {
+			int numOfJurors = simulation.getNumOfJurors();
+			int size = FIXED_RECORD_SIZE + numOfJurors*JUROR_RECORD_SIZE;
+			if(this.buffer != null && this.buffer.remaining() < size) {
+				submit(this.buffer);
+				this.buffer = null;
+			}
+			if(this.buffer == null) {
+				this.buffer = acquire(size);
+			}
+			ByteBuffer b = this.buffer;
+			putLong(b, masterSeed); b.put((byte)',');
+			putLong(b, index); b.put((byte)',');
+			putLong(b, SimulationRandom.streamSeed(masterSeed, index)); b.put((byte)',');
+			putLong(b, mso.getJurySize()); b.put((byte)',');
+			putAscii(b, mso.getVoteChoice().name()); b.put((byte)',');
+			putLong(b, mso.getArgumentChoice()); b.put((byte)',');
+			putLong(b, mso.getBiasedChoice()); b.put((byte)',');
+			putLong(b, mso.getLowBiasedChoice()); b.put((byte)',');
+			putLong(b, mso.getHighBiasedChoice()); b.put((byte)',');
+			b.put((byte)(simulation.isCorrectVerdict() ? '1' : '0')); b.put((byte)',');
+			putAscii(b, simulation.isTrialVerdict()); b.put((byte)',');
+			putLong(b, simulation.getTotalDeliberations()); b.put((byte)',');
+			putAscii(b, Double.toString(simulation.getAvgClaimSpread())); b.put((byte)',');
+			putAscii(b, Double.toString(simulation.getAvgNonClaimsSpread())); b.put((byte)',');
+			for(int j=0; j<numOfJurors; j++) {
+				if(j > 0) {
+					b.put((byte)';');
+				}
+				putLong(b, scoresBefore[j]);
+			}
+			b.put((byte)',');
+			for(int j=0; j<numOfJurors; j++) {
+				if(j > 0) {
+					b.put((byte)';');
+				}
+				putLong(b, simulation.getJurorScore(j));
+			}
+			b.put((byte)'\n');
+		}
+
+		/**
+		 * Hands the records of the batch to the background thread
+		 */
+		public void finish() {
+			if(this.buffer != null) {
+				submit(this.buffer);
+				this.buffer = null;
+			}
+		}
+	}
+
+	private static void putAscii(ByteBuffer buffer, String value) {
+		for(int i=0; i<value.length(); i++) {
+			buffer.put((byte)value.charAt(i));
+		}
+	}
+
+	/**
+	 * Writes the decimal digits of a number without creating a String
+	 */
+	private static void putLong(ByteBuffer buffer, long value) {
+		if(value == Long.MIN_VALUE) {
+			putAscii(buffer, Long.toString(value));
+			return;
+		}
+		if(value < 0) {
+			buffer.put((byte)'-');
+			value = -value;
+		}
+		long divisor = 1;
+		while(value/divisor >= 10) {
+			divisor *= 10;
+		}
+		for(; divisor > 0; divisor /= 10) {
+			buffer.put((byte)('0' + (value/divisor)%10));
+		}
+	}
+}
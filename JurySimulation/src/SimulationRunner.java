@@ -0,0 +1,476 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs independent court simulations in parallel on a pool of worker threads
+ *
+ */
+public class SimulationRunner {
+	// number of simulations a worker runs before handing back its statistics
+	public static final int BATCH_SIZE = 1000;
+	// number of batches a point runs between two convergence checks
+	private static final int CONVERGENCE_WAVE = 4;
+
+	// pool the simulations run on
+	private ForkJoinPool pool;
+	// engine that runs every simulation
+	private Utils.EngineType engine = Utils.EngineType.OBJECT;
+	// writer of the per simulation records, null if records are not kept
+	private SimulationRecordWriter recordWriter;
+	// observer of the events of every simulation, null if there is none
+	private SimulationListener listener;
+	// who hears whom during deliberation, null for everyone
+	private DeliberationTopology topology;
+	// recorder of the deliberation of sampled simulations, null if none are recorded
+	private TraceRecorder traceRecorder;
+	// counters of the work of every trial, null if they are not kept
+	private SimulationMetrics metrics;
+	// flight recorder events of the phases of every trial, null if the JVM has no flight recorder
+	private SimulationEvents events = SimulationEvents.create();
+	// live progress of the runs, null if it is not followed
+	private RunProgress progress;
+	// compact court of every worker thread, reset for every trial of the compact engine
+	private ThreadLocal<CompactCourt> arenas = ThreadLocal.withInitial(CompactCourt::new);
+	// lock-step courts of every worker thread of the vector engine
+	private ThreadLocal<LockStepDeliberation> lockSteps = ThreadLocal.withInitial(LockStepDeliberation::load);
+
+	/**
+	 * Creates a runner with its own pool
+	 * @param numOfThreads number of worker threads
+	 */
+	public SimulationRunner(int numOfThreads) {
+		this.pool = new ForkJoinPool(numOfThreads);
+	}
+
+	/**
+	 * Getter of the number of worker threads
+	 * @return numOfThreads
+	 */
+	public int getNumOfThreads() {
+		return this.pool.getParallelism();
+	}
+
+	/**
+	 * Getter of the simulation engine
+	 * @return engine
+	 */
+	public Utils.EngineType getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Sets the simulation engine
+	 * @param engine
+	 * @throws IllegalStateException if the engine is VECTOR and its module cannot be loaded
+	 */
+	public void setEngine(Utils.EngineType engine) {
+		if(engine == Utils.EngineType.VECTOR) {
+			LockStepDeliberation.load();
+		}
+		this.engine = engine;
+	}
+
+	/**
+	 * Sets the writer of the per simulation records
+	 * @param recordWriter null to not keep records
+	 */
+	public void setRecordWriter(SimulationRecordWriter recordWriter) {
+		this.recordWriter = recordWriter;
+	}
+
+	/**
+	 * Sets the observer of the events of every simulation
+	 * @param listener null for no events, must be thread-safe
+	 */
+	public void setListener(SimulationListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the recorder of the deliberation traces
+	 * @param traceRecorder null to not record traces
+	 */
+	public void setTraceRecorder(TraceRecorder traceRecorder) {
+		this.traceRecorder = traceRecorder;
+	}
+
+	/**
+	 * Sets the counters of the work of every simulation
+	 * @param metrics null to not time the simulations
+	 */
+	public void setMetrics(SimulationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Sets the live progress the workers report their simulations to
+	 * @param progress null to not follow the progress
+	 */
+	public void setProgress(RunProgress progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Sets the deliberation topology of every simulation
+	 * @param topology null or complete for every juror hearing every other
+	 */
+	public void setTopology(DeliberationTopology topology) {
+		this.topology = topology;
+	}
+
+	/**
+	 * Runs all simulations requested by the user. Simulations are split in batches, every batch keeps
+	 * its own statistics and the batches are merged in order once they are done.
+	 * Simulation i draws its random numbers from the i-th stream of the master seed, so the merged
+	 * statistics are identical for any number of threads.
+	 * @param mso simulation parameters
+	 * @param masterSeed seed of the run
+	 * @return merged statistics of all simulations
+	 */
+	public SimulationStatistics run(MenuSelectionObject mso, long masterSeed) throws InterruptedException, ExecutionException {
+		return runSweep(Collections.singletonList(mso), masterSeed).get(0);
+	}
+
+	/**
+	 * Runs the simulations of every sweep point without a checkpoint, see runSweep with a checkpoint
+	 * @param points simulation parameters of every sweep point
+	 * @param masterSeed seed of the run
+	 * @return merged statistics of every point, in the order of the points
+	 */
+	public List<SimulationStatistics> runSweep(List<MenuSelectionObject> points, long masterSeed) throws InterruptedException, ExecutionException {
+		try {
+			return runSweep(points, masterSeed, null);
+		}
+		catch (IOException e) {
+			// only checkpoints are written
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Runs the simulations of every sweep point on the shared pool. The batches of all points are queued at once,
+	 * so workers move on to the next point without waiting for the slowest batch of the previous one.
+	 * Every point uses the same master seed, so points are compared on the same random streams.
+	 * With a checkpoint, every point starts from the progress in the checkpoint and the progress is written
+	 * to it as the batches are merged.
+	 * @param points simulation parameters of every sweep point
+	 * @param masterSeed seed of the run
+	 * @param checkpoint progress of the run, null to run without one
+	 * @return merged statistics of every point, in the order of the points
+	 */
+	public List<SimulationStatistics> runSweep(List<MenuSelectionObject> points, final long masterSeed, SweepCheckpoint checkpoint)
+			throws InterruptedException, ExecutionException, IOException {
+		this.checkMemory(points);
+		List<List<Future<SimulationStatistics>>> pointBatches = new ArrayList<List<Future<SimulationStatistics>>>();
+		List<SimulationStatistics> results = new ArrayList<SimulationStatistics>();
+		// first simulation of every point not merged yet
+		int[] next = new int[points.size()];
+		for(int p=0; p<points.size(); p++) {
+			final MenuSelectionObject mso = points.get(p);
+			next[p] = (checkpoint != null) ? checkpoint.getNext(p) : 0;
+			results.add((checkpoint != null) ? checkpoint.getMerged(p) : new SimulationStatistics(points.get(p)));
+			if(this.progress != null) {
+				this.progress.begin(mso.getNumOfSimulations(), (checkpoint != null) ? checkpoint.getMerged(p) : null);
+			}
+			List<Future<SimulationStatistics>> batches = new ArrayList<Future<SimulationStatistics>>();
+			for(int first=next[p]; first<mso.getNumOfSimulations(); first+=BATCH_SIZE) {
+				final int from = first;
+				final int size = Math.min(BATCH_SIZE, mso.getNumOfSimulations()-first);
+				batches.add(this.pool.submit(() -> runBatch(mso, masterSeed, from, size)));
+			}
+			pointBatches.add(batches);
+		}
+		for(int p=0; p<points.size(); p++) {
+			for(Future<SimulationStatistics> batch:pointBatches.get(p)) {
+				SimulationStatistics stats = batch.get();
+				results.get(p).merge(stats);
+				next[p] += stats.getNumOfSimulations();
+				if(checkpoint != null) {
+					checkpoint.update(p, next[p], results.get(p));
+					checkpoint.writeIfDue();
+				}
+			}
+		}
+		if(checkpoint != null) {
+			checkpoint.write();
+		}
+		if(this.progress != null) {
+			this.progress.finish();
+		}
+		return results;
+	}
+
+	/**
+	 * Runs a range of the simulations of a point and keeps the statistics of every batch apart, so that the
+	 * batches can be merged elsewhere in the same order as runSweep merges them
+	 * @param mso simulation parameters
+	 * @param masterSeed seed of the run
+	 * @param first index of the first simulation, a multiple of BATCH_SIZE
+	 * @param count number of simulations
+	 * @return statistics of every batch of the range, in order
+	 */
+	public List<SimulationStatistics> runBatches(final MenuSelectionObject mso, final long masterSeed, int first, int count)
+			throws InterruptedException, ExecutionException {
+		this.checkMemory(Collections.singletonList(mso));
+		List<Future<SimulationStatistics>> batches = new ArrayList<Future<SimulationStatistics>>();
+		for(int from=first; from<first+count; from+=BATCH_SIZE) {
+			final int start = from;
+			final int size = Math.min(BATCH_SIZE, first+count-from);
+			batches.add(this.pool.submit(() -> runBatch(mso, masterSeed, start, size)));
+		}
+		List<SimulationStatistics> results = new ArrayList<SimulationStatistics>();
+		for(Future<SimulationStatistics> batch:batches) {
+			results.add(batch.get());
+		}
+		return results;
+	}
+
+	/**
+	 * Runs the simulations of every sweep point until the statistics of the point meet the target or the
+	 * number of simulations of the point, its cap, is reached. Simulations run in waves of CONVERGENCE_WAVE
+	 * batches per unfinished point, and the target is checked once a wave is merged, so the number of
+	 * simulations a point needs does not depend on the number of threads.
+	 * @param points simulation parameters of every sweep point, numOfSimulations is the cap of the point
+	 * @param masterSeed seed of the run
+	 * @param target precision to reach
+	 * @param checkpoint progress of the run, written after every wave, null to run without one
+	 * @return merged statistics of every point, in the order of the points
+	 */
+	public List<SimulationStatistics> runUntilConverged(List<MenuSelectionObject> points, final long masterSeed, ConvergenceTarget target,
+			SweepCheckpoint checkpoint) throws InterruptedException, ExecutionException, IOException {
+		this.checkMemory(points);
+		List<SimulationStatistics> results = new ArrayList<SimulationStatistics>();
+		// index of the next simulation of every point
+		int[] next = new int[points.size()];
+		for(int p=0; p<points.size(); p++) {
+			next[p] = (checkpoint != null) ? checkpoint.getNext(p) : 0;
+			results.add((checkpoint != null) ? checkpoint.getMerged(p) : new SimulationStatistics(points.get(p)));
+			if(this.progress != null) {
+				this.progress.begin(points.get(p).getNumOfSimulations(), (checkpoint != null) ? checkpoint.getMerged(p) : null);
+			}
+		}
+		boolean running = true;
+		while(running) {
+			List<List<Future<SimulationStatistics>>> pointBatches = new ArrayList<List<Future<SimulationStatistics>>>();
+			for(int p=0; p<points.size(); p++) {
+				final MenuSelectionObject mso = points.get(p);
+				List<Future<SimulationStatistics>> batches = new ArrayList<Future<SimulationStatistics>>();
+				if(!isFinished(mso, next[p], results.get(p), target)) {
+					for(int b=0; b<CONVERGENCE_WAVE && next[p]<mso.getNumOfSimulations(); b++) {
+						final int from = next[p];
+						final int size = Math.min(BATCH_SIZE, mso.getNumOfSimulations()-from);
+						batches.add(this.pool.submit(() -> runBatch(mso, masterSeed, from, size)));
+						next[p] += size;
+					}
+				}
+				pointBatches.add(batches);
+			}
+			running = false;
+			for(int p=0; p<points.size(); p++) {
+				for(Future<SimulationStatistics> batch:pointBatches.get(p)) {
+					results.get(p).merge(batch.get());
+				}
+				running |= !isFinished(points.get(p), next[p], results.get(p), target);
+				if(checkpoint != null) {
+					checkpoint.update(p, next[p], results.get(p));
+				}
+			}
+			if(checkpoint != null) {
+				checkpoint.writeIfDue();
+			}
+		}
+		if(checkpoint != null) {
+			checkpoint.write();
+		}
+		if(this.progress != null) {
+			this.progress.finish();
+		}
+		return results;
+	}
+
+	/**
+	 * Checks that every worker can hold the knowledge of the jury of every point. Deliberation spreads the case
+	 * until nearly every juror knows nearly every argument, so the knowledge of a trial is taken as every juror
+	 * knowing every argument and claim: a bit in the juror's bitset and an entry in their knowledge.
+	 * @param points simulation parameters of every point
+	 * @throws IllegalArgumentException if the knowledge of a point on every worker thread exceeds the heap
+	 */
+	void checkMemory(List<MenuSelectionObject> points) {
+		long heap = Runtime.getRuntime().maxMemory();
+		for(MenuSelectionObject mso:points) {
+			long perWorker = knowledgeBytes(mso, this.engine);
+			if(perWorker > heap/this.getNumOfThreads()) {
+				throw new IllegalArgumentException(String.format("The jury of %d jurors and the case of %d arguments need up to %d MB"
+						+ " of juror knowledge per worker thread, more than the %d MB heap holds for %d threads;"
+						+ " run fewer threads, give a larger -Xmx or choose a smaller jury or case",
+						mso.getJurySize(), mso.getArgumentChoice(), perWorker >> 20, heap >> 20, this.getNumOfThreads()));
+			}
+		}
+	}
+
+	/**
+	 * Memory of the knowledge of a trial in which every juror knows every argument and claim
+	 * @param mso simulation parameters
+	 * @param engine
+	 * @return bytes
+	 */
+	static long knowledgeBytes(MenuSelectionObject mso, Utils.EngineType engine) {
+		long jurors = mso.getJurySize() + mso.getLowBiasedChoice() + mso.getHighBiasedChoice();
+		// claims of biased juries are half as many as the case arguments
+		long arguments = mso.getArgumentChoice() + ((mso.getBiasedChoice() > 0) ? mso.getArgumentChoice()/2 : 0);
+		// an int per known argument in CompactCourt, two references in Juror
+		long entry = (engine == Utils.EngineType.OBJECT) ? 8 : 4;
+		// the vector engine keeps several courts per worker
+		long courts = (engine == Utils.EngineType.VECTOR) ? LockStepDeliberation.MAX_COURTS : 1;
+		return courts*jurors*(((arguments+63) >>> 6)*8 + arguments*entry);
+	}
+
+	private static boolean isFinished(MenuSelectionObject mso, int next, SimulationStatistics stats, ConvergenceTarget target) {
+		return next >= mso.getNumOfSimulations() || target.isMet(stats);
+	}
+
+	/**
+	 * Stops the worker threads
+	 */
+	public void shutdown() {
+		this.pool.shutdown();
+	}
+
+	/**
+	 * Runs a batch of simulations on the calling thread
+	 * @param mso simulation parameters
+	 * @param masterSeed seed of the run
+	 * @param first index of the first simulation of the batch
+	 * @param size number of simulations in the batch
+	 * @return statistics of the batch
+	 */
+	SimulationStatistics runBatch(MenuSelectionObject mso, long masterSeed, int first, int size) {
+		SimulationStatistics stats = new SimulationStatistics(mso);
+		SimulationRecordWriter.Batch records = (this.recordWriter != null) ? this.recordWriter.newBatch() : null;
+		// upper bound of the jury size, biased jurors may be added to the neutral ones
+		int[] scoresBefore = new int[mso.getJurySize() + mso.getLowBiasedChoice() + mso.getHighBiasedChoice()];
+		// the compact engine reuses the court of the worker, which grows to the largest trial it has run,
+		// so does the vector engine for the trials it cannot run in lock-step
+		CompactCourt arena = (this.engine != Utils.EngineType.OBJECT) ? this.arenas.get() : null;
+		RunProgress.Worker worker = (this.progress != null) ? this.progress.getThreadWorker() : null;
+		if(worker != null) {
+			worker.beginBatch();
+		}
+		if(this.isLockStep(mso)) {
+			this.lockSteps.get().run(mso, masterSeed, first, size, (i, court, before) -> {
+				String verdict = court.juryVote();
+				stats.add(court, verdict);
+				if(worker != null) {
+					worker.add(court, verdict);
+				}
+				if(records != null) {
+					records.add(mso, masterSeed, i, court, before);
+				}
+			});
+		}
+		else {
+			for(int i=first; i<first+size; i++) {
+				long started = (this.metrics != null) ? System.nanoTime() : 0;
+				SimulationListener phases = (this.events != null) ? this.events.startTrial(mso, i) : null;
+				Simulation simulation;
+				if(arena != null) {
+					arena.reset(SimulationRandom.streamSeed(masterSeed, i), mso);
+					simulation = arena;
+				}
+				else {
+					simulation = createSimulation(mso, this.engine, SimulationRandom.forSimulation(masterSeed, i));
+				}
+				SimulationListener trace = (this.traceRecorder != null) ? this.traceRecorder.startTrial(mso, masterSeed, i) : null;
+				String verdict = runSimulation(simulation, stats, scoresBefore,
+						SimulationListener.combine(SimulationListener.combine(this.listener, trace), phases), started);
+				if(worker != null) {
+					worker.add(simulation, verdict);
+				}
+				if(records != null) {
+					records.add(mso, masterSeed, i, simulation, scoresBefore);
+				}
+			}
+		}
+		if(records != null) {
+			records.finish();
+		}
+		if(worker != null) {
+			worker.endBatch();
+		}
+		return stats;
+	}
+
+	/**
+	 * Checks if the vector engine runs the trials of a point in lock-step. Trials that are observed, timed one by
+	 * one, deliberate on a sparse topology or have a jury large enough for ListenerSampler run one at a time
+	 * on the compact court of the worker.
+	 * @param mso simulation parameters
+	 * @return true if the trials of the point run in lock-step
+	 */
+	private boolean isLockStep(MenuSelectionObject mso) {
+		int numOfJurors = mso.getJurySize() - mso.getBiasedChoice()
+				+ ((mso.getBiasedChoice() > 0) ? mso.getLowBiasedChoice() + mso.getHighBiasedChoice() : 0);
+		return this.engine == Utils.EngineType.VECTOR && this.listener == null && this.traceRecorder == null
+				&& this.metrics == null && (this.events == null || !this.events.isEnabled())
+				&& (this.topology == null || this.topology.isComplete()) && numOfJurors < ListenerSampler.MIN_JURORS;
+	}
+
+	/**
+	 * Runs a generated simulation and adds its outcome to the given statistics
+	 * @param simulation the simulation, before arguments are provided
+	 * @param stats accumulator of the calling worker
+	 * @param scoresBefore filled with the scores of the jurors before deliberation
+	 * @param listener observer of the simulation, null if there is none
+	 * @param started System.nanoTime before the simulation was created, only read with metrics
+	 * @return verdict of the jury
+	 */
+	private String runSimulation(Simulation simulation, SimulationStatistics stats, int[] scoresBefore, SimulationListener listener,
+			long started) {
+		SimulationMetrics metrics = this.metrics;
+		long constructed = (metrics != null) ? System.nanoTime() : 0;
+		simulation.setListener(listener);
+		simulation.setTopology(this.topology);
+		if(listener != null) {
+			listener.caseGenerated(simulation);
+		}
+		// arguments are presented to the jury
+		simulation.provideArguments();
+		long provided = (metrics != null) ? System.nanoTime() : 0;
+		for(int j=0; j<simulation.getNumOfJurors(); j++) {
+			scoresBefore[j] = simulation.getJurorScore(j);
+		}
+		// deliberation takes place
+		simulation.juryDeliberation();
+		long deliberated = (metrics != null) ? System.nanoTime() : 0;
+		// voting takes place
+		String verdict = simulation.juryVote();
+		if(metrics != null) {
+			metrics.record(simulation, constructed-started, provided-constructed, deliberated-provided, System.nanoTime()-deliberated);
+		}
+		// statistics stuff counting
+		stats.add(simulation, verdict);
+		return verdict;
+	}
+
+	/**
+	 * Creates the simulation of a trial with the given engine, a single trial of the vector engine is a CompactCourt
+	 * @param mso simulation parameters
+	 * @param engine
+	 * @param random generator of the simulation
+	 * @return simulation
+	 */
+	public static Simulation createSimulation(MenuSelectionObject mso, Utils.EngineType engine, SimulationRandom random) {
+		int[] biasedDetails = new int[]{mso.getLowBiasedChoice(), mso.getHighBiasedChoice()};
+		if(engine != Utils.EngineType.OBJECT) {
+			return new CompactCourt(mso.getVoteChoice(), mso.getArgumentChoice(), mso.getJurySize(),
+									mso.getBiasedChoice(), biasedDetails, random);
+		}
+		return new Court(mso.getVoteChoice(), mso.getArgumentChoice(), mso.getJurySize(),
+							mso.getBiasedChoice(), biasedDetails, random);
+	}
+}
@@ -0,0 +1,303 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Accumulator of the statistics of a group of simulations.
+ * Every worker keeps its own instance and the instances are merged once the workers are done.
+ * Every per simulation metric is kept in an OnlineStatistic, so reports can give its variance and confidence interval.
+ *
+ */
+public class SimulationStatistics {
+	// buckets of the spread histograms
+	private static final int SPREAD_BUCKETS = 50;
+
+	// verdict counters
+	private int falsePositive;
+	private int falseNegative;
+	private int hungJury;
+	private int correctVerdicts;
+	// number of simulations accumulated
+	private int numOfSimulations;
+	// per simulation statistics
+	private OnlineStatistic deliberations;
+	private OnlineStatistic claimSpread;
+	private OnlineStatistic nonClaimSpread;
+	// percentage of every argument type, by type ordinal
+	private OnlineStatistic[] trialArgTypeDistr;
+	private OnlineStatistic[] juryArgTypeDistr;
+	// per type values of the simulation being added
+	private double[] typeValues;
+
+	/**
+	 * Creates an empty accumulator with histograms sized for the simulations of a point. The deliberations
+	 * histogram has one bucket per round up to maxRounds of the vote type, the spread histograms cover up to
+	 * two accepted arguments per juror and round, about the most measured for any jury size. Values beyond
+	 * the range of a histogram are counted in its last bucket, which is open-ended.
+	 * @param mso simulation parameters of the point, all accumulators merged together must share them
+	 */
+	public SimulationStatistics(MenuSelectionObject mso) {
+		this(maxRounds(mso.getVoteChoice()), 2*(mso.getJurySize() + mso.getLowBiasedChoice() + mso.getHighBiasedChoice()));
+	}
+
+	private SimulationStatistics(int rounds, double spread) {
+		this.deliberations = new OnlineStatistic(0, rounds, rounds);
+		this.claimSpread = new OnlineStatistic(0, spread, SPREAD_BUCKETS);
+		this.nonClaimSpread = new OnlineStatistic(0, spread, SPREAD_BUCKETS);
+		int types = Utils.ArgumentType.values().length;
+		this.trialArgTypeDistr = new OnlineStatistic[types];
+		this.juryArgTypeDistr = new OnlineStatistic[types];
+		for(int t=0; t<types; t++) {
+			this.trialArgTypeDistr[t] = new OnlineStatistic(0, 100, 20);
+			this.juryArgTypeDistr[t] = new OnlineStatistic(0, 100, 20);
+		}
+		this.typeValues = new double[types];
+	}
+
+	/**
+	 * Number of deliberation rounds a jury stays below but with a probability under 1e-9, whatever the jury
+	 * and the case. From round 11 on every juror loses the penalty of the vote type from their willingness
+	 * every round, so a jury goes on past round 10+m with a probability of (1-penalty)^(m(m+1)/2) at most.
+	 * @param voteType
+	 * @return bound of the number of rounds, 56 for unanimous and 34 for majority votes
+	 */
+	static int maxRounds(Utils.VoteType voteType) {
+		double limit = Math.log(1e-9)/Math.log(1-voteType.getPenalty());
+		int m = 0;
+		while(m*(m+1)/2.0 < limit) {
+			m++;
+		}
+		return 11 + m;
+	}
+
+	/**
+	 * Adds the outcome of a finished simulation
+	 * @param simulation the simulation after voting took place
+	 * @param verdict the verdict returned by the jury vote
+	 */
+	public void add(Simulation simulation, String verdict) {
+		this.numOfSimulations++;
+		this.claimSpread.add(simulation.getAvgClaimSpread());
+		this.nonClaimSpread.add(simulation.getAvgNonClaimsSpread());
+		this.deliberations.add(simulation.getTotalDeliberations());
+		simulation.fillTrialArgumentTypeDistribution(this.typeValues);
+		addAll(this.trialArgTypeDistr, this.typeValues);
+		simulation.fillJuryArgumentTypeDistribution(this.typeValues);
+		addAll(this.juryArgTypeDistr, this.typeValues);
+		if(simulation.isCorrectVerdict() && verdict.equals("guilty") ) {
+			this.falsePositive++;
+		}
+		else if(!simulation.isCorrectVerdict() && verdict.equals("innocent")) {
+			this.falseNegative++;
+		}
+		else if(verdict.equals("hung jury")){
+			this.hungJury++;
+		}
+		else {
+			this.correctVerdicts++;
+		}
+	}
+
+	/**
+	 * Adds the statistics of another accumulator to this one
+	 * @param other
+	 */
+	public void merge(SimulationStatistics other) {
+		this.falsePositive += other.falsePositive;
+		this.falseNegative += other.falseNegative;
+		this.hungJury += other.hungJury;
+		this.correctVerdicts += other.correctVerdicts;
+		this.numOfSimulations += other.numOfSimulations;
+		this.claimSpread.merge(other.claimSpread);
+		this.nonClaimSpread.merge(other.nonClaimSpread);
+		this.deliberations.merge(other.deliberations);
+		for(int t=0; t<this.trialArgTypeDistr.length; t++) {
+			this.trialArgTypeDistr[t].merge(other.trialArgTypeDistr[t]);
+			this.juryArgTypeDistr[t].merge(other.juryArgTypeDistr[t]);
+		}
+	}
+
+	/**
+	 * Writes the state of the accumulator, to be read back by readFrom in another process
+	 * @param out
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(this.falsePositive);
+		out.writeInt(this.falseNegative);
+		out.writeInt(this.hungJury);
+		out.writeInt(this.correctVerdicts);
+		out.writeInt(this.numOfSimulations);
+		this.deliberations.writeTo(out);
+		this.claimSpread.writeTo(out);
+		this.nonClaimSpread.writeTo(out);
+		for(int t=0; t<this.trialArgTypeDistr.length; t++) {
+			this.trialArgTypeDistr[t].writeTo(out);
+			this.juryArgTypeDistr[t].writeTo(out);
+		}
+	}
+
+	/**
+	 * Reads an accumulator written by writeTo
+	 * @param in
+	 * @return accumulator with the same state
+	 */
+	public static SimulationStatistics readFrom(DataInput in) throws IOException {
+		// every histogram is read back with its range
+		SimulationStatistics stats = new SimulationStatistics(1, 1);
+		stats.falsePositive = in.readInt();
+		stats.falseNegative = in.readInt();
+		stats.hungJury = in.readInt();
+		stats.correctVerdicts = in.readInt();
+		stats.numOfSimulations = in.readInt();
+		stats.deliberations = OnlineStatistic.readFrom(in);
+		stats.claimSpread = OnlineStatistic.readFrom(in);
+		stats.nonClaimSpread = OnlineStatistic.readFrom(in);
+		for(int t=0; t<stats.trialArgTypeDistr.length; t++) {
+			stats.trialArgTypeDistr[t] = OnlineStatistic.readFrom(in);
+			stats.juryArgTypeDistr[t] = OnlineStatistic.readFrom(in);
+		}
+		return stats;
+	}
+
+	public int getFalsePositives() {
+		return falsePositive;
+	}
+
+	public int getFalseNegatives() {
+		return falseNegative;
+	}
+
+	public int getWrongVerdicts() {
+		return falsePositive + falseNegative;
+	}
+
+	public int getHungJuries() {
+		return hungJury;
+	}
+
+	public int getCorrectVerdicts() {
+		return correctVerdicts;
+	}
+
+	public int getNumOfSimulations() {
+		return numOfSimulations;
+	}
+
+	/**
+	 * Fraction of simulations that ended in a wrong verdict
+	 * @return wrongVerdictRate
+	 */
+	public double getWrongVerdictRate() {
+		return (double)getWrongVerdicts()/this.numOfSimulations;
+	}
+
+	/**
+	 * Half width of the 95% confidence interval (Wilson score) of the wrong verdict rate
+	 * @return halfWidth
+	 */
+	public double getWrongVerdictHalfWidth() {
+		return OnlineStatistic.proportionHalfWidth(getWrongVerdicts(), this.numOfSimulations);
+	}
+
+	/**
+	 * Fraction of simulations that ended in a hung jury
+	 * @return hungJuryRate
+	 */
+	public double getHungJuryRate() {
+		return (double)this.hungJury/this.numOfSimulations;
+	}
+
+	/**
+	 * Half width of the 95% confidence interval (Wilson score) of the hung jury rate
+	 * @return halfWidth
+	 */
+	public double getHungJuryHalfWidth() {
+		return OnlineStatistic.proportionHalfWidth(this.hungJury, this.numOfSimulations);
+	}
+
+	public OnlineStatistic getDeliberations() {
+		return deliberations;
+	}
+
+	public OnlineStatistic getClaimSpread() {
+		return claimSpread;
+	}
+
+	public OnlineStatistic getNonClaimSpread() {
+		return nonClaimSpread;
+	}
+
+	/**
+	 * Percentage of an argument type in the trial, over all simulations
+	 * @param type
+	 * @return statistic
+	 */
+	public OnlineStatistic getTrialArgumentTypeShare(Utils.ArgumentType type) {
+		return trialArgTypeDistr[type.ordinal()];
+	}
+
+	/**
+	 * Percentage of an argument type in the jury's knowledge after deliberation, over all simulations
+	 * @param type
+	 * @return statistic
+	 */
+	public OnlineStatistic getJuryArgumentTypeShare(Utils.ArgumentType type) {
+		return juryArgTypeDistr[type.ordinal()];
+	}
+
+	/**
+	 * Average number of deliberations per simulation
+	 * @return avgDeliberations
+	 */
+	public double getAvgDeliberations() {
+		return this.deliberations.getMean();
+	}
+
+	/**
+	 * Average claim spread per deliberation round over all simulations
+	 * @return avgClaimSpread
+	 */
+	public double getAvgClaimSpread() {
+		return this.claimSpread.getMean();
+	}
+
+	/**
+	 * Average non-claim spread per deliberation round over all simulations
+	 * @return avgNonClaimSpread
+	 */
+	public double getAvgNonClaimSpread() {
+		return this.nonClaimSpread.getMean();
+	}
+
+	/**
+	 * Average trial argument type distribution over all simulations
+	 * @return Map<Utils.ArgumentType, Double> typeDistribution
+	 */
+	public Map<Utils.ArgumentType, Double> getTrialArgumentTypeDistribution() {
+		return average(this.trialArgTypeDistr);
+	}
+
+	/**
+	 * Average jury argument type distribution over all simulations
+	 * @return Map<Utils.ArgumentType, Double> typeDistribution
+	 */
+	public Map<Utils.ArgumentType, Double> getJuryArgumentTypeDistribution() {
+		return average(this.juryArgTypeDistr);
+	}
+
+	private static Map<Utils.ArgumentType, Double> average(OnlineStatistic[] distribution) {
+		Map<Utils.ArgumentType, Double> averages = new EnumMap<Utils.ArgumentType, Double>(Utils.ArgumentType.class);
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			averages.put(type, distribution[type.ordinal()].getMean());
+		}
+		return averages;
+	}
+
+	private static void addAll(OnlineStatistic[] distribution, double[] values) {
+		for(int t=0; t<distribution.length; t++) {
+			distribution[t].add(values[t]);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Progress of a run kept on disk, so that a killed run can resume where it stopped. For every point the file
+ * holds the index of the first simulation still to run, which is also the next random stream of the point,
+ * and the merged statistics of the simulations before it. Runs merge their batches in order, so a run resumed
+ * from a checkpoint merges the remaining batches onto the same state and ends with the same numbers as an
+ * uninterrupted one. The file is written to a temporary file first and moved over the old one, so a crash
+ * while writing leaves the previous checkpoint intact.
+ *
+ */
+public class SweepCheckpoint {
+	// first bytes of a checkpoint file
+	private static final int MAGIC = 0x4A555259;
+	private static final int VERSION = 3;
+
+	private Path path;
+	// least time between two writes
+	private long intervalMillis;
+	private long lastWrite;
+	private long masterSeed;
+	// description of the deliberation topology, part of what the results depend on
+	private String topology;
+	// half widths of the convergence target, NaN for a rate without target, they decide where the points stop
+	private double targetWrong;
+	private double targetHung;
+	private List<MenuSelectionObject> points;
+	// first simulation still to run and statistics of the simulations before it, for every point
+	private int[] next;
+	private SimulationStatistics[] merged;
+
+	private SweepCheckpoint(Path path, long intervalMillis, long masterSeed, String topology, double targetWrong, double targetHung,
+			List<MenuSelectionObject> points) {
+		this.path = path;
+		this.intervalMillis = intervalMillis;
+		this.lastWrite = System.currentTimeMillis();
+		this.masterSeed = masterSeed;
+		this.topology = topology;
+		this.targetWrong = targetWrong;
+		this.targetHung = targetHung;
+		this.points = points;
+		this.next = new int[points.size()];
+		this.merged = new SimulationStatistics[points.size()];
+		for(int p=0; p<points.size(); p++) {
+			this.merged[p] = new SimulationStatistics(points.get(p));
+		}
+	}
+
+	/**
+	 * Creates the checkpoint of a new run, nothing is written until the first interval has passed
+	 * @param path checkpoint file
+	 * @param intervalMillis least time between two writes
+	 * @param masterSeed seed of the run
+	 * @param topology deliberation topology of the run
+	 * @param target convergence target of the run, null to run the simulations of every point
+	 * @param points simulation parameters of every point
+	 * @return checkpoint
+	 */
+	public static SweepCheckpoint start(Path path, long intervalMillis, long masterSeed, DeliberationTopology topology,
+			ConvergenceTarget target, List<MenuSelectionObject> points) {
+		return new SweepCheckpoint(path, intervalMillis, masterSeed, topology.toString(),
+				(target != null) ? target.getWrongVerdictHalfWidth() : Double.NaN,
+				(target != null) ? target.getHungJuryHalfWidth() : Double.NaN, new ArrayList<MenuSelectionObject>(points));
+	}
+
+	/**
+	 * Reads the checkpoint of an interrupted run
+	 * @param path checkpoint file
+	 * @param intervalMillis least time between two writes of the resumed run
+	 * @return checkpoint
+	 */
+	public static SweepCheckpoint resume(Path path, long intervalMillis) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Not a checkpoint file: " + path);
+			}
+			long masterSeed = in.readLong();
+			String topology = in.readUTF();
+			double targetWrong = in.readDouble();
+			double targetHung = in.readDouble();
+			int numOfPoints = in.readInt();
+			List<MenuSelectionObject> points = new ArrayList<MenuSelectionObject>();
+			int[] next = new int[numOfPoints];
+			SimulationStatistics[] merged = new SimulationStatistics[numOfPoints];
+			for(int p=0; p<numOfPoints; p++) {
+				points.add(MenuSelectionObject.readFrom(in));
+				next[p] = in.readInt();
+				merged[p] = SimulationStatistics.readFrom(in);
+			}
+			SweepCheckpoint checkpoint = new SweepCheckpoint(path, intervalMillis, masterSeed, topology, targetWrong, targetHung, points);
+			checkpoint.next = next;
+			checkpoint.merged = merged;
+			return checkpoint;
+		}
+	}
+
+	/**
+	 * Checks that the checkpoint belongs to a run of the given parameters
+	 * @param topology deliberation topology of the resumed run
+	 * @param target convergence target of the resumed run, null for none
+	 * @param points simulation parameters of the resumed run, null to take those of the checkpoint
+	 */
+	public void verify(DeliberationTopology topology, ConvergenceTarget target, List<MenuSelectionObject> points) {
+		if(!this.topology.equals(topology.toString())) {
+			throw new IllegalArgumentException("Checkpoint " + this.path + " is of a run with topology " + this.topology);
+		}
+		double targetWrong = (target != null) ? target.getWrongVerdictHalfWidth() : Double.NaN;
+		double targetHung = (target != null) ? target.getHungJuryHalfWidth() : Double.NaN;
+		if(Double.compare(this.targetWrong, targetWrong) != 0 || Double.compare(this.targetHung, targetHung) != 0) {
+			throw new IllegalArgumentException("Checkpoint " + this.path + " is of a run with convergence target: "
+					+ ((Double.isNaN(this.targetWrong) && Double.isNaN(this.targetHung)) ? "none"
+							: new ConvergenceTarget(this.targetWrong, this.targetHung).toString()));
+		}
+		if(points != null && !this.points.equals(points)) {
+			throw new IllegalArgumentException("Checkpoint " + this.path + " is of a run with other simulation parameters");
+		}
+	}
+
+	public long getMasterSeed() {
+		return masterSeed;
+	}
+
+	public List<MenuSelectionObject> getPoints() {
+		return Collections.unmodifiableList(points);
+	}
+
+	/**
+	 * First simulation of a point still to run
+	 * @param point
+	 * @return index of the simulation
+	 */
+	public int getNext(int point) {
+		return this.next[point];
+	}
+
+	/**
+	 * Merged statistics of the simulations of a point before getNext
+	 * @param point
+	 * @return statistics, updated by the run that resumes from them
+	 */
+	public SimulationStatistics getMerged(int point) {
+		return this.merged[point];
+	}
+
+	/**
+	 * Records the progress of a point
+	 * @param point
+	 * @param next first simulation still to run
+	 * @param merged statistics of the simulations before next, kept by reference until the next update
+	 */
+	public void update(int point, int next, SimulationStatistics merged) {
+		this.next[point] = next;
+		this.merged[point] = merged;
+	}
+
+	/**
+	 * Writes the checkpoint if the interval has passed since the last write
+	 */
+	public void writeIfDue() throws IOException {
+		if(System.currentTimeMillis() - this.lastWrite >= this.intervalMillis) {
+			this.write();
+		}
+	}
+
+	/**
+	 * Writes the checkpoint atomically
+	 */
+	public void write() throws IOException {
+		Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+		try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(this.masterSeed);
+			out.writeUTF(this.topology);
+			out.writeDouble(this.targetWrong);
+			out.writeDouble(this.targetHung);
+			out.writeInt(this.points.size());
+			for(int p=0; p<this.points.size(); p++) {
+				this.points.get(p).writeTo(out);
+				out.writeInt(this.next[p]);
+				this.merged[p].writeTo(out);
+			}
+			out.flush();
+			// on disk before it replaces the previous checkpoint
+			file.getFD().sync();
+		}
+		try {
+			Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		this.lastWrite = System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,325 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a sweep on worker processes of this machine. The simulations of every point are split in shards of
+ * SHARD_BATCHES batches, and every worker, a JVM running Main --worker, pulls the next shard over a localhost
+ * socket as soon as it is done with its last one, so fast workers take over the work of slow ones.
+ * Workers send back the statistics of every batch and the batches are merged in the order of the in-process
+ * runner, so the results are identical to a run in a single JVM. Finished shards are merged as soon as the
+ * shards before them are, which is the progress kept in a checkpoint.
+ * A worker that crashes is restarted and its shard is handed out again.
+ *
+ */
+public class SweepCoordinator {
+	// batches of a shard, the unit of work a worker pulls
+	private static final int SHARD_BATCHES = 4;
+	// restarts of crashed workers allowed per worker before the sweep fails
+	private static final int RESTARTS_PER_WORKER = 3;
+	// commands sent to a worker
+	private static final int STOP = 0;
+	private static final int SHARD = 1;
+
+	/**
+	 * Simulations of a point handed out to a worker
+	 */
+	private static class Shard {
+		private int point;
+		private MenuSelectionObject mso;
+		private int first;
+		private int count;
+		// statistics of every batch once a worker is done, until they are merged
+		private List<SimulationStatistics> batches;
+
+		private Shard(int point, MenuSelectionObject mso, int first, int count) {
+			this.point = point;
+			this.mso = mso;
+			this.first = first;
+			this.count = count;
+		}
+	}
+
+	private int numOfProcesses;
+	private int threadsPerWorker;
+	private Utils.EngineType engine = Utils.EngineType.OBJECT;
+	private DeliberationTopology topology = DeliberationTopology.COMPLETE;
+	// whether workers publish their metrics
+	private boolean metrics;
+	// live progress of the sweep, null if it is not followed
+	private RunProgress progress;
+
+	// work of the running sweep, guarded by this
+	private ArrayDeque<Shard> pending;
+	private int unfinished;
+	// shards of every point, number of them merged and merged statistics
+	private List<List<Shard>> pointShards;
+	private int[] mergedShards;
+	private List<SimulationStatistics> results;
+	private SweepCheckpoint checkpoint;
+	// connections of workers so far, naming their progress
+	private int connections;
+
+	/**
+	 * Creates a coordinator
+	 * @param numOfProcesses number of worker processes
+	 * @param threadsPerWorker number of simulation threads of every worker
+	 */
+	public SweepCoordinator(int numOfProcesses, int threadsPerWorker) {
+		this.numOfProcesses = numOfProcesses;
+		this.threadsPerWorker = threadsPerWorker;
+	}
+
+	public void setEngine(Utils.EngineType engine) {
+		this.engine = engine;
+	}
+
+	public void setTopology(DeliberationTopology topology) {
+		this.topology = topology;
+	}
+
+	public void setMetrics(boolean metrics) {
+		this.metrics = metrics;
+	}
+
+	public void setProgress(RunProgress progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Runs the simulations of every sweep point on the worker processes
+	 * @param points simulation parameters of every sweep point
+	 * @param masterSeed seed of the run
+	 * @param checkpoint progress of the run, null to run without one
+	 * @return merged statistics of every point, in the order of the points
+	 */
+	public List<SimulationStatistics> runSweep(List<MenuSelectionObject> points, final long masterSeed, SweepCheckpoint checkpoint)
+			throws IOException, InterruptedException {
+		synchronized(this) {
+			this.pending = new ArrayDeque<Shard>();
+			this.pointShards = new ArrayList<List<Shard>>();
+			this.mergedShards = new int[points.size()];
+			this.results = new ArrayList<SimulationStatistics>();
+			this.checkpoint = checkpoint;
+			for(int p=0; p<points.size(); p++) {
+				MenuSelectionObject mso = points.get(p);
+				List<Shard> shards = new ArrayList<Shard>();
+				int start = (checkpoint != null) ? checkpoint.getNext(p) : 0;
+				for(int first=start; first<mso.getNumOfSimulations(); first+=SHARD_BATCHES*SimulationRunner.BATCH_SIZE) {
+					shards.add(new Shard(p, mso, first, Math.min(SHARD_BATCHES*SimulationRunner.BATCH_SIZE, mso.getNumOfSimulations()-first)));
+				}
+				this.pending.addAll(shards);
+				this.pointShards.add(shards);
+				this.results.add((checkpoint != null) ? checkpoint.getMerged(p) : new SimulationStatistics(mso));
+				if(this.progress != null) {
+					this.progress.begin(mso.getNumOfSimulations(), (checkpoint != null) ? checkpoint.getMerged(p) : null);
+				}
+			}
+			this.unfinished = this.pending.size();
+		}
+		final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(() -> {
+			try {
+				while(true) {
+					final Socket socket = server.accept();
+					Thread connection = new Thread(() -> serve(socket, masterSeed), "sweep-worker-connection");
+					connection.setDaemon(true);
+					connection.start();
+				}
+			}
+			catch (IOException e) {
+				// server closed, the sweep is over
+			}
+		}, "sweep-coordinator");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		Process[] workers = new Process[this.numOfProcesses];
+		boolean finished = false;
+		try {
+			for(int w=0; w<workers.length; w++) {
+				workers[w] = this.startWorker(server.getLocalPort());
+			}
+			int restarts = 0;
+			synchronized(this) {
+				while(this.unfinished > 0) {
+					this.wait(200);
+					for(int w=0; w<workers.length && this.unfinished > 0; w++) {
+						if(!workers[w].isAlive()) {
+							if(++restarts > RESTARTS_PER_WORKER*workers.length) {
+								throw new IOException("Worker processes keep failing, last exit code " + workers[w].exitValue());
+							}
+							System.err.println("Worker process exited with code " + workers[w].exitValue() + ", restarting it");
+							workers[w] = this.startWorker(server.getLocalPort());
+						}
+					}
+					if(checkpoint != null) {
+						checkpoint.writeIfDue();
+					}
+				}
+				if(checkpoint != null) {
+					checkpoint.write();
+				}
+			}
+			finished = true;
+			if(this.progress != null) {
+				this.progress.finish();
+			}
+		}
+		finally {
+			server.close();
+			for(Process worker:workers) {
+				// finished workers stop by themselves once told there is no work left
+				if(worker != null && !(finished && worker.waitFor(10, TimeUnit.SECONDS))) {
+					worker.destroyForcibly();
+				}
+			}
+		}
+		return this.results;
+	}
+
+	/**
+	 * Hands out shards to a connected worker until there is no work left or the worker fails
+	 */
+	private void serve(Socket socket, long masterSeed) {
+		try (Socket connection = socket;
+				DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+			RunProgress.Worker worker = null;
+			if(this.progress != null) {
+				synchronized(this) {
+					worker = this.progress.newWorker("worker process " + (++this.connections));
+				}
+			}
+			Shard shard;
+			while((shard = this.nextShard()) != null) {
+				try {
+					if(worker != null) {
+						worker.beginBatch();
+					}
+					out.writeInt(SHARD);
+					shard.mso.writeTo(out);
+					out.writeLong(masterSeed);
+					out.writeInt(shard.first);
+					out.writeInt(shard.count);
+					out.flush();
+					List<SimulationStatistics> batches = new ArrayList<SimulationStatistics>();
+					for(int b=in.readInt(); b>0; b--) {
+						batches.add(SimulationStatistics.readFrom(in));
+					}
+					if(worker != null) {
+						worker.endBatch();
+						for(SimulationStatistics batch:batches) {
+							worker.add(batch);
+						}
+					}
+					this.finishShard(shard, batches);
+				}
+				catch (IOException e) {
+					// the worker died, another one takes its shard
+					if(worker != null) {
+						worker.endBatch();
+					}
+					this.returnShard(shard);
+					return;
+				}
+			}
+			out.writeInt(STOP);
+			out.flush();
+		}
+		catch (IOException | InterruptedException e) {
+			// nothing is lost, the shards of this worker are finished or back in the queue
+		}
+	}
+
+	/**
+	 * Next shard to hand out, waiting while the shards of failed workers may still come back
+	 * @return shard, null once every shard is finished
+	 */
+	private synchronized Shard nextShard() throws InterruptedException {
+		while(this.pending.isEmpty() && this.unfinished > 0) {
+			this.wait();
+		}
+		return this.pending.poll();
+	}
+
+	/**
+	 * Keeps the statistics of a finished shard and merges the finished shards of its point that follow the merged ones
+	 */
+	private synchronized void finishShard(Shard shard, List<SimulationStatistics> batches) {
+		shard.batches = batches;
+		this.unfinished--;
+		List<Shard> shards = this.pointShards.get(shard.point);
+		SimulationStatistics stats = this.results.get(shard.point);
+		while(this.mergedShards[shard.point] < shards.size() && shards.get(this.mergedShards[shard.point]).batches != null) {
+			Shard next = shards.get(this.mergedShards[shard.point]++);
+			for(SimulationStatistics batch:next.batches) {
+				stats.merge(batch);
+			}
+			next.batches = null;
+			if(this.checkpoint != null) {
+				this.checkpoint.update(shard.point, next.first+next.count, stats);
+			}
+		}
+		this.notifyAll();
+	}
+
+	private synchronized void returnShard(Shard shard) {
+		this.pending.addFirst(shard);
+		this.notifyAll();
+	}
+
+	/**
+	 * Starts a worker JVM with the class path of this one
+	 * @param port port of the coordinator
+	 * @return worker process
+	 */
+	private Process startWorker(int port) throws IOException {
+		List<String> command = new ArrayList<String>(Arrays.asList(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"), "Main", "--worker", String.valueOf(port),
+				"--threads", String.valueOf(this.threadsPerWorker), "--engine", this.engine.name(),
+				"--topology", this.topology.toString()));
+		if(this.engine == Utils.EngineType.VECTOR) {
+			command.addAll(1, LockStepDeliberation.JVM_OPTIONS);
+		}
+		if(this.metrics) {
+			command.add("--metrics");
+		}
+		return new ProcessBuilder(command).inheritIO().start();
+	}
+
+	/**
+	 * Worker side: runs the shards sent by the coordinator until it is told to stop
+	 * @param port port of the coordinator on localhost
+	 * @param runner runner of the simulations of this worker
+	 */
+	public static void runWorker(int port, SimulationRunner runner) throws IOException, InterruptedException, ExecutionException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+			while(in.readInt() == SHARD) {
+				MenuSelectionObject mso = MenuSelectionObject.readFrom(in);
+				long masterSeed = in.readLong();
+				int first = in.readInt();
+				int count = in.readInt();
+				List<SimulationStatistics> batches = runner.runBatches(mso, masterSeed, first, count);
+				out.writeInt(batches.size());
+				for(SimulationStatistics batch:batches) {
+					batch.writeTo(out);
+				}
+				out.flush();
+			}
+		}
+	}
+}
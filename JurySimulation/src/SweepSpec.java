@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grid of simulation parameters to run without the interactive menu.
+ * A spec lists the values of every parameter, one "key = value, value, ..." entry per line in a file
+ * or separated by ';' on the command line:
+ * <pre>
+ * jury = 6, 12
+ * vote = unanimous, majority
+ * arguments = 50, 100, 500
+ * bias = 0+0, 1+1, 0+2
+ * simulations = 10000
+ * </pre>
+ * Jury values are numbers of jurors or the names small and big; bias values are "low+high" numbers of biased jurors.
+ * Every combination of the values is a sweep point.
+ *
+ */
+public class SweepSpec {
+	// numbers of jurors
+	private List<Integer> jurySizes;
+	private List<Utils.VoteType> voteTypes;
+	private List<Integer> arguments;
+	// {low, high} biased jurors
+	private List<int[]> biasMixes;
+	private int numOfSimulations;
+
+	/**
+	 * Creates a spec with the defaults of every parameter: 12 jurors, unanimous vote, 100 arguments,
+	 * no biased jurors and 1000 simulations per point
+	 */
+	public SweepSpec() {
+		this.jurySizes = new ArrayList<Integer>(Arrays.asList(Utils.JurySize.BIG.getsize()));
+		this.voteTypes = new ArrayList<Utils.VoteType>(Arrays.asList(Utils.VoteType.UNANIMOUS));
+		this.arguments = new ArrayList<Integer>(Arrays.asList(100));
+		this.biasMixes = new ArrayList<int[]>();
+		this.biasMixes.add(new int[]{0, 0});
+		this.numOfSimulations = 1000;
+	}
+
+	/**
+	 * Reads a spec from a file
+	 * @param path
+	 * @return spec
+	 */
+	public static SweepSpec fromFile(String path) throws IOException {
+		SweepSpec spec = new SweepSpec();
+		for(String line:Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+			spec.parseEntry(line);
+		}
+		return spec;
+	}
+
+	/**
+	 * Reads a spec from a command line argument, entries separated by ';'
+	 * @param entries
+	 * @return spec
+	 */
+	public static SweepSpec fromString(String entries) {
+		SweepSpec spec = new SweepSpec();
+		for(String entry:entries.split(";")) {
+			spec.parseEntry(entry);
+		}
+		return spec;
+	}
+
+	/**
+	 * Expands the spec into one MenuSelectionObject per combination of values
+	 * @return sweep points
+	 */
+	public List<MenuSelectionObject> expand() {
+		List<MenuSelectionObject> points = new ArrayList<MenuSelectionObject>();
+		for(int jurySize:this.jurySizes) {
+			for(Utils.VoteType voteType:this.voteTypes) {
+				for(int numOfArguments:this.arguments) {
+					for(int[] bias:this.biasMixes) {
+						points.add(new MenuSelectionObject(jurySize, voteType, numOfArguments,
+								bias[0]+bias[1], bias[0], bias[1], this.numOfSimulations));
+					}
+				}
+			}
+		}
+		return points;
+	}
+
+	private void parseEntry(String entry) {
+		// comments and blank lines
+		int comment = entry.indexOf('#');
+		if(comment >= 0) {
+			entry = entry.substring(0, comment);
+		}
+		if(entry.trim().isEmpty()) {
+			return;
+		}
+		int separator = entry.indexOf('=');
+		if(separator < 0) {
+			throw new IllegalArgumentException("Sweep entry without '=': " + entry);
+		}
+		String key = entry.substring(0, separator).trim().toLowerCase();
+		String[] values = entry.substring(separator+1).split(",");
+		for(int i=0; i<values.length; i++) {
+			values[i] = values[i].trim();
+		}
+		switch(key) {
+		case "jury":
+			this.jurySizes.clear();
+			for(String value:values) {
+				this.jurySizes.add(Utils.parseJurySize(value));
+			}
+			break;
+		case "vote":
+			this.voteTypes.clear();
+			for(String value:values) {
+				this.voteTypes.add(Utils.VoteType.valueOf(value.toUpperCase()));
+			}
+			break;
+		case "arguments":
+			this.arguments.clear();
+			for(String value:values) {
+				this.arguments.add(Integer.parseInt(value));
+			}
+			break;
+		case "bias":
+			this.biasMixes.clear();
+			for(String value:values) {
+				String[] levels = value.split("\\+");
+				if(levels.length != 2) {
+					throw new IllegalArgumentException("Bias mix is not low+high: " + value);
+				}
+				this.biasMixes.add(new int[]{Integer.parseInt(levels[0].trim()), Integer.parseInt(levels[1].trim())});
+			}
+			break;
+		case "simulations":
+			this.numOfSimulations = Integer.parseInt(values[0]);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown sweep parameter: " + key);
+		}
+	}
+}
@@ -0,0 +1,239 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the deliberation of sampled trials in a memory-mapped file, to be read back by TraceReplay.
+ * A recorded trial is built in a buffer of its worker thread and copied to the file in one block once the jury
+ * has voted, at a place reserved with a compare-and-set, so workers never wait for each other. Trials that do
+ * not fit in the file are dropped and counted. The length of a block is written last, so the blocks written
+ * before a crash can still be read.
+ * File: header (int magic, int version, long bytes of blocks), then one block per recorded trial:
+ * int block length, int number of events,
+ * point (int jury size, byte vote type ordinal, int arguments, int biased, int low bias, int high bias),
+ * long master seed, int simulation, int jurors, int argument ids,
+ * argument table (one byte per argument: type ordinal, plus 0x80 if exonerating),
+ * knowledge of every juror after the case arguments (ceil(argument ids/64) longs per juror),
+ * events (varint rounds since the previous event, varint speaker, varint argument, ceil(jurors/8) bytes of the
+ * listeners that accepted it, juror j in bit j%8 of byte j/8), about 5 bytes per event for a jury of 12;
+ * varints are unsigned LEB128, 7 bits per byte from the lowest, 0x80 set on every byte but the last,
+ * byte verdict (0 guilty, 1 innocent, 2 hung jury), byte correct verdict (1 innocent), int final score of every juror.
+ *
+ */
+public class TraceRecorder implements Closeable {
+	public static final int MAGIC = 0x4A545243;
+	public static final int VERSION = 2;
+	public static final int HEADER_SIZE = 16;
+
+	private FileChannel channel;
+	private MappedByteBuffer file;
+	// bytes available for blocks
+	private int capacity;
+	// bytes of blocks written or reserved
+	private AtomicInteger used = new AtomicInteger();
+	private AtomicInteger recorded = new AtomicInteger();
+	private AtomicInteger dropped = new AtomicInteger();
+	// every sampleEvery-th simulation of a point is recorded
+	private int sampleEvery;
+	// trial being recorded by every worker thread
+	private ThreadLocal<Trial> trials = ThreadLocal.withInitial(() -> new Trial());
+
+	/**
+	 * Creates the trace file
+	 * @param path
+	 * @param sampleEvery record simulations 0, sampleEvery, 2*sampleEvery, ... of every point
+	 * @param capacity bytes of the file, at most Integer.MAX_VALUE
+	 */
+	public TraceRecorder(Path path, int sampleEvery, int capacity) throws IOException {
+		if(sampleEvery <= 0 || capacity <= HEADER_SIZE) {
+			throw new IllegalArgumentException("Invalid trace: every " + sampleEvery + " simulations in " + capacity + " bytes");
+		}
+		this.sampleEvery = sampleEvery;
+		this.capacity = capacity - HEADER_SIZE;
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.file = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		this.file.putInt(0, MAGIC);
+		this.file.putInt(4, VERSION);
+		this.file.putLong(8, 0);
+	}
+
+	/**
+	 * Starts recording a simulation if it is sampled
+	 * @param mso simulation parameters
+	 * @param masterSeed seed of the run
+	 * @param simulation index of the simulation within its point
+	 * @return listener recording the trial, null if the simulation is not sampled
+	 */
+	public SimulationListener startTrial(MenuSelectionObject mso, long masterSeed, int simulation) {
+		if(simulation % this.sampleEvery != 0) {
+			return null;
+		}
+		Trial trial = this.trials.get();
+		trial.begin(mso, masterSeed, simulation);
+		return trial;
+	}
+
+	public int getRecorded() {
+		return recorded.get();
+	}
+
+	public int getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Copies a finished block into the file
+	 * @param block block of a trial, from position 0 to its limit
+	 */
+	private void write(ByteBuffer block) {
+		int length = block.limit();
+		int position;
+		do {
+			position = this.used.get();
+			if(position + length > this.capacity) {
+				this.dropped.incrementAndGet();
+				return;
+			}
+		} while(!this.used.compareAndSet(position, position + length));
+		ByteBuffer target = this.file.duplicate();
+		target.position(HEADER_SIZE + position + 4);
+		block.position(4);
+		target.put(block);
+		this.file.putInt(HEADER_SIZE + position, length);
+		this.recorded.incrementAndGet();
+	}
+
+	/**
+	 * Writes the size of the blocks, flushes the file and cuts it to that size.
+	 * Must be called once no trial is being recorded.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.file.putLong(8, this.used.get());
+		this.file.force();
+		this.channel.truncate(HEADER_SIZE + this.used.get());
+		this.channel.close();
+	}
+
+	/**
+	 * Recording of one trial, reused by its worker thread for every sampled trial
+	 */
+	private class Trial implements SimulationListener {
+		private ByteBuffer block = ByteBuffer.allocate(4096);
+		// listeners that accepted the argument being presented
+		private long[] accepted = new long[1];
+		private int numOfEvents;
+		// round of the previous event
+		private int lastRound;
+
+		private void begin(MenuSelectionObject mso, long masterSeed, int simulation) {
+			this.block.clear();
+			this.numOfEvents = 0;
+			this.lastRound = 0;
+			this.reserve(41);
+			this.block.putInt(0);
+			this.block.putInt(0);
+			this.block.putInt(mso.getJurySize());
+			this.block.put((byte) mso.getVoteChoice().ordinal());
+			this.block.putInt(mso.getArgumentChoice());
+			this.block.putInt(mso.getBiasedChoice());
+			this.block.putInt(mso.getLowBiasedChoice());
+			this.block.putInt(mso.getHighBiasedChoice());
+			this.block.putLong(masterSeed);
+			this.block.putInt(simulation);
+		}
+
+		@Override
+		public void argumentsProvided(Simulation simulation) {
+			int jurors = simulation.getNumOfJurors();
+			int arguments = simulation.getNumOfArgumentIds();
+			int words = (arguments + 63) >>> 6;
+			this.reserve(8 + arguments + 8*jurors*words);
+			this.block.putInt(jurors);
+			this.block.putInt(arguments);
+			for(int a=0; a<arguments; a++) {
+				this.block.put((byte) (simulation.getArgumentType(a).ordinal() | (simulation.isArgumentInnocent(a) ? 0x80 : 0)));
+			}
+			for(int j=0; j<jurors; j++) {
+				for(int w=0; w<words; w++) {
+					long known = 0;
+					for(int a=w<<6; a<Math.min(arguments, (w+1)<<6); a++) {
+						if(simulation.jurorKnows(j, a)) {
+							known |= 1L << a;
+						}
+					}
+					this.block.putLong(known);
+				}
+			}
+			if(this.accepted.length < ((jurors + 63) >>> 6)) {
+				this.accepted = new long[(jurors + 63) >>> 6];
+			}
+		}
+
+		@Override
+		public void argumentAccepted(Simulation simulation, int round, int listener, int argument) {
+			this.accepted[listener >>> 6] |= 1L << listener;
+		}
+
+		@Override
+		public void argumentPresented(Simulation simulation, int round, int speaker, int argument,
+				Utils.ArgumentType type, boolean innocent, int accepted) {
+			int jurors = simulation.getNumOfJurors();
+			this.reserve(15 + ((jurors + 7) >>> 3));
+			this.putVarint(round - this.lastRound);
+			this.putVarint(speaker);
+			this.putVarint(argument);
+			this.lastRound = round;
+			for(int b=0; b<((jurors + 7) >>> 3); b++) {
+				this.block.put((byte) (this.accepted[b >>> 3] >>> ((b & 7) << 3)));
+			}
+			for(int w=0; w<((jurors + 63) >>> 6); w++) {
+				this.accepted[w] = 0;
+			}
+			this.numOfEvents++;
+		}
+
+		/**
+		 * Writes a non-negative value as an unsigned LEB128 varint
+		 */
+		private void putVarint(int value) {
+			while((value & ~0x7F) != 0) {
+				this.block.put((byte) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			this.block.put((byte) value);
+		}
+
+		@Override
+		public void voteCast(Simulation simulation, String verdict) {
+			int jurors = simulation.getNumOfJurors();
+			this.reserve(2 + 4*jurors);
+			this.block.put((byte) (verdict.equals("guilty") ? 0 : verdict.equals("innocent") ? 1 : 2));
+			this.block.put((byte) (simulation.isCorrectVerdict() ? 1 : 0));
+			for(int j=0; j<jurors; j++) {
+				this.block.putInt(simulation.getJurorScore(j));
+			}
+			this.block.putInt(4, this.numOfEvents);
+			this.block.flip();
+			TraceRecorder.this.write(this.block);
+		}
+
+		/**
+		 * Grows the block so that it has room for the given number of bytes
+		 */
+		private void reserve(int bytes) {
+			if(this.block.remaining() < bytes) {
+				ByteBuffer larger = ByteBuffer.allocate(Math.max(2*this.block.capacity(), this.block.position() + bytes));
+				this.block.flip();
+				larger.put(this.block);
+				this.block = larger;
+			}
+		}
+	}
+}
@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the deliberation traces written by TraceRecorder and rebuilds the knowledge and score of every juror
+ * at the end of any round from the recorded acceptances, without running the simulation again.
+ * Usage: TraceReplay FILE [--simulation N] [--round R] [--wrong]
+ * lists the recorded trials, only those with a wrong verdict with --wrong, and checks that replaying a trial
+ * gives the final scores the jury voted with. With --simulation, shows every juror of the trials of simulation N
+ * at the end of round R, after deliberation if no round is given.
+ *
+ */
+public class TraceReplay {
+	private static final String[] VERDICTS = {"guilty", "innocent", "hung jury"};
+
+	/**
+	 * A recorded trial
+	 */
+	public static class Trial {
+		private int jurySize;
+		private Utils.VoteType voteType;
+		private int arguments;
+		private int lowBias;
+		private int highBias;
+		private long masterSeed;
+		private int simulation;
+		private int numOfJurors;
+		private int numOfArgumentIds;
+		// type ordinal of every argument, plus 0x80 if exonerating
+		private byte[] argumentTable;
+		// knowledge of every juror after the case arguments, numOfJurors*argumentWords
+		private long[] initialKnowledge;
+		private int argumentWords;
+		// events
+		private int numOfEvents;
+		private int[] round;
+		private int[] speaker;
+		private int[] argument;
+		// listeners that accepted the argument of every event, numOfEvents*jurorWords
+		private long[] accepted;
+		private int jurorWords;
+		private int verdict;
+		private boolean correctVerdict;
+		private int[] finalScores;
+
+		/**
+		 * Reads a block written by TraceRecorder
+		 * @param in the block, from its length to its end
+		 * @return trial
+		 */
+		public static Trial read(ByteBuffer in) {
+			Trial trial = new Trial();
+			in.getInt();
+			trial.numOfEvents = in.getInt();
+			trial.jurySize = in.getInt();
+			trial.voteType = Utils.VoteType.values()[in.get()];
+			trial.arguments = in.getInt();
+			in.getInt();
+			trial.lowBias = in.getInt();
+			trial.highBias = in.getInt();
+			trial.masterSeed = in.getLong();
+			trial.simulation = in.getInt();
+			trial.numOfJurors = in.getInt();
+			trial.numOfArgumentIds = in.getInt();
+			trial.argumentTable = new byte[trial.numOfArgumentIds];
+			in.get(trial.argumentTable);
+			trial.argumentWords = (trial.numOfArgumentIds + 63) >>> 6;
+			trial.initialKnowledge = new long[trial.numOfJurors*trial.argumentWords];
+			for(int i=0; i<trial.initialKnowledge.length; i++) {
+				trial.initialKnowledge[i] = in.getLong();
+			}
+			trial.jurorWords = (trial.numOfJurors + 63) >>> 6;
+			trial.round = new int[trial.numOfEvents];
+			trial.speaker = new int[trial.numOfEvents];
+			trial.argument = new int[trial.numOfEvents];
+			trial.accepted = new long[trial.numOfEvents*trial.jurorWords];
+			int lastRound = 0;
+			for(int e=0; e<trial.numOfEvents; e++) {
+				lastRound += getVarint(in);
+				trial.round[e] = lastRound;
+				trial.speaker[e] = getVarint(in);
+				trial.argument[e] = getVarint(in);
+				for(int b=0; b<((trial.numOfJurors + 7) >>> 3); b++) {
+					trial.accepted[e*trial.jurorWords + (b >>> 3)] |= (in.get() & 0xFFL) << ((b & 7) << 3);
+				}
+			}
+			trial.verdict = in.get();
+			trial.correctVerdict = (in.get() == 1);
+			trial.finalScores = new int[trial.numOfJurors];
+			for(int j=0; j<trial.numOfJurors; j++) {
+				trial.finalScores[j] = in.getInt();
+			}
+			return trial;
+		}
+
+		/**
+		 * Reads an unsigned LEB128 varint written by TraceRecorder
+		 */
+		private static int getVarint(ByteBuffer in) {
+			int value = 0;
+			for(int shift=0; ; shift+=7) {
+				byte b = in.get();
+				value |= (b & 0x7F) << shift;
+				if(b >= 0) {
+					return value;
+				}
+			}
+		}
+
+		public int getSimulation() {
+			return simulation;
+		}
+
+		public int getNumOfJurors() {
+			return numOfJurors;
+		}
+
+		/**
+		 * Number of deliberation rounds in which an argument was presented
+		 * @return last round of an event, 0 if there was none
+		 */
+		public int getNumOfRounds() {
+			return (this.numOfEvents > 0) ? this.round[this.numOfEvents-1] : 0;
+		}
+
+		public String getVerdict() {
+			return VERDICTS[verdict];
+		}
+
+		/**
+		 * Checks whether the jury convicted an innocent or acquitted a guilty defendant
+		 * @return true for a wrong verdict, a hung jury is not one
+		 */
+		public boolean isWrongVerdict() {
+			return (this.correctVerdict && this.verdict == 0) || (!this.correctVerdict && this.verdict == 1);
+		}
+
+		public boolean isExonerating(int argument) {
+			return (this.argumentTable[argument] & 0x80) != 0;
+		}
+
+		public Utils.ArgumentType getArgumentType(int argument) {
+			return Utils.ArgumentType.values()[this.argumentTable[argument] & 0x7F];
+		}
+
+		/**
+		 * Knowledge of every juror at the end of a round
+		 * @param lastRound 0 for the knowledge before deliberation
+		 * @return bitsets of argument ids, numOfJurors*ceil(numOfArgumentIds/64)
+		 */
+		public long[] knowledgeAt(int lastRound) {
+			long[] knowledge = this.initialKnowledge.clone();
+			for(int e=0; e<this.numOfEvents && this.round[e] <= lastRound; e++) {
+				int word = this.argument[e] >>> 6;
+				long bit = 1L << this.argument[e];
+				for(int j=0; j<this.numOfJurors; j++) {
+					if((this.accepted[e*this.jurorWords + (j >>> 6)] & (1L << j)) != 0) {
+						knowledge[j*this.argumentWords + word] |= bit;
+					}
+				}
+			}
+			return knowledge;
+		}
+
+		/**
+		 * Score of every juror at the end of a round: exonerating minus incriminating arguments known
+		 * @param lastRound 0 for the scores before deliberation
+		 * @return scores
+		 */
+		public int[] scoresAt(int lastRound) {
+			long[] knowledge = this.knowledgeAt(lastRound);
+			int[] scores = new int[this.numOfJurors];
+			for(int j=0; j<this.numOfJurors; j++) {
+				for(int a=0; a<this.numOfArgumentIds; a++) {
+					if(knows(knowledge, j, a)) {
+						scores[j] += this.isExonerating(a) ? 1 : -1;
+					}
+				}
+			}
+			return scores;
+		}
+
+		/**
+		 * Checks that the replayed final scores are those the jury voted with
+		 * @return true if the trace is consistent
+		 */
+		public boolean replaysFinalScores() {
+			return Arrays.equals(this.scoresAt(Integer.MAX_VALUE), this.finalScores);
+		}
+
+		private boolean knows(long[] knowledge, int juror, int argument) {
+			return (knowledge[juror*this.argumentWords + (argument >>> 6)] & (1L << argument)) != 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("jury %d %s, %d arguments, bias %d+%d, seed %d, simulation %d: %d jurors, %d arguments and claims, "
+					+ "%d presentations in %d rounds, verdict %s%s, replay %s",
+					this.jurySize, this.voteType, this.arguments, this.lowBias, this.highBias, this.masterSeed, this.simulation,
+					this.numOfJurors, this.numOfArgumentIds, this.numOfEvents, this.getNumOfRounds(), this.getVerdict(),
+					this.isWrongVerdict() ? " (wrong)" : "", this.replaysFinalScores() ? "ok" : "MISMATCH");
+		}
+	}
+
+	/**
+	 * Reads every trial of a trace file
+	 * @param path
+	 * @return trials in the order they were written
+	 */
+	public static List<Trial> read(Path path) throws IOException {
+		List<Trial> trials = new ArrayList<Trial>();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(file.limit() < TraceRecorder.HEADER_SIZE || file.getInt(0) != TraceRecorder.MAGIC || file.getInt(4) != TraceRecorder.VERSION) {
+				throw new IOException("Not a trace file: " + path);
+			}
+			// a recorder that did not close leaves no size, its blocks end at the first empty length
+			long size = file.getLong(8);
+			int end = (size > 0) ? (int)Math.min(file.limit(), TraceRecorder.HEADER_SIZE + size) : file.limit();
+			int position = TraceRecorder.HEADER_SIZE;
+			while(position + 4 <= end) {
+				int length = file.getInt(position);
+				if(length <= 0 || position + length > end) {
+					break;
+				}
+				ByteBuffer block = file.duplicate();
+				block.position(position);
+				block.limit(position + length);
+				trials.add(Trial.read(block.slice()));
+				position += length;
+			}
+		}
+		return trials;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if(args.length == 0) {
+			System.out.println("Usage: TraceReplay FILE [--simulation N] [--round R] [--wrong]");
+			return;
+		}
+		int simulation = -1;
+		int lastRound = Integer.MAX_VALUE;
+		boolean wrongOnly = false;
+		for(int i=1; i<args.length; i++) {
+			if(args[i].equals("--simulation")) {
+				simulation = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--round")) {
+				lastRound = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--wrong")) {
+				wrongOnly = true;
+			}
+		}
+		for(Trial trial:read(Paths.get(args[0]))) {
+			if((simulation >= 0 && trial.getSimulation() != simulation) || (wrongOnly && !trial.isWrongVerdict())) {
+				continue;
+			}
+			System.out.println(trial);
+			if(simulation >= 0) {
+				long[] knowledge = trial.knowledgeAt(lastRound);
+				long[] before = trial.knowledgeAt(0);
+				System.out.println((lastRound == Integer.MAX_VALUE) ? "After deliberation:" : "At the end of round " + lastRound + ":");
+				for(int j=0; j<trial.getNumOfJurors(); j++) {
+					int exonerating = 0;
+					int incriminating = 0;
+					int learned = 0;
+					for(int a=0; a<trial.numOfArgumentIds; a++) {
+						if(trial.knows(knowledge, j, a)) {
+							if(trial.isExonerating(a)) {
+								exonerating++;
+							}
+							else {
+								incriminating++;
+							}
+							if(!trial.knows(before, j, a)) {
+								learned++;
+							}
+						}
+					}
+					System.out.println(String.format("  Juror %d: %d arguments (%d exonerating, %d incriminating), score %d, %d learned in deliberation",
+							j, exonerating + incriminating, exonerating, incriminating, exonerating - incriminating, learned));
+				}
+			}
+		}
+	}
+}
@@ -1,9 +1,8 @@
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Scanner;
-import java.util.concurrent.ThreadLocalRandom;
 
 public	 class Utils {
 	
@@ -15,8 +14,7 @@ public	 class Utils {
 		TESTIMONY,
 		EVIDENCE;
 		
-		public static ArgumentType getRandomArgumentType() {
-            Random random = new Random();
+		public static ArgumentType getRandomArgumentType(SimulationRandom random) {
             return values()[random.nextInt(values().length)];
         }
 	}
@@ -66,32 +64,60 @@ public	 class Utils {
 		}
 	}
 	
+	/**
+	 * Enumerator from the different simulation engines
+	 */
+	public enum EngineType{
+		// Court, jurors and arguments as objects
+		OBJECT,
+		// CompactCourt, jury and case in primitive arrays
+		COMPACT,
+		// CompactCourts deliberating in lock-step on vector lanes, LockStepDeliberation of the vector-engine module
+		VECTOR;
+	}
+	
 	/**
 	 * Generate acceptance array with fixed percentages and highest on the given argument type
 	 * @param argtype: which type to have the highest acceptance
+	 * @param random: generator of the simulation
 	 * @return acceptanceMap
 	 */
-	public static Map<ArgumentType, Double> generateAcceptance(ArgumentType argtype){
+	public static Map<ArgumentType, Double> generateAcceptance(ArgumentType argtype, SimulationRandom random){
 		Map<ArgumentType, Double> acceptanceMap = new HashMap<ArgumentType, Double>();
+		double[] acceptance = new double[ArgumentType.values().length];
+		generateAcceptance(argtype, random, acceptance, 0);
+		for(ArgumentType type:ArgumentType.values()) {
+			acceptanceMap.put(type, acceptance[type.ordinal()]);
+		}
+		return acceptanceMap;
+	}
+
+	/**
+	 * Generate acceptance values without allocating, same draws as the map version
+	 * @param argtype: which type to have the highest acceptance
+	 * @param random: generator of the simulation
+	 * @param acceptance: filled with the acceptance of every type, by type ordinal
+	 * @param offset: position of the first type in acceptance
+	 */
+	public static void generateAcceptance(ArgumentType argtype, SimulationRandom random, double[] acceptance, int offset){
 		switch(argtype) {
 		case CLAIM:
-			acceptanceMap.put(argtype, ThreadLocalRandom.current().nextDouble(0.7, 0.85));
-			acceptanceMap.put(ArgumentType.EVIDENCE, ThreadLocalRandom.current().nextDouble(0.35, 0.55));
-			acceptanceMap.put(ArgumentType.TESTIMONY, ThreadLocalRandom.current().nextDouble(0.4, 0.6));
+			acceptance[offset+argtype.ordinal()] = random.nextDouble(0.7, 0.85);
+			acceptance[offset+ArgumentType.EVIDENCE.ordinal()] = random.nextDouble(0.35, 0.55);
+			acceptance[offset+ArgumentType.TESTIMONY.ordinal()] = random.nextDouble(0.4, 0.6);
 			break;
 		case TESTIMONY:
-			acceptanceMap.put(argtype, ThreadLocalRandom.current().nextDouble(0.7, 0.85));
-			acceptanceMap.put(ArgumentType.CLAIM, ThreadLocalRandom.current().nextDouble(0.2, 0.4));
-			acceptanceMap.put(ArgumentType.EVIDENCE, ThreadLocalRandom.current().nextDouble(0.4, 0.6));
+			acceptance[offset+argtype.ordinal()] = random.nextDouble(0.7, 0.85);
+			acceptance[offset+ArgumentType.CLAIM.ordinal()] = random.nextDouble(0.2, 0.4);
+			acceptance[offset+ArgumentType.EVIDENCE.ordinal()] = random.nextDouble(0.4, 0.6);
 			break;
 		case EVIDENCE:
-			acceptanceMap.put(argtype, ThreadLocalRandom.current().nextDouble(0.7, 0.85));
-			acceptanceMap.put(ArgumentType.CLAIM, ThreadLocalRandom.current().nextDouble(0.2, 0.4));
-			acceptanceMap.put(ArgumentType.TESTIMONY, ThreadLocalRandom.current().nextDouble(0.4, 0.6));
+			acceptance[offset+argtype.ordinal()] = random.nextDouble(0.7, 0.85);
+			acceptance[offset+ArgumentType.CLAIM.ordinal()] = random.nextDouble(0.2, 0.4);
+			acceptance[offset+ArgumentType.TESTIMONY.ordinal()] = random.nextDouble(0.4, 0.6);
 			break;
 		default:
 		}
-		return acceptanceMap;
 	}
 	
 	/**
@@ -114,14 +140,20 @@ public	 class Utils {
 	 */
 	public static MenuSelectionObject getSimulationParametersFromUser() {
 		Scanner reader = new Scanner(System.in);  // Reading from System.in
-		System.out.println("Choose jury size (enter: 1 or 2):\n"
+		System.out.println("Choose jury size (enter: 1, 2 or 3):\n"
 						 + "1. 6-member jury \n"
-						 + "2. 12-member jury\n");
+						 + "2. 12-member jury\n"
+						 + "3. Other size\n");
 		int juryChoice = reader.nextInt();
+		int jurySize = (juryChoice == 1) ? JurySize.SMALL.getsize() : JurySize.BIG.getsize();
+		if(juryChoice == 3) {
+			System.out.println("Enter number of jurors (enter: 1 to 100000):\n");
+			jurySize = reader.nextInt();
+		}
 		System.out.println("Choose voting system (enter: 1 or 2):\n"
 						 + "1. Unanimous\n"
 						 + "2. Majority\n");
-		int voteChoice = reader.nextInt();
+		VoteType voteType = (reader.nextInt() == 1) ? VoteType.UNANIMOUS : VoteType.MAJORITY;
 		System.out.println("Enter number of arguments (enter: 25 to 500):\n");
 		int argumentChoice = reader.nextInt();
 		System.out.println("Enter number of biased agents (enter: 0 to selected jury size):\n");
@@ -138,10 +170,54 @@ public	 class Utils {
 		//once finished
 		reader.close();
 		
-		MenuSelectionObject mso = new MenuSelectionObject(juryChoice, voteChoice, argumentChoice, biasedChoice, lowBiasedChoice, highBiasedChoice, numOfSimulations);
+		MenuSelectionObject mso = new MenuSelectionObject(jurySize, voteType, argumentChoice, biasedChoice, lowBiasedChoice, highBiasedChoice, numOfSimulations);
 		return mso;
 	}
 
+	/**
+	 * Shuffles a list with the generator of the simulation (Fisher-Yates)
+	 * @param list
+	 * @param random: generator of the simulation
+	 */
+	public static <T> void shuffle(List<T> list, SimulationRandom random) {
+		for(int i=list.size()-1; i>0; i--) {
+			int j = random.nextInt(i+1);
+			T temp = list.get(i);
+			list.set(i, list.get(j));
+			list.set(j, temp);
+		}
+	}
+
+	/**
+	 * Number of failures before the first success of a sequence of Bernoulli trials
+	 * @param random: generator of the simulation
+	 * @param logMiss: log(1-p) of the chance p of a success
+	 * @return skip, capped to Integer.MAX_VALUE/2 so it can be added to an index
+	 */
+	public static int geometricSkip(SimulationRandom random, double logMiss) {
+		double skip = Math.floor(Math.log(1-random.nextDouble())/logMiss);
+		// a chance of 0 gives a negative or NaN skip: no success ever
+		return (skip >= 0 && skip < Integer.MAX_VALUE/2) ? (int)skip : Integer.MAX_VALUE/2;
+	}
+
+	/**
+	 * Jury size by name (small, big) or by number of members
+	 * @param value
+	 * @return number of jurors
+	 */
+	public static int parseJurySize(String value) {
+		for(JurySize jurySize:JurySize.values()) {
+			if(value.equalsIgnoreCase(jurySize.name())) {
+				return jurySize.getsize();
+			}
+		}
+		int size = Integer.parseInt(value.trim());
+		if(size <= 0) {
+			throw new IllegalArgumentException("Jury size must be positive: " + value);
+		}
+		return size;
+	}
+
 	public static ArrayList<Argument> generateClaims(int numOfClaims, boolean correctVerdict){
 		ArrayList<Argument> claims = new ArrayList<Argument>();
 		for(int i=0; i<numOfClaims; i++) {
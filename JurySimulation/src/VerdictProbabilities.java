@@ -0,0 +1,581 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Exact probabilities of the verdict a jury gives when it votes right after provideArguments, before any
+ * deliberation, and the exact distribution of the juror scores at that moment, computed without simulations.
+ * A juror accepts every case argument with the acceptance of its type, drawn uniformly from the ranges of
+ * Utils.generateAcceptance, so the number of accepted arguments of a type is binomial with a uniformly mixed
+ * success chance. Its distribution is a difference of binomial tails, and how many of them are exonerating is
+ * hypergeometric. Jurors share the case, so for the verdict every composition of the case (how many exonerating
+ * and incriminating arguments are evidence) is enumerated with its binomial weight; the jurors are independent
+ * within a composition, and the votes of the neutral, low biased and high biased jurors add up as a
+ * Poisson-binomial distribution. Compositions less likely than MIN_WEIGHT are left out, they change no
+ * probability by more than 1e-12. The case with more exonerating arguments mirrors the other one, so only
+ * one of them is enumerated. The work grows about with the cube of the number of arguments: a tenth of a
+ * second for a hundred arguments, two to three seconds for five hundred.
+ * Usage: VerdictProbabilities RECORDS
+ * compares the verdicts and mean scores before deliberation of the simulations of a --records file with the
+ * exact values of their points, a correctness check of the Monte Carlo engines.
+ *
+ */
+public class VerdictProbabilities {
+	// acceptance ranges of Utils.generateAcceptance: the preferred type, the other case type of a neutral juror
+	// and testimony of a biased juror, and evidence of a biased juror
+	private static final double[] PREFERRED = {0.7, 0.85};
+	private static final double[] OTHER = {0.4, 0.6};
+	private static final double[] BIASED_EVIDENCE = {0.35, 0.55};
+	// acceptance densities of one type, and of any argument for a single juror
+	private static final double[][] PREFERRED_TYPE = uniform(PREFERRED);
+	private static final double[][] OTHER_TYPE = uniform(OTHER);
+	private static final double[][] BIASED_EVIDENCE_TYPE = uniform(BIASED_EVIDENCE);
+	private static final double[][] NEUTRAL_ARGUMENT = mean(PREFERRED, OTHER);
+	private static final double[][] BIASED_ARGUMENT = mean(BIASED_EVIDENCE, OTHER);
+	// compositions of the case less likely than this are left out
+	private static final double MIN_WEIGHT = 1e-18;
+	// binomial and hypergeometric terms below this are left out
+	private static final double MIN_TERM = 1e-30;
+
+	private MenuSelectionObject mso;
+	// probabilities of the verdicts
+	private double innocent;
+	private double guilty;
+	private double hungJury;
+	private double wrongVerdict;
+	private double correctVerdict;
+	// score distributions, score s at index s+scoreOffset
+	private int scoreOffset;
+	private double[] neutralScores;
+	private double[] lowBiasedScores;
+	private double[] highBiasedScores;
+	// log(k!) up to the number of arguments
+	private double[] logFactorial;
+	// distributions of accepted counts, by density and number of arguments, every composition reuses them
+	private Map<double[][], double[][]> acceptedCounts = new IdentityHashMap<double[][], double[][]>();
+
+	private VerdictProbabilities(MenuSelectionObject mso) {
+		this.mso = mso;
+	}
+
+	/**
+	 * Computes the probabilities of a point
+	 * @param mso simulation parameters, the number of simulations is not used
+	 * @return probabilities
+	 */
+	public static VerdictProbabilities compute(MenuSelectionObject mso) {
+		int numOfArguments = mso.getArgumentChoice();
+		if(numOfArguments < 0 || mso.getJurySize() - mso.getBiasedChoice() < 0) {
+			throw new IllegalArgumentException("Invalid simulation parameters: " + numOfArguments + " arguments, "
+					+ mso.getBiasedChoice() + " biased jurors of " + mso.getJurySize());
+		}
+		VerdictProbabilities probabilities = new VerdictProbabilities(mso);
+		probabilities.logFactorial = new double[numOfArguments+3];
+		for(int k=1; k<probabilities.logFactorial.length; k++) {
+			probabilities.logFactorial[k] = probabilities.logFactorial[k-1] + Math.log(k);
+		}
+		probabilities.scoreOffset = numOfArguments + (int)(numOfArguments*Utils.BiasLevel.HIGH.getPercentage());
+		probabilities.neutralScores = new double[2*probabilities.scoreOffset+1];
+		probabilities.lowBiasedScores = new double[2*probabilities.scoreOffset+1];
+		probabilities.highBiasedScores = new double[2*probabilities.scoreOffset+1];
+		int numOfJurors = mso.getJurySize() - mso.getBiasedChoice()
+				+ ((mso.getBiasedChoice() > 0) ? mso.getLowBiasedChoice() + mso.getHighBiasedChoice() : 0);
+		if(numOfJurors == 0) {
+			throw new IllegalArgumentException("The jury has no jurors");
+		}
+		// same case proportions as the courts, either side is the larger one with probability 1/2
+		int fewer = (int)Math.floor(numOfArguments*0.45);
+		int more = (int)Math.ceil(numOfArguments*0.55);
+		probabilities.addScores(fewer, more, 0.5);
+		probabilities.addScores(more, fewer, 0.5);
+		probabilities.addVerdicts(fewer, more);
+		return probabilities;
+	}
+
+	/**
+	 * Claims known by a biased juror, they speak for the wrong verdict
+	 * @return score of the claims
+	 */
+	private int claims(Utils.BiasLevel bias, boolean innocentSuspect) {
+		return (innocentSuspect ? -1 : 1)*(int)(this.mso.getArgumentChoice()*bias.getPercentage());
+	}
+
+	/**
+	 * Adds the score distributions of a case
+	 * @param exonerating number of exonerating arguments
+	 * @param incriminating number of incriminating arguments
+	 * @param weight probability of the case
+	 */
+	private void addScores(int exonerating, int incriminating, double weight) {
+		boolean innocentSuspect = exonerating >= incriminating;
+		int lowClaims = this.claims(Utils.BiasLevel.LOW, innocentSuspect);
+		int highClaims = this.claims(Utils.BiasLevel.HIGH, innocentSuspect);
+		// a single juror sees every argument as evidence or testimony with probability 1/2, so it accepts each of
+		// them with the mean of its two acceptances
+		double[][] differences = this.differences(exonerating, incriminating, new double[][][]{NEUTRAL_ARGUMENT, BIASED_ARGUMENT});
+		for(int i=0; i<=exonerating+incriminating; i++) {
+			int score = i - incriminating + this.scoreOffset;
+			this.neutralScores[score] += weight*differences[0][i];
+			this.lowBiasedScores[score + lowClaims] += weight*differences[1][i];
+			this.highBiasedScores[score + highClaims] += weight*differences[1][i];
+		}
+	}
+
+	/**
+	 * Adds the verdicts of both cases, composition by composition. The case with more exonerating arguments is
+	 * the mirror image of the other one, a score s in one is -s in the other, so a juror votes innocent in it with
+	 * the probability of a score of at most 0 in the other. The composition of e exonerating and i incriminating
+	 * evidence arguments is as likely as the one of e testimony and i testimony arguments, so they are taken
+	 * together and the differences of every type are computed once for both.
+	 * @param exonerating number of exonerating arguments of the case with fewer of them
+	 * @param incriminating number of incriminating arguments of that case
+	 */
+	private void addVerdicts(int exonerating, int incriminating) {
+		boolean innocentSuspect = exonerating >= incriminating;
+		boolean mirrorInnocentSuspect = incriminating >= exonerating;
+		int numOfNeutral = this.mso.getJurySize() - this.mso.getBiasedChoice();
+		int numOfLow = (this.mso.getBiasedChoice() > 0) ? this.mso.getLowBiasedChoice() : 0;
+		int numOfHigh = (this.mso.getBiasedChoice() > 0) ? this.mso.getHighBiasedChoice() : 0;
+		int lowClaims = this.claims(Utils.BiasLevel.LOW, innocentSuspect);
+		int highClaims = this.claims(Utils.BiasLevel.HIGH, innocentSuspect);
+		// densities of the acceptance of a type, the first two of them for testimony
+		double[][][] densities = (numOfLow + numOfHigh > 0)
+				? new double[][][]{PREFERRED_TYPE, OTHER_TYPE, BIASED_EVIDENCE_TYPE}
+				: new double[][][]{PREFERRED_TYPE, OTHER_TYPE};
+		double[] exoneratingEvidence = this.binomial(exonerating, 0.5);
+		double[] incriminatingEvidence = this.binomial(incriminating, 0.5);
+		for(int e=0; e<=exonerating; e++) {
+			for(int i=0; i<=incriminating; i++) {
+				int testimonyE = exonerating-e;
+				int testimonyI = incriminating-i;
+				double composition = 0.5*exoneratingEvidence[e]*incriminatingEvidence[i];
+				if(composition < MIN_WEIGHT || e > testimonyE || (e == testimonyE && i > testimonyI)) {
+					continue;
+				}
+				double[][] first = this.differences(e, i, densities);
+				double[][] second = (e == testimonyE && i == testimonyI) ? first : this.differences(testimonyE, testimonyI, densities);
+				double[][] firstAtLeast = atLeast(first);
+				double[][] secondAtLeast = (second == first) ? firstAtLeast : atLeast(second);
+				for(int swap=0; swap<((second == first) ? 1 : 2); swap++) {
+					double[][] evidence = (swap == 0) ? first : second;
+					double[][] testimony = (swap == 0) ? secondAtLeast : firstAtLeast;
+					int evidenceOffset = (swap == 0) ? i : testimonyI;
+					int testimonyOffset = (swap == 0) ? testimonyI : i;
+					// probability of a score of at least 0, and of at least 1 for the mirror case
+					double[] neutralVote = new double[2], lowVote = new double[2], highVote = new double[2];
+					for(int threshold=0; threshold<2; threshold++) {
+						// a neutral juror prefers evidence or testimony with probability 1/2
+						neutralVote[threshold] = 0.5*(atLeast(evidence[0], evidenceOffset, testimony[1], testimonyOffset, threshold)
+								+ atLeast(evidence[1], evidenceOffset, testimony[0], testimonyOffset, threshold));
+						lowVote[threshold] = (numOfLow > 0)
+								? atLeast(evidence[2], evidenceOffset, testimony[1], testimonyOffset, threshold-lowClaims) : 0;
+						highVote[threshold] = (numOfHigh > 0)
+								? atLeast(evidence[2], evidenceOffset, testimony[1], testimonyOffset, threshold-highClaims) : 0;
+					}
+					this.addVote(this.votes(numOfNeutral, neutralVote[0], numOfLow, lowVote[0], numOfHigh, highVote[0]),
+							composition, innocentSuspect);
+					this.addVote(this.votes(numOfNeutral, 1-neutralVote[1], numOfLow, 1-lowVote[1], numOfHigh, 1-highVote[1]),
+							composition, mirrorInnocentSuspect);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Distribution of the number of innocent votes of a jury whose jurors vote independently
+	 * @return probability of every number of innocent votes
+	 */
+	private double[] votes(int numOfNeutral, double neutralVote, int numOfLow, double lowVote, int numOfHigh, double highVote) {
+		return this.convolve(this.convolve(this.binomial(numOfNeutral, neutralVote), this.binomial(numOfLow, lowVote)),
+				this.binomial(numOfHigh, highVote));
+	}
+
+	/**
+	 * Adds the verdicts of a distribution of innocent votes, same rules as juryVote
+	 * @param votes probability of every number of innocent votes
+	 * @param weight probability of the composition
+	 * @param innocentSuspect correct verdict of the case
+	 */
+	private void addVote(double[] votes, double weight, boolean innocentSuspect) {
+		int numOfJurors = votes.length-1;
+		double innocent = 0, guilty = 0;
+		if(this.mso.getVoteChoice() == Utils.VoteType.UNANIMOUS) {
+			innocent = votes[numOfJurors];
+			guilty = votes[0];
+		}
+		else {
+			for(int v=0; v<=numOfJurors; v++) {
+				if(2*v > numOfJurors) {
+					innocent += votes[v];
+				}
+				else if(2*v < numOfJurors) {
+					guilty += votes[v];
+				}
+			}
+		}
+		double hung = Math.max(0, 1 - innocent - guilty);
+		this.innocent += weight*innocent;
+		this.guilty += weight*guilty;
+		this.hungJury += weight*hung;
+		this.correctVerdict += weight*(innocentSuspect ? innocent : guilty);
+		this.wrongVerdict += weight*(innocentSuspect ? guilty : innocent);
+	}
+
+	/**
+	 * Probability of a difference of at least every value
+	 * @param differences distributions of differences
+	 * @return probability of at least the difference of every index, plus a last 0
+	 */
+	private static double[][] atLeast(double[][] differences) {
+		double[][] atLeast = new double[differences.length][];
+		for(int r=0; r<differences.length; r++) {
+			atLeast[r] = new double[differences[r].length+1];
+			for(int t=differences[r].length-1; t>=0; t--) {
+				atLeast[r][t] = atLeast[r][t+1] + differences[r][t];
+			}
+		}
+		return atLeast;
+	}
+
+	/**
+	 * Probability that the evidence and testimony differences of a juror add up to at least a threshold
+	 * @param evidence distribution of the evidence difference, d at index d+evidenceOffset
+	 * @param testimonyAtLeast probability of a testimony difference of at least index-testimonyOffset
+	 * @param threshold least sum, 0 for an innocent vote of a juror without claims
+	 */
+	private static double atLeast(double[] evidence, int evidenceOffset, double[] testimonyAtLeast, int testimonyOffset,
+			int threshold) {
+		double probability = 0;
+		for(int e=0; e<evidence.length; e++) {
+			int t = threshold - (e - evidenceOffset) + testimonyOffset;
+			probability += evidence[e]*testimonyAtLeast[Math.max(0, Math.min(testimonyAtLeast.length-1, t))];
+		}
+		return Math.max(0, Math.min(1, probability));
+	}
+
+	/**
+	 * Distribution of accepted exonerating minus accepted incriminating arguments of a type, for an acceptance
+	 * drawn from every given density
+	 * @param exonerating number of exonerating arguments of the type
+	 * @param incriminating number of incriminating arguments of the type
+	 * @param densities piecewise linear densities of the acceptance, pieces of {from, to, a, b} with density a+b*x
+	 * @return distribution for every density, the difference d at index d+incriminating
+	 */
+	private double[][] differences(int exonerating, int incriminating, double[][][] densities) {
+		int n = exonerating + incriminating;
+		double[][] accepted = new double[densities.length][];
+		for(int r=0; r<densities.length; r++) {
+			accepted[r] = this.acceptedCounts(n, densities[r]);
+		}
+		double[][] differences = new double[densities.length][n+1];
+		double[] row = new double[n+1];
+		for(int m=0; m<=n; m++) {
+			double most = 0;
+			for(int r=0; r<densities.length; r++) {
+				most = Math.max(most, accepted[r][m]);
+			}
+			if(most < MIN_TERM) {
+				continue;
+			}
+			// hypergeometric number x of exonerating ones among m accepted, from its mode outwards
+			int low = Math.max(0, m-incriminating);
+			int high = Math.min(exonerating, m);
+			int mode = Math.max(low, Math.min(high, (int)((m+1L)*(exonerating+1L)/(n+2))));
+			row[mode] = Math.exp(this.logChoose(exonerating, mode) + this.logChoose(incriminating, m-mode) - this.logChoose(n, m));
+			int top = mode;
+			while(top < high && row[top] >= MIN_TERM) {
+				row[top+1] = row[top]*(exonerating-top)*(m-top)/((top+1.0)*(incriminating-m+top+1));
+				top++;
+			}
+			int bottom = mode;
+			while(bottom > low && row[bottom] >= MIN_TERM) {
+				row[bottom-1] = row[bottom]*bottom*(incriminating-m+bottom)/((exonerating-bottom+1.0)*(m-bottom+1));
+				bottom--;
+			}
+			for(int r=0; r<densities.length; r++) {
+				double weight = accepted[r][m];
+				if(weight < MIN_TERM) {
+					continue;
+				}
+				// difference x-(m-x)
+				double[] difference = differences[r];
+				for(int x=bottom, d=2*bottom-m+incriminating; x<=top; x++, d+=2) {
+					difference[d] += weight*row[x];
+				}
+			}
+		}
+		return differences;
+	}
+
+	/**
+	 * Distribution of the number of successes of n trials whose success chance is drawn from a density. For a
+	 * piece a+b*x of the density, the integral of the binomial probability of m successes is a difference of
+	 * binomial tails at the ends of the piece: (a*(T(n+1, m+1)) + b*(m+1)/(n+2)*T(n+2, m+2))/(n+1), with T(N, k)
+	 * the probability of at least k successes of N trials.
+	 * @param n number of trials
+	 * @param density pieces of {from, to, a, b} with density a+b*x
+	 * @return probability of every number of successes
+	 */
+	private double[] acceptedCounts(int n, double[][] density) {
+		double[][] byNumber = this.acceptedCounts.get(density);
+		if(byNumber == null) {
+			byNumber = new double[this.logFactorial.length][];
+			this.acceptedCounts.put(density, byNumber);
+		}
+		if(byNumber[n] != null) {
+			return byNumber[n];
+		}
+		double[] counts = new double[n+1];
+		for(double[] piece:density) {
+			double[] fromTail = this.tail(n+1, piece[0]);
+			double[] toTail = this.tail(n+1, piece[1]);
+			double[] fromTail2 = (piece[3] != 0) ? this.tail(n+2, piece[0]) : null;
+			double[] toTail2 = (piece[3] != 0) ? this.tail(n+2, piece[1]) : null;
+			for(int m=0; m<=n; m++) {
+				double p = piece[2]*(toTail[m+1] - fromTail[m+1]);
+				if(piece[3] != 0) {
+					p += piece[3]*(m+1.0)/(n+2)*(toTail2[m+2] - fromTail2[m+2]);
+				}
+				counts[m] += p/(n+1);
+			}
+		}
+		for(int m=0; m<=n; m++) {
+			counts[m] = Math.max(0, counts[m]);
+		}
+		byNumber[n] = counts;
+		return counts;
+	}
+
+	/**
+	 * Probability of at least k successes of n trials of success chance p, for every k from 0 to n+1
+	 */
+	private double[] tail(int n, double p) {
+		double[] probabilities = this.binomial(n, p);
+		double[] tail = new double[n+2];
+		for(int k=n; k>=0; k--) {
+			tail[k] = tail[k+1] + probabilities[k];
+		}
+		return tail;
+	}
+
+	/**
+	 * Binomial distribution, from its mode outwards
+	 * @param n number of trials
+	 * @param p success chance
+	 * @return probability of every number of successes
+	 */
+	private double[] binomial(int n, double p) {
+		double[] probabilities = new double[n+1];
+		if(p <= 0 || p >= 1) {
+			probabilities[(p <= 0) ? 0 : n] = 1;
+			return probabilities;
+		}
+		int mode = Math.min(n, (int)((n+1)*p));
+		probabilities[mode] = Math.exp(this.logChoose(n, mode) + mode*Math.log(p) + (n-mode)*Math.log1p(-p));
+		for(int k=mode; k<n && probabilities[k] >= MIN_TERM; k++) {
+			probabilities[k+1] = probabilities[k]*(n-k)/(k+1)*p/(1-p);
+		}
+		for(int k=mode; k>0 && probabilities[k] >= MIN_TERM; k--) {
+			probabilities[k-1] = probabilities[k]*k/(n-k+1)*(1-p)/p;
+		}
+		return probabilities;
+	}
+
+	/**
+	 * Distribution of the sum of two independent counts
+	 */
+	private double[] convolve(double[] a, double[] b) {
+		if(b.length == 1) {
+			return a;
+		}
+		double[] sum = new double[a.length + b.length - 1];
+		for(int i=0; i<a.length; i++) {
+			if(a[i] == 0) {
+				continue;
+			}
+			for(int j=0; j<b.length; j++) {
+				sum[i+j] += a[i]*b[j];
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * log of n choose k, n up to the number of arguments plus 2 or computed term by term above it
+	 */
+	private double logChoose(int n, int k) {
+		if(n < this.logFactorial.length) {
+			return this.logFactorial[n] - this.logFactorial[k] - this.logFactorial[n-k];
+		}
+		double log = 0;
+		for(int i=1; i<=Math.min(k, n-k); i++) {
+			log += Math.log((double)(n-Math.min(k, n-k)+i)/i);
+		}
+		return log;
+	}
+
+	/**
+	 * Uniform density on a range
+	 */
+	private static double[][] uniform(double[] range) {
+		return new double[][]{{range[0], range[1], 1/(range[1]-range[0]), 0}};
+	}
+
+	/**
+	 * Density of the mean of two independent uniform values, a trapezoid
+	 */
+	private static double[][] mean(double[] first, double[] second) {
+		double area = (first[1]-first[0])*(second[1]-second[0]);
+		double start = first[0] + second[0];
+		double end = first[1] + second[1];
+		double narrow = Math.min(first[1]-first[0], second[1]-second[0]);
+		double wide = Math.max(first[1]-first[0], second[1]-second[0]);
+		// density of the mean x is twice the density of the sum 2x
+		double[][] pieces = {
+				{start/2, (start+narrow)/2, -2*start/area, 4/area},
+				{(start+narrow)/2, (start+wide)/2, 2*narrow/area, 0},
+				{(start+wide)/2, end/2, 2*end/area, -4/area}};
+		return (narrow < wide) ? pieces : new double[][]{pieces[0], pieces[2]};
+	}
+
+	public MenuSelectionObject getMso() {
+		return mso;
+	}
+
+	/**
+	 * Probability that the jury acquits before deliberation
+	 * @return probability
+	 */
+	public double getInnocent() {
+		return innocent;
+	}
+
+	public double getGuilty() {
+		return guilty;
+	}
+
+	public double getHungJury() {
+		return hungJury;
+	}
+
+	/**
+	 * Probability of a wrong verdict before deliberation, the wrong verdict rate of SimulationStatistics
+	 * @return probability
+	 */
+	public double getWrongVerdict() {
+		return wrongVerdict;
+	}
+
+	public double getCorrectVerdict() {
+		return correctVerdict;
+	}
+
+	/**
+	 * Distribution of the score of a juror after provideArguments, exonerating minus incriminating known arguments
+	 * @param bias bias level of the juror, null for a neutral juror
+	 * @return probability of every score s at index s+getScoreOffset()
+	 */
+	public double[] getScoreDistribution(Utils.BiasLevel bias) {
+		return (bias == null) ? neutralScores : (bias == Utils.BiasLevel.LOW) ? lowBiasedScores : highBiasedScores;
+	}
+
+	public int getScoreOffset() {
+		return scoreOffset;
+	}
+
+	/**
+	 * Mean score of a juror picked at random from the jury
+	 * @return mean score before deliberation
+	 */
+	public double getMeanScore() {
+		int numOfNeutral = this.mso.getJurySize() - this.mso.getBiasedChoice();
+		int numOfLow = (this.mso.getBiasedChoice() > 0) ? this.mso.getLowBiasedChoice() : 0;
+		int numOfHigh = (this.mso.getBiasedChoice() > 0) ? this.mso.getHighBiasedChoice() : 0;
+		return (numOfNeutral*mean(this.neutralScores) + numOfLow*mean(this.lowBiasedScores)
+				+ numOfHigh*mean(this.highBiasedScores)) / (numOfNeutral + numOfLow + numOfHigh);
+	}
+
+	private double mean(double[] scores) {
+		double mean = 0;
+		for(int i=0; i<scores.length; i++) {
+			mean += (i - this.scoreOffset)*scores[i];
+		}
+		return mean;
+	}
+
+	/**
+	 * Compares the verdicts before deliberation of the simulations of a records file with the exact probabilities
+	 * @param args records file
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length != 1) {
+			System.out.println("Usage: VerdictProbabilities RECORDS");
+			return;
+		}
+		// simulations of every point: count, wrong verdicts, hung juries, sum of the scores and number of scores
+		Map<String, double[]> observed = new LinkedHashMap<String, double[]>();
+		Map<String, MenuSelectionObject> points = new LinkedHashMap<String, MenuSelectionObject>();
+		try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.US_ASCII)) {
+			String line = in.readLine();
+			while((line = in.readLine()) != null) {
+				String[] fields = line.split(",");
+				int jurySize = Integer.parseInt(fields[3]);
+				int biased = Integer.parseInt(fields[6]);
+				int lowBias = Integer.parseInt(fields[7]);
+				int highBias = Integer.parseInt(fields[8]);
+				boolean innocentSuspect = fields[9].equals("1");
+				String[] scores = fields[14].split(";");
+				Utils.VoteType voteType = Utils.VoteType.valueOf(fields[4]);
+				String key = String.join(",", fields[3], fields[4], fields[5], fields[6], fields[7], fields[8]);
+				if(!points.containsKey(key)) {
+					points.put(key, new MenuSelectionObject(jurySize, voteType, Integer.parseInt(fields[5]), biased,
+							lowBias, highBias, 0));
+					observed.put(key, new double[5]);
+				}
+				int innocentVotes = 0;
+				double[] counts = observed.get(key);
+				for(String score:scores) {
+					int s = Integer.parseInt(score);
+					innocentVotes += (s >= 0) ? 1 : 0;
+					counts[3] += s;
+					counts[4]++;
+				}
+				boolean acquitted, convicted;
+				if(voteType == Utils.VoteType.UNANIMOUS) {
+					acquitted = innocentVotes == scores.length;
+					convicted = innocentVotes == 0;
+				}
+				else {
+					acquitted = 2*innocentVotes > scores.length;
+					convicted = 2*innocentVotes < scores.length;
+				}
+				counts[0]++;
+				counts[1] += (innocentSuspect ? convicted : acquitted) ? 1 : 0;
+				counts[2] += (!acquitted && !convicted) ? 1 : 0;
+			}
+		}
+		System.out.println("point (jury,vote,arguments,biased,low,high),simulations,wrong,exact wrong,z,hung,exact hung,z,mean score,exact mean score");
+		for(Map.Entry<String, MenuSelectionObject> point:points.entrySet()) {
+			VerdictProbabilities exact = compute(point.getValue());
+			double[] counts = observed.get(point.getKey());
+			System.out.println(String.format(Locale.ROOT, "%s,%d,%.4f,%.4f,%.2f,%.4f,%.4f,%.2f,%.3f,%.3f", point.getKey(), (long)counts[0],
+					counts[1]/counts[0], exact.getWrongVerdict(), zScore(counts[1], counts[0], exact.getWrongVerdict()),
+					counts[2]/counts[0], exact.getHungJury(), zScore(counts[2], counts[0], exact.getHungJury()),
+					counts[3]/counts[4], exact.getMeanScore()));
+		}
+	}
+
+	/**
+	 * Standard score of an observed count against its exact probability
+	 */
+	private static double zScore(double count, double n, double p) {
+		double sd = Math.sqrt(n*p*(1-p));
+		return (sd > 0) ? (count - n*p)/sd : 0;
+	}
+}
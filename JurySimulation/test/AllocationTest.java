@@ -0,0 +1,62 @@
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+/**
+ * Checks that the trials of a worker allocate nothing once its compact court has grown: court reset, intake,
+ * deliberation, vote and the accumulation of the statistics, as SimulationRunner.runBatch runs them.
+ * The bytes allocated by the current thread are read from the thread MXBean for two batches of different
+ * sizes, so the statistics and buffers every batch allocates once cancel out.
+ *
+ */
+public class AllocationTest {
+	private static final int WARMUP_TRIALS = 3000;
+	private static final int SMALL_BATCH = 500;
+	private static final int LARGE_BATCH = 1500;
+	// below the smallest object, so one object per trial fails
+	private static final double MAX_BYTES_PER_TRIAL = 8;
+
+	@Test
+	public void smallUnanimousJury() {
+		assertNoAllocation(new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 1));
+	}
+
+	@Test
+	public void biasedMajorityJury() {
+		assertNoAllocation(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 6, 3, 3, 1));
+	}
+
+	@Test
+	public void skipSampledCase() {
+		assertNoAllocation(new MenuSelectionObject(12, Utils.VoteType.UNANIMOUS, 5000, 2, 1, 1, 1));
+	}
+
+	@Test
+	public void sampledBroadcast() {
+		assertNoAllocation(new MenuSelectionObject(100, Utils.VoteType.MAJORITY, 50, 20, 10, 10, 1));
+	}
+
+	private static void assertNoAllocation(MenuSelectionObject mso) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+		SimulationRunner runner = new SimulationRunner(1);
+		runner.setEngine(Utils.EngineType.COMPACT);
+		try {
+			runner.runBatch(mso, 42, 0, WARMUP_TRIALS);
+			long before = threads.getThreadAllocatedBytes(thread);
+			runner.runBatch(mso, 42, WARMUP_TRIALS, SMALL_BATCH);
+			long small = threads.getThreadAllocatedBytes(thread) - before;
+			before = threads.getThreadAllocatedBytes(thread);
+			runner.runBatch(mso, 42, WARMUP_TRIALS, LARGE_BATCH);
+			long large = threads.getThreadAllocatedBytes(thread) - before;
+			double perTrial = (double)(large - small)/(LARGE_BATCH - SMALL_BATCH);
+			assertTrue(String.format("%.1f bytes per trial", perTrial), perTrial <= MAX_BYTES_PER_TRIAL);
+		}
+		finally {
+			runner.shutdown();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of ConvergenceTarget
+ *
+ */
+public class ConvergenceTargetTest {
+
+	@Test
+	public void rareOutcomeIsNotMetAfterOneWave() {
+		// a 70 member unanimous jury without bias almost never gives a wrong verdict
+		MenuSelectionObject mso = new MenuSelectionObject(70, Utils.VoteType.UNANIMOUS, 50, 0, 0, 0, 8000);
+		SimulationStatistics stats = new SimulationStatistics(mso);
+		ConvergenceTarget target = new ConvergenceTarget(0.0005, Double.NaN);
+		for(int i=0; i<4000; i++) {
+			run(mso, i, stats);
+		}
+		assertEquals(0, stats.getWrongVerdicts());
+		assertFalse(target.isMet(stats));
+		for(int i=4000; i<8000; i++) {
+			run(mso, i, stats);
+		}
+		assertEquals(stats.getWrongVerdicts() == 0, target.isMet(stats));
+	}
+
+	@Test
+	public void halfWidthIsAFractionOrAPercentage() {
+		assertEquals(0.002, ConvergenceTarget.parseHalfWidth("0.002"), 1e-15);
+		assertEquals(0.002, ConvergenceTarget.parseHalfWidth(" 0.2% "), 1e-15);
+		assertEquals(0.015, ConvergenceTarget.parseHalfWidth("1.5 %"), 1e-15);
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void halfWidthThatIsNotANumberIsRejected() {
+		ConvergenceTarget.parseHalfWidth("tight");
+	}
+
+	@Test
+	public void emptyStatisticsAreNotMet() {
+		assertFalse(new ConvergenceTarget(1, 1).isMet(new SimulationStatistics(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 0, 0, 0, 1))));
+	}
+
+	@Test
+	public void rateWithoutTargetIsNotChecked() {
+		MenuSelectionObject mso = new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 100);
+		SimulationStatistics stats = new SimulationStatistics(mso);
+		for(int i=0; i<100; i++) {
+			run(mso, i, stats);
+		}
+		assertTrue(new ConvergenceTarget(Double.NaN, Double.NaN).isMet(stats));
+		assertFalse(new ConvergenceTarget(Double.NaN, 0.001).isMet(stats));
+	}
+
+	private static void run(MenuSelectionObject mso, int simulation, SimulationStatistics stats) {
+		Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT,
+				SimulationRandom.forSimulation(42, simulation));
+		court.provideArguments();
+		court.juryDeliberation();
+		stats.add(court, court.juryVote());
+	}
+}
@@ -0,0 +1,125 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of DeliberationTopology
+ *
+ */
+public class DeliberationTopologyTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void parsesEveryKindWithItsDefaults() throws IOException {
+		assertSame(DeliberationTopology.COMPLETE, DeliberationTopology.parse(" Complete "));
+		assertEquals("ring:1", DeliberationTopology.parse("ring").toString());
+		assertEquals("ring:3", DeliberationTopology.parse("ring:3").toString());
+		assertEquals(DeliberationTopology.Kind.SMALL_WORLD, DeliberationTopology.parse("smallworld").getKind());
+		assertEquals(DeliberationTopology.Kind.SMALL_WORLD, DeliberationTopology.parse("smallworld:4:0.3").getKind());
+		assertEquals(DeliberationTopology.Kind.SCALE_FREE, DeliberationTopology.parse("scalefree:2").getKind());
+		assertTrue(DeliberationTopology.parse("complete").isComplete());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownKindIsRejected() throws IOException {
+		DeliberationTopology.parse("star");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ringWithoutNeighborsIsRejected() throws IOException {
+		DeliberationTopology.parse("ring:0");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void edgesWithoutFileAreRejected() throws IOException {
+		DeliberationTopology.parse("edges");
+	}
+
+	@Test
+	public void ringJoinsTheNearestJurors() {
+		JuryGraph graph = build(DeliberationTopology.ring(2), 7);
+		assertEquals(14, graph.getNumOfEdges());
+		assertArrayEquals(new int[]{1, 2, 5, 6}, neighbors(graph, 0));
+		assertArrayEquals(new int[]{1, 2, 4, 5}, neighbors(graph, 3));
+	}
+
+	@Test
+	public void completeRingHasEveryPairOnce() {
+		// (n-1)/2 neighbors on each side join every pair of an odd jury
+		JuryGraph graph = build(DeliberationTopology.ring(4), 9);
+		assertEquals(36, graph.getNumOfEdges());
+		for(int j=0; j<9; j++) {
+			assertEquals(8, graph.getRowEnd(j) - graph.getRowStart(j));
+		}
+	}
+
+	@Test
+	public void randomGraphsHaveTheirDegrees() {
+		SimulationRandom random = new SimulationRandom(5);
+		JuryGraph graph = new JuryGraph();
+		DeliberationTopology.scaleFree(2).build(50, random, graph);
+		// a triangle, then 2 distinct edges per new juror
+		assertEquals(3 + 2*47, graph.getNumOfEdges());
+		DeliberationTopology.smallWorld(3, 0.2).build(50, random, graph);
+		// rewired edges that repeat one are dropped
+		assertTrue(graph.getNumOfEdges() <= 150 && graph.getNumOfEdges() > 130);
+		assertSymmetric(graph);
+	}
+
+	@Test
+	public void edgeListSkipsCommentsAndJurorsOutsideTheJury() throws IOException {
+		Path path = folder.newFile("jury.txt").toPath();
+		Files.write(path, Arrays.asList("# pairs", "0 1", "1,2", "", "2 9  # beyond a jury of 4", "3 0"), StandardCharsets.UTF_8);
+		DeliberationTopology topology = DeliberationTopology.parse("edges:" + path);
+		assertEquals(DeliberationTopology.Kind.EDGE_LIST, topology.getKind());
+		JuryGraph graph = build(topology, 4);
+		assertEquals(3, graph.getNumOfEdges());
+		assertArrayEquals(new int[]{1, 3}, neighbors(graph, 0));
+		assertArrayEquals(new int[]{1}, neighbors(graph, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void edgeWithOneEndIsRejected() throws IOException {
+		Path path = folder.newFile("bad.txt").toPath();
+		Files.write(path, Arrays.asList("0 1", "2"), StandardCharsets.UTF_8);
+		DeliberationTopology.edgeList(path.toString());
+	}
+
+	private static JuryGraph build(DeliberationTopology topology, int jurors) {
+		JuryGraph graph = new JuryGraph();
+		topology.build(jurors, new SimulationRandom(1), graph);
+		return graph;
+	}
+
+	static int[] neighbors(JuryGraph graph, int juror) {
+		int[] neighbors = new int[graph.getRowEnd(juror) - graph.getRowStart(juror)];
+		for(int i=0; i<neighbors.length; i++) {
+			neighbors[i] = graph.getNeighbor(graph.getRowStart(juror) + i);
+		}
+		return neighbors;
+	}
+
+	static void assertSymmetric(JuryGraph graph) {
+		for(int a=0; a<graph.getNumOfJurors(); a++) {
+			for(int b:neighbors(graph, a)) {
+				assertTrue(a != b);
+				assertTrue(Arrays.binarySearch(neighbors(graph, b), a) >= 0);
+			}
+		}
+	}
+
+	private static void assertArrayEquals(int[] expected, int[] actual) {
+		org.junit.Assert.assertArrayEquals(expected, actual);
+	}
+}
@@ -0,0 +1,140 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks that the object based Court and the array based CompactCourt give the same trials when they draw
+ * from the same random streams: verdicts, juror scores before and after deliberation, spreads and the shares
+ * of the argument types.
+ *
+ */
+public class EngineEquivalenceTest {
+	private static final long MASTER_SEED = 42;
+	private static final int SIMULATIONS = 200;
+
+	@Test
+	public void smallUnanimousJury() {
+		assertSameTrials(new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, SIMULATIONS), null);
+	}
+
+	@Test
+	public void biasedMajorityJury() {
+		assertSameTrials(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 6, 2, 4, SIMULATIONS), null);
+	}
+
+	@Test
+	public void skipSampledCase() {
+		// cases of 1000 arguments or more are taken in by skip sampling
+		assertSameTrials(new MenuSelectionObject(12, Utils.VoteType.UNANIMOUS, 1200, 2, 1, 1, 20), null);
+	}
+
+	@Test
+	public void sampledBroadcast() {
+		// juries of 64 jurors or more find the listeners with ListenerSampler
+		assertSameTrials(new MenuSelectionObject(80, Utils.VoteType.MAJORITY, 50, 10, 5, 5, 50), null);
+	}
+
+	@Test
+	public void sparseTopology() {
+		assertSameTrials(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, SIMULATIONS),
+				DeliberationTopology.ring(2));
+		assertSameTrials(new MenuSelectionObject(30, Utils.VoteType.MAJORITY, 50, 0, 0, 0, 50),
+				DeliberationTopology.smallWorld(3, 0.2));
+	}
+
+	@Test
+	public void reusedCompactCourt() {
+		// one court reset for every trial, as the worker threads run them
+		MenuSelectionObject[] points = {
+			new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 6, 2, 4, 1),
+			new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 1),
+			new MenuSelectionObject(80, Utils.VoteType.MAJORITY, 500, 4, 2, 2, 1),
+		};
+		CompactCourt arena = new CompactCourt();
+		for(int i=0; i<60; i++) {
+			MenuSelectionObject mso = points[i % points.length];
+			arena.reset(SimulationRandom.streamSeed(MASTER_SEED, i), mso);
+			Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.OBJECT,
+					SimulationRandom.forSimulation(MASTER_SEED, i));
+			assertSameTrial(court, arena, "trial " + i);
+		}
+	}
+
+	private static void assertSameTrials(MenuSelectionObject mso, DeliberationTopology topology) {
+		for(int i=0; i<mso.getNumOfSimulations(); i++) {
+			Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.OBJECT,
+					SimulationRandom.forSimulation(MASTER_SEED, i));
+			Simulation compact = SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT,
+					SimulationRandom.forSimulation(MASTER_SEED, i));
+			court.setTopology(topology);
+			compact.setTopology(topology);
+			assertSameTrial(court, compact, "simulation " + i);
+		}
+	}
+
+	private static void assertSameTrial(Simulation court, Simulation compact, String trial) {
+		assertEquals(trial, court.isCorrectVerdict(), compact.isCorrectVerdict());
+		assertEquals(trial, court.getNumOfJurors(), compact.getNumOfJurors());
+		// claims are only known to the biased jurors they were assigned to before the case is presented
+		int assignedClaims = assignedClaims(court);
+		assertEquals(trial, assignedClaims, assignedClaims(compact));
+		court.provideArguments();
+		compact.provideArguments();
+		assertArrayEquals(trial + " scores before deliberation", scores(court), scores(compact));
+		court.juryDeliberation();
+		compact.juryDeliberation();
+		assertArrayEquals(trial + " scores after deliberation", scores(court), scores(compact));
+		assertEquals(trial, court.juryVote(), compact.juryVote());
+		assertEquals(trial, court.getTotalDeliberations(), compact.getTotalDeliberations());
+		assertEquals(trial, court.getTotalClaimsSpread(), compact.getTotalClaimsSpread());
+		assertEquals(trial, court.getTotalNonClaimsSpread(), compact.getTotalNonClaimsSpread());
+		assertEquals(trial, court.getAvgClaimSpread(), compact.getAvgClaimSpread(), 0);
+		assertEquals(trial, court.getAvgNonClaimsSpread(), compact.getAvgNonClaimsSpread(), 0);
+		double[] courtShares = new double[Utils.ArgumentType.values().length];
+		double[] compactShares = new double[courtShares.length];
+		court.fillTrialArgumentTypeDistribution(courtShares);
+		compact.fillTrialArgumentTypeDistribution(compactShares);
+		assertArrayEquals(trial + " trial shares", courtShares, compactShares, 1e-9);
+		int arguments = court.getNumOfArgumentIds() - claims(court);
+		assertEquals(trial + " claim share", 100.0*assignedClaims/(assignedClaims+arguments),
+				courtShares[Utils.ArgumentType.CLAIM.ordinal()], 1e-9);
+		assertEquals(trial + " shares total", 100, courtShares[0] + courtShares[1] + courtShares[2], 1e-9);
+		assertEquals(trial, court.getTrialArgumentTypeDistribution(), compact.getTrialArgumentTypeDistribution());
+		court.fillJuryArgumentTypeDistribution(courtShares);
+		compact.fillJuryArgumentTypeDistribution(compactShares);
+		assertArrayEquals(trial + " jury shares", courtShares, compactShares, 1e-9);
+	}
+
+	private static int claims(Simulation simulation) {
+		int claims = 0;
+		for(int a=0; a<simulation.getNumOfArgumentIds(); a++) {
+			if(simulation.getArgumentType(a) == Utils.ArgumentType.CLAIM) {
+				claims++;
+			}
+		}
+		return claims;
+	}
+
+	private static int assignedClaims(Simulation simulation) {
+		int assigned = 0;
+		for(int a=0; a<simulation.getNumOfArgumentIds(); a++) {
+			boolean known = false;
+			for(int j=0; !known && j<simulation.getNumOfJurors(); j++) {
+				known = simulation.jurorKnows(j, a);
+			}
+			if(known && simulation.getArgumentType(a) == Utils.ArgumentType.CLAIM) {
+				assigned++;
+			}
+		}
+		return assigned;
+	}
+
+	private static int[] scores(Simulation simulation) {
+		int[] scores = new int[simulation.getNumOfJurors()];
+		for(int j=0; j<scores.length; j++) {
+			scores[j] = simulation.getJurorScore(j);
+		}
+		return scores;
+	}
+}
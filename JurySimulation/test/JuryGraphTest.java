@@ -0,0 +1,64 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of JuryGraph
+ *
+ */
+public class JuryGraphTest {
+
+	@Test
+	public void buildDropsSelfLoopsAndRepeatedEdges() {
+		JuryGraph graph = new JuryGraph();
+		graph.clear(5);
+		graph.addEdge(0, 3);
+		graph.addEdge(3, 0);
+		graph.addEdge(2, 2);
+		graph.addEdge(4, 1);
+		graph.addEdge(0, 1);
+		graph.addEdge(0, 3);
+		assertEquals(6, graph.getNumOfAddedEdges());
+		graph.build();
+		assertEquals(3, graph.getNumOfEdges());
+		assertArrayEquals(new int[]{1, 3}, DeliberationTopologyTest.neighbors(graph, 0));
+		assertArrayEquals(new int[]{0, 4}, DeliberationTopologyTest.neighbors(graph, 1));
+		assertArrayEquals(new int[]{}, DeliberationTopologyTest.neighbors(graph, 2));
+		assertArrayEquals(new int[]{0}, DeliberationTopologyTest.neighbors(graph, 3));
+		assertArrayEquals(new int[]{1}, DeliberationTopologyTest.neighbors(graph, 4));
+		DeliberationTopologyTest.assertSymmetric(graph);
+	}
+
+	@Test
+	public void clearedGraphIsRebuiltForAnotherJury() {
+		JuryGraph graph = new JuryGraph();
+		graph.clear(40);
+		for(int j=1; j<40; j++) {
+			graph.addEdge(0, j);
+		}
+		graph.build();
+		assertEquals(39, graph.getNumOfEdges());
+		// a smaller jury reuses the arrays, nothing of the star is left
+		graph.clear(3);
+		graph.addEdge(1, 2);
+		graph.build();
+		assertEquals(3, graph.getNumOfJurors());
+		assertEquals(1, graph.getNumOfEdges());
+		assertArrayEquals(new int[]{}, DeliberationTopologyTest.neighbors(graph, 0));
+		assertArrayEquals(new int[]{2}, DeliberationTopologyTest.neighbors(graph, 1));
+		assertEquals(1, graph.getAddedEdgeEnd(0, 0));
+		assertEquals(2, graph.getAddedEdgeEnd(0, 1));
+	}
+
+	@Test
+	public void emptyGraph() {
+		JuryGraph graph = new JuryGraph();
+		graph.clear(4);
+		graph.build();
+		assertEquals(0, graph.getNumOfEdges());
+		for(int j=0; j<4; j++) {
+			assertEquals(graph.getRowStart(j), graph.getRowEnd(j));
+		}
+	}
+}
@@ -0,0 +1,128 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks that ListenerSampler selects every juror independently with its own probability, as one draw per
+ * listener does, and that large juries reach the same verdict and spread rates with either path.
+ * Streams are seeded, so the tests are deterministic; differences are allowed up to MAX_Z standard errors.
+ *
+ */
+public class ListenerSamplerTest {
+	private static final double MAX_Z = 4.5;
+	private static final int SAMPLES = 200000;
+
+	@Test
+	public void everyJurorIsSelectedWithItsProbability() {
+		// two types over 80 jurors: certain (band 0), never, below the upper bound of the last band (0.9^47),
+		// at a band bound and spread over the bands in between
+		int jurors = 80, types = 2;
+		double[] probability = new double[jurors*types];
+		for(int j=0; j<jurors; j++) {
+			probability[j*types] = (j+0.5)/jurors;
+			probability[j*types+1] = Math.pow(0.9, j*0.75);
+		}
+		// type 0 of jurors 0 to 3, type 1 of juror 0
+		probability[0] = 1;
+		probability[2] = 0;
+		probability[4] = 0.002;
+		probability[6] = 0.9;
+		probability[1] = 0.001;
+		ListenerSampler sampler = new ListenerSampler(probability, jurors, types);
+		SimulationRandom sampled = new SimulationRandom(1);
+		SimulationRandom perListener = new SimulationRandom(2);
+		int[] selected = new int[jurors];
+		for(int t=0; t<types; t++) {
+			long[] sampledCount = new long[jurors];
+			long[] perListenerCount = new long[jurors];
+			// the number of selected jurors of a sample, its variance shows whether the jurors are independent
+			OnlineStatistic sampledSize = new OnlineStatistic(0, jurors, jurors);
+			OnlineStatistic perListenerSize = new OnlineStatistic(0, jurors, jurors);
+			for(int s=0; s<SAMPLES; s++) {
+				int count = sampler.sample(t, sampled, selected);
+				boolean[] seen = new boolean[jurors];
+				for(int i=0; i<count; i++) {
+					assertTrue("juror selected twice", !seen[selected[i]]);
+					seen[selected[i]] = true;
+					sampledCount[selected[i]]++;
+				}
+				sampledSize.add(count);
+				int size = 0;
+				for(int j=0; j<jurors; j++) {
+					if(perListener.nextDouble() < probability[j*types+t]) {
+						perListenerCount[j]++;
+						size++;
+					}
+				}
+				perListenerSize.add(size);
+			}
+			double mean = 0, variance = 0;
+			for(int j=0; j<jurors; j++) {
+				double p = probability[j*types+t];
+				mean += p;
+				variance += p*(1-p);
+				assertProportion("type " + t + " juror " + j, p, sampledCount[j]);
+				assertProportion("type " + t + " juror " + j + " per listener", p, perListenerCount[j]);
+			}
+			if(t == 0) {
+				assertEquals("certain juror", SAMPLES, sampledCount[0]);
+				assertEquals("juror that never accepts", 0, sampledCount[1]);
+			}
+			assertClose("mean selected", mean, sampledSize.getMean(), Math.sqrt(variance/SAMPLES));
+			assertClose("mean selected per listener", sampledSize.getMean(), perListenerSize.getMean(),
+					Math.sqrt(2*variance/SAMPLES));
+			// the variance of a sum of independent draws, estimated within a few percent
+			assertEquals("variance of selected", variance, sampledSize.getVariance(), 0.02*variance);
+			assertEquals("variance of selected per listener", sampledSize.getVariance(), perListenerSize.getVariance(),
+					0.03*variance);
+		}
+	}
+
+	@Test
+	public void largeJuryMatchesPerListenerDeliberation() {
+		// a ring of (n-1)/2 neighbors on each side joins every pair of jurors once, so the same complete jury
+		// deliberates with one draw per listener
+		int jurors = 65, trials = 3000;
+		MenuSelectionObject mso = new MenuSelectionObject(jurors, Utils.VoteType.MAJORITY, 25, 30, 15, 15, trials);
+		SimulationStatistics sampled = run(mso, null, 1);
+		SimulationStatistics perListener = run(mso, DeliberationTopology.ring((jurors-1)/2), 2);
+		assertRate("wrong verdicts", sampled.getWrongVerdicts(), perListener.getWrongVerdicts(), trials);
+		assertRate("hung juries", sampled.getHungJuries(), perListener.getHungJuries(), trials);
+		assertRate("correct verdicts", sampled.getCorrectVerdicts(), perListener.getCorrectVerdicts(), trials);
+		assertMean("deliberations", sampled.getDeliberations(), perListener.getDeliberations());
+		assertMean("claim spread", sampled.getClaimSpread(), perListener.getClaimSpread());
+		assertMean("non-claim spread", sampled.getNonClaimSpread(), perListener.getNonClaimSpread());
+	}
+
+	private static SimulationStatistics run(MenuSelectionObject mso, DeliberationTopology topology, long masterSeed) {
+		SimulationStatistics stats = new SimulationStatistics(mso);
+		for(int i=0; i<mso.getNumOfSimulations(); i++) {
+			Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT,
+					SimulationRandom.forSimulation(masterSeed, i));
+			court.setTopology(topology);
+			court.provideArguments();
+			court.juryDeliberation();
+			stats.add(court, court.juryVote());
+		}
+		return stats;
+	}
+
+	private static void assertProportion(String message, double p, long count) {
+		assertClose(message, p, (double)count/SAMPLES, Math.sqrt(p*(1-p)/SAMPLES));
+	}
+
+	private static void assertRate(String message, int a, int b, int trials) {
+		double p = (a + b)/(2.0*trials);
+		assertClose(message, (double)a/trials, (double)b/trials, Math.sqrt(2*p*(1-p)/trials));
+	}
+
+	private static void assertMean(String message, OnlineStatistic a, OnlineStatistic b) {
+		assertClose(message, a.getMean(), b.getMean(),
+				Math.sqrt(a.getVariance()/a.getCount() + b.getVariance()/b.getCount()));
+	}
+
+	private static void assertClose(String message, double expected, double actual, double standardError) {
+		assertEquals(message, expected, actual, Math.max(MAX_Z*standardError, 1e-12));
+	}
+}
@@ -0,0 +1,109 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests of OnlineStatistic
+ *
+ */
+public class OnlineStatisticTest {
+
+	@Test
+	public void mergedStatisticEqualsOneFedWithEveryValue() {
+		SimulationRandom random = new SimulationRandom(11);
+		OnlineStatistic all = new OnlineStatistic(0, 10, 20);
+		OnlineStatistic first = new OnlineStatistic(0, 10, 20);
+		OnlineStatistic second = new OnlineStatistic(0, 10, 20);
+		for(int i=0; i<5000; i++) {
+			// values outside the histogram too
+			double value = 12*random.nextDouble() - 1 + ((i < 1000) ? 3 : 0);
+			all.add(value);
+			((i < 1000) ? first : second).add(value);
+		}
+		first.merge(second);
+		assertSame(all, first);
+	}
+
+	@Test
+	public void mergeWithEmptyStatistics() {
+		OnlineStatistic values = new OnlineStatistic(0, 10, 5);
+		values.add(2);
+		values.add(7);
+		OnlineStatistic empty = new OnlineStatistic(0, 10, 5);
+		empty.merge(values);
+		assertSame(values, empty);
+		values.merge(new OnlineStatistic(0, 10, 5));
+		assertSame(empty, values);
+		assertEquals(12.5, values.getVariance(), 1e-12);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void mergeOfOtherHistogramsIsRejected() {
+		new OnlineStatistic(0, 10, 5).merge(new OnlineStatistic(0, 10, 6));
+	}
+
+	@Test
+	public void writtenStatisticIsReadBack() throws IOException {
+		OnlineStatistic statistic = new OnlineStatistic(-5, 5, 7);
+		for(int i=0; i<100; i++) {
+			statistic.add(Math.sin(i)*6);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		statistic.writeTo(new DataOutputStream(bytes));
+		OnlineStatistic read = OnlineStatistic.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(statistic.getMean(), read.getMean(), 0);
+		assertEquals(statistic.getVariance(), read.getVariance(), 0);
+		assertSame(statistic, read);
+	}
+
+	/**
+	 * Checks that two statistics hold the same values, up to the rounding of their sums
+	 */
+	static void assertSame(OnlineStatistic expected, OnlineStatistic actual) {
+		assertEquals(expected.getCount(), actual.getCount());
+		assertEquals(expected.getMean(), actual.getMean(), 1e-12);
+		assertEquals(expected.getVariance(), actual.getVariance(), 1e-9*Math.max(1, expected.getVariance()));
+		assertEquals(expected.getMin(), actual.getMin(), 0);
+		assertEquals(expected.getMax(), actual.getMax(), 0);
+		assertEquals(expected.getNumOfBuckets(), actual.getNumOfBuckets());
+		for(int b=0; b<expected.getNumOfBuckets(); b++) {
+			assertEquals(expected.getBucketLow(b), actual.getBucketLow(b), 0);
+			assertEquals(expected.getBucketCount(b), actual.getBucketCount(b));
+		}
+	}
+
+	@Test
+	public void proportionWithoutSuccessesHasItsUpperBoundAsHalfWidth() {
+		// 0 of 4000: the upper bound is about 3.84/4000, above a target of 5e-4
+		double halfWidth = OnlineStatistic.proportionHalfWidth(0, 4000);
+		assertEquals(OnlineStatistic.proportionBound(0, 4000, 1), halfWidth, 0);
+		assertEquals(0, OnlineStatistic.proportionBound(0, 4000, -1), 0);
+		assertTrue(halfWidth > 5e-4);
+		assertTrue(halfWidth < 1e-3);
+		assertEquals(halfWidth, OnlineStatistic.proportionHalfWidth(4000, 4000), 1e-15);
+	}
+
+	@Test
+	public void proportionHalfWidthApproachesTheNormalApproximation() {
+		long trials = 1000000;
+		double normal = OnlineStatistic.Z_95*Math.sqrt(0.3*0.7/trials);
+		assertEquals(normal, OnlineStatistic.proportionHalfWidth(300000, trials), normal*1e-3);
+	}
+
+	@Test
+	public void proportionBoundsContainTheProportion() {
+		for(long successes=0; successes<=50; successes++) {
+			double p = successes/50.0;
+			assertTrue(OnlineStatistic.proportionBound(successes, 50, -1) <= p);
+			assertTrue(OnlineStatistic.proportionBound(successes, 50, 1) >= p);
+		}
+		assertTrue(Double.isNaN(OnlineStatistic.proportionHalfWidth(0, 0)));
+	}
+}
@@ -0,0 +1,144 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Checks that the progress endpoint reports the simulations of a run as the runner returns them
+ *
+ */
+public class ProgressServerTest {
+
+	@Test
+	public void progressOfAFinishedSweepMatchesItsStatistics() throws Exception {
+		List<MenuSelectionObject> points = Arrays.asList(
+				new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 1500),
+				new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 700));
+		RunProgress progress = new RunProgress();
+		ProgressServer server = new ProgressServer(0, progress);
+		SimulationRunner runner = new SimulationRunner(3);
+		try {
+			String before = fetch(server.getPort());
+			assertEquals(0, field(before, "completed"));
+			assertEquals(0, field(before, "total"));
+			runner.setProgress(progress);
+			List<SimulationStatistics> statistics = runner.runSweep(points, 42);
+			long simulations = 0, wrong = 0, hung = 0, correct = 0;
+			double deliberations = 0;
+			for(SimulationStatistics point:statistics) {
+				simulations += point.getNumOfSimulations();
+				wrong += point.getWrongVerdicts();
+				hung += point.getHungJuries();
+				correct += point.getCorrectVerdicts();
+				deliberations += point.getAvgDeliberations()*point.getNumOfSimulations();
+			}
+			String json = fetch(server.getPort());
+			assertTrue(json, json.contains("\"running\": false"));
+			assertEquals(2200, simulations);
+			assertEquals(simulations, field(json, "completed"));
+			assertEquals(simulations, field(json, "total"));
+			assertEquals(0, field(json, "resumed"));
+			assertEquals(wrong, field(json, "wrongVerdicts"));
+			assertEquals(hung, field(json, "hungJuries"));
+			assertEquals(correct, field(json, "correctVerdicts"));
+			assertEquals(deliberations/simulations, Double.parseDouble(value(json, "avgDeliberations")), 1e-4);
+			assertEquals("0", value(json, "etaSeconds"));
+			// every worker thread of the runner reports its own share
+			long byWorkers = 0;
+			for(RunProgress.Worker worker:progress.getWorkers()) {
+				assertFalse(worker.getName(), worker.isBusy());
+				byWorkers += worker.getCompleted();
+			}
+			assertEquals(simulations, byWorkers);
+		}
+		finally {
+			runner.shutdown();
+			server.stop();
+		}
+	}
+
+	@Test
+	public void resumedSimulationsCountAsCompleted() throws Exception {
+		MenuSelectionObject mso = new MenuSelectionObject(6, Utils.VoteType.MAJORITY, 25, 0, 0, 0, 300);
+		SimulationRunner runner = new SimulationRunner(1);
+		SimulationStatistics done = runner.run(mso, 7);
+		runner.shutdown();
+		RunProgress progress = new RunProgress();
+		ProgressServer server = new ProgressServer(0, progress);
+		try {
+			progress.begin(1000, done);
+			String json = fetch(server.getPort());
+			assertTrue(json, json.contains("\"running\": true"));
+			assertEquals(300, field(json, "completed"));
+			assertEquals(300, field(json, "resumed"));
+			assertEquals(1000, field(json, "total"));
+			assertEquals(done.getWrongVerdicts(), field(json, "wrongVerdicts"));
+			assertEquals(done.getHungJuries(), field(json, "hungJuries"));
+			// nothing has run yet, so there is no throughput to estimate the time left from
+			assertEquals("null", value(json, "etaSeconds"));
+		}
+		finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void utilizationCountsFinishedAndRunningBatches() {
+		RunProgress.Worker worker = new RunProgress().newWorker("worker");
+		long since = System.nanoTime();
+		assertFalse(worker.isBusy());
+		assertEquals(0, worker.getUtilization(since, since), 0);
+		worker.beginBatch();
+		assertTrue(worker.isBusy());
+		long now = System.nanoTime() + 1000000;
+		double running = worker.getUtilization(since, now);
+		assertTrue(String.valueOf(running), running > 0 && running <= 1);
+		worker.endBatch();
+		assertFalse(worker.isBusy());
+		// long after the batch the worker has been idle most of the time
+		double idle = worker.getUtilization(since, System.nanoTime() + 1000000000L);
+		assertTrue(String.valueOf(idle), idle > 0 && idle < 0.01);
+	}
+
+	private static String fetch(int port) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/progress").openConnection();
+		try {
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(connection.getContentType().startsWith("application/json"));
+			try (InputStream in = connection.getInputStream()) {
+				ByteArrayOutputStream body = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				for(int n; (n = in.read(buffer)) > 0;) {
+					body.write(buffer, 0, n);
+				}
+				return new String(body.toByteArray(), StandardCharsets.UTF_8);
+			}
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+
+	private static long field(String json, String name) {
+		return Long.parseLong(value(json, name));
+	}
+
+	private static String value(String json, String name) {
+		// the top level fields come before the workers, whose fields share some of their names
+		Matcher matcher = Pattern.compile("\"" + name + "\": ([^,}]+)").matcher(json.substring(0, json.indexOf("\"workers\"")));
+		assertTrue(json, matcher.find());
+		return matcher.group(1);
+	}
+}
@@ -0,0 +1,329 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Checks the events both engines fire, their order and counts, and that nothing is fired without a listener
+ *
+ */
+public class SimulationListenerTest {
+	private static final long MASTER_SEED = 17;
+	// the vector engine needs its own module, its runner is tested there
+	private static final Set<Utils.EngineType> RUNNER_ENGINES = EnumSet.of(Utils.EngineType.OBJECT, Utils.EngineType.COMPACT);
+
+	@Test
+	public void bothEnginesFireTheSameEventsInOrder() {
+		assertSameEvents(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 40), null);
+		// juries of 64 jurors or more find the listeners with ListenerSampler
+		assertSameEvents(new MenuSelectionObject(70, Utils.VoteType.UNANIMOUS, 40, 0, 0, 0, 10), null);
+		assertSameEvents(new MenuSelectionObject(20, Utils.VoteType.MAJORITY, 50, 0, 0, 0, 20), DeliberationTopology.ring(2));
+	}
+
+	@Test
+	public void runnerFiresOneTrialOfEventsPerSimulation() throws Exception {
+		MenuSelectionObject mso = new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 300);
+		for(Utils.EngineType engine:RUNNER_ENGINES) {
+			SimulationRunner runner = new SimulationRunner(1);
+			runner.setEngine(engine);
+			Recorder recorder = new Recorder();
+			runner.setListener(recorder);
+			SimulationStatistics stats = runner.run(mso, MASTER_SEED);
+			// the runner fires caseGenerated, the simulation the rest
+			List<List<String>> trials = recorder.trials();
+			assertEquals(engine.name(), mso.getNumOfSimulations(), trials.size());
+			int hung = 0;
+			int deliberations = 0;
+			for(List<String> trial:trials) {
+				deliberations += assertTrialOrder(trial);
+				String vote = trial.get(trial.size()-1);
+				hung += vote.equals("vote hung jury") ? 1 : 0;
+			}
+			assertEquals(engine.name(), stats.getHungJuries(), hung);
+			assertEquals(engine.name(), stats.getDeliberations().getMean()*stats.getNumOfSimulations(), deliberations, 1e-6);
+			runner.shutdown();
+		}
+	}
+
+	@Test
+	public void nothingIsFiredWithoutListener() throws Exception {
+		MenuSelectionObject mso = new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 20);
+		for(Utils.EngineType engine:RUNNER_ENGINES) {
+			Recorder recorder = new Recorder();
+			Simulation court = SimulationRunner.createSimulation(mso, engine, SimulationRandom.forSimulation(MASTER_SEED, 0));
+			court.setListener(recorder);
+			court.setListener(null);
+			court.provideArguments();
+			court.juryDeliberation();
+			court.juryVote();
+			assertEquals(engine.name(), Collections.emptyList(), recorder.events);
+			// a runner that had a listener fires nothing once it is removed
+			SimulationRunner runner = new SimulationRunner(2);
+			runner.setEngine(engine);
+			runner.setListener(recorder);
+			runner.setListener(null);
+			runner.run(mso, MASTER_SEED);
+			runner.shutdown();
+			assertEquals(engine.name(), Collections.emptyList(), recorder.events);
+		}
+	}
+
+	@Test
+	public void listenerDoesNotChangeTheTrial() {
+		MenuSelectionObject mso = new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 1);
+		for(Utils.EngineType engine:Utils.EngineType.values()) {
+			for(int i=0; i<20; i++) {
+				Simulation heard = SimulationRunner.createSimulation(mso, engine, SimulationRandom.forSimulation(MASTER_SEED, i));
+				Simulation unheard = SimulationRunner.createSimulation(mso, engine, SimulationRandom.forSimulation(MASTER_SEED, i));
+				heard.setListener(new Recorder());
+				assertEquals(run(heard), run(unheard));
+				assertEquals(heard.getTotalDeliberations(), unheard.getTotalDeliberations());
+			}
+		}
+	}
+
+	@Test
+	public void combinedListenersHearEveryEventFirstThenSecond() {
+		Recorder recorder = new Recorder();
+		assertNull(SimulationListener.combine(null, null));
+		assertSame(recorder, SimulationListener.combine(null, recorder));
+		assertSame(recorder, SimulationListener.combine(recorder, null));
+		List<String> order = new ArrayList<String>();
+		SimulationListener combined = SimulationListener.combine(new Tagged("first", order), new Tagged("second", order));
+		Simulation court = SimulationRunner.createSimulation(new MenuSelectionObject(6, Utils.VoteType.MAJORITY, 25, 0, 0, 0, 1),
+				Utils.EngineType.COMPACT, SimulationRandom.forSimulation(MASTER_SEED, 0));
+		court.setListener(SimulationListener.combine(combined, recorder));
+		combined.caseGenerated(court);
+		recorder.caseGenerated(court);
+		run(court);
+		assertEquals(2*recorder.events.size(), order.size());
+		for(int e=0; e<order.size(); e+=2) {
+			assertEquals("first " + recorder.events.get(e/2), order.get(e));
+			assertEquals("second " + recorder.events.get(e/2), order.get(e+1));
+		}
+	}
+
+	@Test
+	public void consolePrintsTheScoresBeforeAndAfterDeliberation() {
+		Simulation court = SimulationRunner.createSimulation(new MenuSelectionObject(6, Utils.VoteType.MAJORITY, 25, 0, 0, 0, 1),
+				Utils.EngineType.OBJECT, SimulationRandom.forSimulation(MASTER_SEED, 3));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = System.out;
+		String verdict;
+		try {
+			System.setOut(new PrintStream(bytes, true));
+			ConsoleListener console = new ConsoleListener();
+			court.setListener(console);
+			console.caseGenerated(court);
+			verdict = run(court);
+		}
+		finally {
+			System.setOut(out);
+		}
+		List<String> lines = Arrays.asList(bytes.toString().split("\\R"));
+		assertTrue(lines.contains("Suspect is innocent: " + court.isCorrectVerdict()));
+		assertEquals(lines.indexOf("BEFORE DELIBERATION") + 7, lines.indexOf("Number of deliberations: " + court.getTotalDeliberations()));
+		assertTrue(lines.contains("Number of claims spread in deliberation: " + court.getTotalClaimsSpread()));
+		int after = lines.indexOf("AFTER DELIBERATION");
+		for(int j=0; j<6; j++) {
+			assertEquals("Juror " + (j+1) + " score: " + court.getJurorScore(j), lines.get(after + 1 + j));
+		}
+		assertEquals(verdict, lines.get(lines.size()-1));
+	}
+
+	private static void assertSameEvents(MenuSelectionObject mso, DeliberationTopology topology) {
+		for(int i=0; i<mso.getNumOfSimulations(); i++) {
+			List<String> events = null;
+			for(Utils.EngineType engine:Utils.EngineType.values()) {
+				Simulation court = SimulationRunner.createSimulation(mso, engine, SimulationRandom.forSimulation(MASTER_SEED, i));
+				court.setTopology(topology);
+				Recorder recorder = new Recorder();
+				court.setListener(recorder);
+				recorder.caseGenerated(court);
+				run(court);
+				assertEquals(court.getTotalDeliberations(), assertTrialOrder(recorder.events));
+				int accepted = 0;
+				for(String event:recorder.events) {
+					accepted += event.startsWith("accepted ") ? 1 : 0;
+				}
+				assertEquals(court.getTotalClaimsSpread() + court.getTotalNonClaimsSpread(), accepted);
+				if(events != null) {
+					assertEquals("simulation " + i, events, recorder.events);
+				}
+				events = recorder.events;
+			}
+		}
+	}
+
+	/**
+	 * Checks the order of the events of one trial: the case, the arguments, every round with its presentations
+	 * each after the acceptances of its argument, the end of deliberation and the vote
+	 * @return number of rounds
+	 */
+	private static int assertTrialOrder(List<String> events) {
+		assertEquals("case", events.get(0));
+		assertEquals("provided", events.get(1));
+		int round = 1;
+		int accepted = 0;
+		int e = 2;
+		for(; !events.get(e).equals("deliberated"); e++) {
+			String[] event = events.get(e).split(" ");
+			if(event[0].equals("round")) {
+				assertEquals(0, accepted);
+				assertEquals(round++, Integer.parseInt(event[1]));
+				continue;
+			}
+			assertEquals(round, Integer.parseInt(event[1]));
+			if(event[0].equals("accepted")) {
+				accepted++;
+			}
+			else {
+				assertEquals("presented", event[0]);
+				// acceptances of one argument come right before its presentation
+				assertEquals(accepted, Integer.parseInt(event[4]));
+				for(int a=1; a<=accepted; a++) {
+					assertEquals(event[3], events.get(e-a).split(" ")[3]);
+				}
+				accepted = 0;
+			}
+		}
+		assertEquals(0, accepted);
+		assertEquals(e+2, events.size());
+		assertTrue(events.get(e+1).startsWith("vote "));
+		return round-1;
+	}
+
+	private static String run(Simulation simulation) {
+		simulation.provideArguments();
+		simulation.juryDeliberation();
+		return simulation.juryVote();
+	}
+
+	/**
+	 * Listener that writes every event down as a line
+	 */
+	private static class Recorder implements SimulationListener {
+		private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public void caseGenerated(Simulation simulation) {
+			this.events.add("case");
+		}
+
+		@Override
+		public void argumentsProvided(Simulation simulation) {
+			this.events.add("provided");
+		}
+
+		@Override
+		public void argumentAccepted(Simulation simulation, int round, int listener, int argument) {
+			this.events.add("accepted " + round + " " + listener + " " + argument);
+		}
+
+		@Override
+		public void argumentPresented(Simulation simulation, int round, int speaker, int argument,
+				Utils.ArgumentType type, boolean innocent, int accepted) {
+			this.events.add("presented " + round + " " + speaker + " " + argument + " " + accepted + " " + type + " " + innocent);
+		}
+
+		@Override
+		public void roundCompleted(Simulation simulation, int round) {
+			this.events.add("round " + round);
+		}
+
+		@Override
+		public void deliberationCompleted(Simulation simulation) {
+			this.events.add("deliberated");
+		}
+
+		@Override
+		public void voteCast(Simulation simulation, String verdict) {
+			this.events.add("vote " + verdict);
+		}
+
+		/**
+		 * Splits the events of a runner with one worker thread into trials
+		 */
+		private List<List<String>> trials() {
+			List<List<String>> trials = new ArrayList<List<String>>();
+			for(String event:this.events) {
+				if(event.equals("case")) {
+					trials.add(new ArrayList<String>());
+				}
+				trials.get(trials.size()-1).add(event);
+			}
+			return trials;
+		}
+	}
+
+	/**
+	 * Listener that writes its name and the kind of every event to a shared list
+	 */
+	private static class Tagged extends Recorder {
+		private final String name;
+		private final List<String> order;
+
+		private Tagged(String name, List<String> order) {
+			this.name = name;
+			this.order = order;
+		}
+
+		@Override
+		public void caseGenerated(Simulation simulation) {
+			super.caseGenerated(simulation);
+			this.order.add(this.name + " " + last());
+		}
+
+		@Override
+		public void argumentsProvided(Simulation simulation) {
+			super.argumentsProvided(simulation);
+			this.order.add(this.name + " " + last());
+		}
+
+		@Override
+		public void argumentAccepted(Simulation simulation, int round, int listener, int argument) {
+			super.argumentAccepted(simulation, round, listener, argument);
+			this.order.add(this.name + " " + last());
+		}
+
+		@Override
+		public void argumentPresented(Simulation simulation, int round, int speaker, int argument,
+				Utils.ArgumentType type, boolean innocent, int accepted) {
+			super.argumentPresented(simulation, round, speaker, argument, type, innocent, accepted);
+			this.order.add(this.name + " " + last());
+		}
+
+		@Override
+		public void roundCompleted(Simulation simulation, int round) {
+			super.roundCompleted(simulation, round);
+			this.order.add(this.name + " " + last());
+		}
+
+		@Override
+		public void deliberationCompleted(Simulation simulation) {
+			super.deliberationCompleted(simulation);
+			this.order.add(this.name + " " + last());
+		}
+
+		@Override
+		public void voteCast(Simulation simulation, String verdict) {
+			super.voteCast(simulation, verdict);
+			this.order.add(this.name + " " + last());
+		}
+
+		private String last() {
+			return super.events.get(super.events.size()-1);
+		}
+	}
+}
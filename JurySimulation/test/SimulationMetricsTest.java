@@ -0,0 +1,33 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of SimulationMetrics
+ *
+ */
+public class SimulationMetricsTest {
+
+	@Test
+	public void readingTheRecentRateChangesNothing() {
+		SimulationMetrics metrics = new SimulationMetrics();
+		MenuSelectionObject mso = new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 1);
+		for(int i=0; i<10; i++) {
+			Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT, SimulationRandom.forSimulation(1, i));
+			court.provideArguments();
+			court.juryDeliberation();
+			court.juryVote();
+			metrics.record(court, 1000, 1000, 1000, 1000);
+		}
+		metrics.sample();
+		double rate = metrics.getRecentSimulationsPerSecond();
+		assertTrue(rate > 0);
+		// a second console reads the same rate until the next sample
+		assertEquals(rate, metrics.getRecentSimulationsPerSecond(), 0);
+		assertEquals(rate, metrics.getRecentSimulationsPerSecond(), 0);
+		metrics.sample();
+		assertEquals(0, metrics.getRecentSimulationsPerSecond(), 0);
+		assertEquals(10, metrics.getSimulations());
+	}
+}
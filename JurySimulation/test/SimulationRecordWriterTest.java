@@ -0,0 +1,109 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Writes the records of a few batches through the runner and parses the file back
+ *
+ */
+public class SimulationRecordWriterTest {
+	private static final long MASTER_SEED = 23;
+	private static final List<MenuSelectionObject> POINTS = Arrays.asList(
+			// a menu point with fewer biased jurors than the jury loses to them
+			new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 6, 1, 1, 1500),
+			new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 300));
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void fileHasOneRowPerSimulationWithItsScores() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("records.csv");
+		SimulationRecordWriter writer = new SimulationRecordWriter(path);
+		SimulationRunner runner = new SimulationRunner(3);
+		runner.setEngine(Utils.EngineType.COMPACT);
+		runner.setRecordWriter(writer);
+		runner.runSweep(POINTS, MASTER_SEED);
+		runner.shutdown();
+		writer.close();
+
+		List<String> lines = Files.readAllLines(path, StandardCharsets.US_ASCII);
+		assertEquals("master_seed,simulation,stream_seed,jury_size,vote_type,arguments,biased,low_bias,high_bias,"
+				+ "innocent_suspect,trial_verdict,deliberations,avg_claim_spread,avg_non_claim_spread,scores_before,scores_after",
+				lines.get(0));
+		assertEquals(1 + 1500 + 300, lines.size());
+		// batches interleave, so rows are found by point and simulation
+		Map<String, String[]> rows = new HashMap<String, String[]>();
+		for(String line:lines.subList(1, lines.size())) {
+			String[] fields = line.split(",");
+			assertEquals(line, 16, fields.length);
+			String key = String.join(",", fields[3], fields[4], fields[5], fields[6], fields[7], fields[8], fields[1]);
+			assertEquals(line, null, rows.put(key, fields));
+		}
+		for(MenuSelectionObject mso:POINTS) {
+			for(int i=0; i<mso.getNumOfSimulations(); i++) {
+				String[] fields = rows.get(mso.getJurySize() + "," + mso.getVoteChoice() + "," + mso.getArgumentChoice() + ","
+						+ mso.getBiasedChoice() + "," + mso.getLowBiasedChoice() + "," + mso.getHighBiasedChoice() + "," + i);
+				String trial = mso + " simulation " + i;
+				assertEquals(trial, Long.toString(MASTER_SEED), fields[0]);
+				assertEquals(trial, Long.toString(SimulationRandom.streamSeed(MASTER_SEED, i)), fields[2]);
+				Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT,
+						SimulationRandom.forSimulation(MASTER_SEED, i));
+				court.provideArguments();
+				assertArrayEquals(trial, scores(court), parse(fields[14]));
+				court.juryDeliberation();
+				assertEquals(trial, court.juryVote(), fields[10]);
+				assertArrayEquals(trial, scores(court), parse(fields[15]));
+				assertEquals(trial, court.isCorrectVerdict() ? "1" : "0", fields[9]);
+				assertEquals(trial, court.getTotalDeliberations(), Integer.parseInt(fields[11]));
+				assertEquals(trial, court.getAvgClaimSpread(), Double.parseDouble(fields[12]), 0);
+				assertEquals(trial, court.getAvgNonClaimsSpread(), Double.parseDouble(fields[13]), 0);
+			}
+		}
+
+		// VerdictProbabilities takes the points from the records as they were run
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = System.out;
+		try {
+			System.setOut(new PrintStream(bytes, true));
+			VerdictProbabilities.main(new String[]{path.toString()});
+		}
+		finally {
+			System.setOut(out);
+		}
+		String report = bytes.toString();
+		assertTrue(report, report.contains("\n12,MAJORITY,50,6,1,1,1500,"));
+		assertTrue(report, report.contains("\n6,UNANIMOUS,25,0,0,0,300,"));
+	}
+
+	private static int[] parse(String scores) {
+		String[] values = scores.split(";");
+		int[] parsed = new int[values.length];
+		for(int j=0; j<values.length; j++) {
+			parsed[j] = Integer.parseInt(values[j]);
+		}
+		return parsed;
+	}
+
+	private static int[] scores(Simulation simulation) {
+		int[] scores = new int[simulation.getNumOfJurors()];
+		for(int j=0; j<scores.length; j++) {
+			scores[j] = simulation.getJurorScore(j);
+		}
+		return scores;
+	}
+}
@@ -0,0 +1,57 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+/**
+ * Checks that SimulationRunner refuses points whose juror knowledge does not fit in the heap
+ *
+ */
+public class SimulationRunnerTest {
+
+	@Test
+	public void knowledgeGrowsWithJurorsAndArguments() {
+		// 12 jurors knowing 100 arguments: two bitset words and 100 entries each
+		MenuSelectionObject mso = new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 0, 0, 0, 1);
+		assertEquals(12*(2*8 + 100*4), SimulationRunner.knowledgeBytes(mso, Utils.EngineType.COMPACT));
+		assertEquals(12*(2*8 + 100*8), SimulationRunner.knowledgeBytes(mso, Utils.EngineType.OBJECT));
+		// biased jurors come on top of the jury, and their claims on top of the case
+		MenuSelectionObject biased = new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 4, 2, 2, 1);
+		assertEquals(16*(3*8 + 150*4), SimulationRunner.knowledgeBytes(biased, Utils.EngineType.COMPACT));
+		// the vector engine keeps a pool of compact courts per worker
+		assertEquals(LockStepDeliberation.MAX_COURTS*12*(2*8 + 100*4), SimulationRunner.knowledgeBytes(mso, Utils.EngineType.VECTOR));
+	}
+
+	@Test
+	public void pointTooLargeForTheHeapIsRejectedBeforeItRuns() throws Exception {
+		// a million arguments known by each of 100000 jurors take hundreds of gigabytes
+		MenuSelectionObject huge = new MenuSelectionObject(100000, Utils.VoteType.MAJORITY, 1000000, 0, 0, 0, 1);
+		MenuSelectionObject small = new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 10);
+		// the vector engine needs its own module, VectorDeliberationTest runs it
+		for(Utils.EngineType engine:EnumSet.of(Utils.EngineType.OBJECT, Utils.EngineType.COMPACT)) {
+			SimulationRunner runner = new SimulationRunner(2);
+			runner.setEngine(engine);
+			try {
+				runner.runSweep(Arrays.asList(small, huge), 42);
+				fail(engine + " ran a point that does not fit in the heap");
+			}
+			catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("100000 jurors") && e.getMessage().contains("-Xmx"));
+			}
+			try {
+				runner.runBatches(huge, 42, 0, 1);
+				fail(engine + " ran a point that does not fit in the heap");
+			}
+			catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("1000000 arguments"));
+			}
+			// the small point on its own runs
+			assertEquals(10, runner.run(small, 42).getNumOfSimulations());
+			runner.shutdown();
+		}
+	}
+}
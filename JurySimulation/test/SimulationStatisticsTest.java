@@ -0,0 +1,136 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests of SimulationStatistics
+ *
+ */
+public class SimulationStatisticsTest {
+
+	@Test
+	public void writtenStatisticsAreReadBack() throws IOException {
+		SimulationStatistics stats = run(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 6, 2, 4, 300), 0, 300);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		stats.writeTo(new DataOutputStream(bytes));
+		SimulationStatistics read = SimulationStatistics.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertSame(stats, read);
+		// and it keeps accumulating like the original
+		SimulationStatistics more = run(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 6, 2, 4, 400), 300, 400);
+		stats.merge(more);
+		read.merge(more);
+		assertSame(stats, read);
+	}
+
+	@Test
+	public void mergedBatchesEqualOneRun() {
+		MenuSelectionObject mso = new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 2, 1, 1, 500);
+		SimulationStatistics merged = run(mso, 0, 200);
+		merged.merge(run(mso, 200, 500));
+		assertSame(run(mso, 0, 500), merged);
+	}
+
+	@Test
+	public void claimShareIsTheShareOfAssignedClaimsInTheTrial() {
+		MenuSelectionObject mso = new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 6, 2, 4, 50);
+		for(Utils.EngineType engine:Utils.EngineType.values()) {
+			SimulationStatistics stats = new SimulationStatistics(mso);
+			OnlineStatistic expected = new OnlineStatistic(0, 100, 20);
+			for(int i=0; i<mso.getNumOfSimulations(); i++) {
+				Simulation court = SimulationRunner.createSimulation(mso, engine, SimulationRandom.forSimulation(9, i));
+				// before the case is presented only the biased jurors know claims, the ones assigned to them
+				int assignedClaims = 0;
+				int arguments = 0;
+				for(int a=0; a<court.getNumOfArgumentIds(); a++) {
+					if(court.getArgumentType(a) != Utils.ArgumentType.CLAIM) {
+						arguments++;
+					}
+					else if(knownByAnyJuror(court, a)) {
+						assignedClaims++;
+					}
+				}
+				// a low biased juror is given 10 claims, a high biased one 20, out of 50
+				assertTrue(engine + " simulation " + i, assignedClaims >= 20 && assignedClaims <= 50);
+				court.provideArguments();
+				court.juryDeliberation();
+				stats.add(court, court.juryVote());
+				expected.add(100.0*assignedClaims/(assignedClaims+arguments));
+			}
+			OnlineStatisticTest.assertSame(expected, stats.getTrialArgumentTypeShare(Utils.ArgumentType.CLAIM));
+		}
+	}
+
+	@Test
+	public void histogramsAreSizedByThePoint() {
+		assertEquals(56, SimulationStatistics.maxRounds(Utils.VoteType.UNANIMOUS));
+		assertEquals(34, SimulationStatistics.maxRounds(Utils.VoteType.MAJORITY));
+		for(MenuSelectionObject mso:new MenuSelectionObject[]{
+				new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 2, 1, 1, 200),
+				new MenuSelectionObject(400, Utils.VoteType.MAJORITY, 100, 2, 1, 1, 20)}) {
+			SimulationStatistics stats = run(mso, 0, mso.getNumOfSimulations());
+			assertLastBucketEmpty(stats.getDeliberations());
+			assertLastBucketEmpty(stats.getNonClaimSpread());
+			assertLastBucketEmpty(stats.getClaimSpread());
+			// the spreads of a large jury are spread over the buckets, not piled up in the last one
+			OnlineStatistic spread = stats.getNonClaimSpread();
+			int used = 0;
+			for(int b=0; b<spread.getNumOfBuckets(); b++) {
+				used += (spread.getBucketCount(b) > 0) ? 1 : 0;
+			}
+			assertTrue(mso.getJurySize() + " jurors", used >= 3);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void statisticsOfOtherJuriesAreNotMerged() {
+		new SimulationStatistics(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 0, 0, 0, 1))
+				.merge(new SimulationStatistics(new MenuSelectionObject(100, Utils.VoteType.MAJORITY, 50, 0, 0, 0, 1)));
+	}
+
+	private static void assertLastBucketEmpty(OnlineStatistic statistic) {
+		assertEquals(0, statistic.getBucketCount(statistic.getNumOfBuckets()-1));
+		assertTrue(statistic.getMax() < statistic.getBucketLow(statistic.getNumOfBuckets()-1));
+	}
+
+	private static boolean knownByAnyJuror(Simulation simulation, int argument) {
+		for(int j=0; j<simulation.getNumOfJurors(); j++) {
+			if(simulation.jurorKnows(j, argument)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static SimulationStatistics run(MenuSelectionObject mso, int first, int end) {
+		SimulationStatistics stats = new SimulationStatistics(mso);
+		for(int i=first; i<end; i++) {
+			Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT, SimulationRandom.forSimulation(9, i));
+			court.provideArguments();
+			court.juryDeliberation();
+			stats.add(court, court.juryVote());
+		}
+		return stats;
+	}
+
+	private static void assertSame(SimulationStatistics expected, SimulationStatistics actual) {
+		assertEquals(expected.getNumOfSimulations(), actual.getNumOfSimulations());
+		assertEquals(expected.getFalsePositives(), actual.getFalsePositives());
+		assertEquals(expected.getFalseNegatives(), actual.getFalseNegatives());
+		assertEquals(expected.getHungJuries(), actual.getHungJuries());
+		assertEquals(expected.getCorrectVerdicts(), actual.getCorrectVerdicts());
+		OnlineStatisticTest.assertSame(expected.getDeliberations(), actual.getDeliberations());
+		OnlineStatisticTest.assertSame(expected.getClaimSpread(), actual.getClaimSpread());
+		OnlineStatisticTest.assertSame(expected.getNonClaimSpread(), actual.getNonClaimSpread());
+		for(Utils.ArgumentType type:Utils.ArgumentType.values()) {
+			OnlineStatisticTest.assertSame(expected.getTrialArgumentTypeShare(type), actual.getTrialArgumentTypeShare(type));
+			OnlineStatisticTest.assertSame(expected.getJuryArgumentTypeShare(type), actual.getJuryArgumentTypeShare(type));
+		}
+	}
+}
@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of SweepCheckpoint
+ *
+ */
+public class SweepCheckpointTest {
+	private static final List<MenuSelectionObject> POINTS = Arrays.asList(
+			new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 8000),
+			new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 4000));
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void resumedCheckpointHasTheWrittenProgress() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("run.ckpt");
+		ConvergenceTarget target = new ConvergenceTarget(0.002, Double.NaN);
+		SweepCheckpoint checkpoint = SweepCheckpoint.start(path, 60000, 7, DeliberationTopology.ring(2), target, POINTS);
+		checkpoint.update(0, 3000, new SimulationStatistics(POINTS.get(0)));
+		checkpoint.write();
+		SweepCheckpoint resumed = SweepCheckpoint.resume(path, 60000);
+		assertEquals(7, resumed.getMasterSeed());
+		assertEquals(POINTS, resumed.getPoints());
+		assertEquals(3000, resumed.getNext(0));
+		assertEquals(0, resumed.getNext(1));
+		resumed.verify(DeliberationTopology.ring(2), new ConvergenceTarget(0.002, Double.NaN), POINTS);
+		resumed.verify(DeliberationTopology.ring(2), target, null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void resumeWithoutTheTargetIsRejected() throws IOException {
+		writeAndResume(new ConvergenceTarget(0.002, Double.NaN)).verify(DeliberationTopology.COMPLETE, null, POINTS);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void resumeWithAnotherTargetIsRejected() throws IOException {
+		writeAndResume(new ConvergenceTarget(0.002, Double.NaN))
+				.verify(DeliberationTopology.COMPLETE, new ConvergenceTarget(0.002, 0.002), POINTS);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void resumeWithATargetIsRejectedForAFixedRun() throws IOException {
+		writeAndResume(null).verify(DeliberationTopology.COMPLETE, new ConvergenceTarget(0.002, Double.NaN), POINTS);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void resumeWithAnotherTopologyIsRejected() throws IOException {
+		writeAndResume(null).verify(DeliberationTopology.ring(1), null, POINTS);
+	}
+
+	private SweepCheckpoint writeAndResume(ConvergenceTarget target) throws IOException {
+		Path path = folder.getRoot().toPath().resolve("run.ckpt");
+		SweepCheckpoint.start(path, 60000, 7, DeliberationTopology.COMPLETE, target, POINTS).write();
+		return SweepCheckpoint.resume(path, 60000);
+	}
+}
@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of SweepSpec
+ *
+ */
+public class SweepSpecTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void emptySpecHasOneDefaultPoint() {
+		assertEquals(Arrays.asList(new MenuSelectionObject(12, Utils.VoteType.UNANIMOUS, 100, 0, 0, 0, 1000)),
+				SweepSpec.fromString("").expand());
+	}
+
+	@Test
+	public void everyCombinationIsAPoint() {
+		List<MenuSelectionObject> points = SweepSpec.fromString(
+				"jury = small, 1000; vote = Majority, unanimous; arguments = 50; bias = 0+0, 1 + 2; simulations = 500").expand();
+		assertEquals(8, points.size());
+		// jury first, then vote, arguments and bias
+		assertEquals(new MenuSelectionObject(6, Utils.VoteType.MAJORITY, 50, 0, 0, 0, 500), points.get(0));
+		assertEquals(new MenuSelectionObject(6, Utils.VoteType.MAJORITY, 50, 3, 1, 2, 500), points.get(1));
+		assertEquals(new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 50, 0, 0, 0, 500), points.get(2));
+		assertEquals(new MenuSelectionObject(1000, Utils.VoteType.UNANIMOUS, 50, 3, 1, 2, 500), points.get(7));
+	}
+
+	@Test
+	public void fileTakesOneEntryPerLineWithComments() throws IOException {
+		Path path = folder.newFile("sweep.txt").toPath();
+		Files.write(path, Arrays.asList("# grid", "jury = big", "", "arguments = 25, 75  # small cases", "simulations = 10"),
+				StandardCharsets.UTF_8);
+		assertEquals(Arrays.asList(new MenuSelectionObject(12, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 10),
+				new MenuSelectionObject(12, Utils.VoteType.UNANIMOUS, 75, 0, 0, 0, 10)),
+				SweepSpec.fromFile(path.toString()).expand());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void entryWithoutValuesIsRejected() {
+		SweepSpec.fromString("jury 12");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownParameterIsRejected() {
+		SweepSpec.fromString("jurors = 12");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void biasWithoutBothLevelsIsRejected() {
+		SweepSpec.fromString("bias = 2");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyJuryIsRejected() {
+		SweepSpec.fromString("jury = 0");
+	}
+}
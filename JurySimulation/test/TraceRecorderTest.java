@@ -0,0 +1,65 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Records trials with TraceRecorder and replays them with TraceReplay
+ *
+ */
+public class TraceRecorderTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void replayGivesTheScoresOfTheJury() throws IOException {
+		// argument ids above 127 take two varint bytes, juries above 64 jurors a second mask word
+		MenuSelectionObject[] points = {
+			new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 20),
+			new MenuSelectionObject(80, Utils.VoteType.UNANIMOUS, 300, 4, 2, 2, 5),
+		};
+		Path path = folder.getRoot().toPath().resolve("trace.bin");
+		TraceRecorder recorder = new TraceRecorder(path, 1, 16*1024*1024);
+		List<int[]> before = new ArrayList<int[]>();
+		List<int[]> after = new ArrayList<int[]>();
+		for(MenuSelectionObject mso : points) {
+			for(int i=0; i<mso.getNumOfSimulations(); i++) {
+				Simulation court = SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT,
+						SimulationRandom.forSimulation(3, i));
+				SimulationListener trace = recorder.startTrial(mso, 3, i);
+				court.setListener(trace);
+				trace.caseGenerated(court);
+				court.provideArguments();
+				before.add(scores(court));
+				court.juryDeliberation();
+				court.juryVote();
+				after.add(scores(court));
+			}
+		}
+		recorder.close();
+		assertEquals(0, recorder.getDropped());
+		List<TraceReplay.Trial> trials = TraceReplay.read(path);
+		assertEquals(before.size(), trials.size());
+		for(int t=0; t<trials.size(); t++) {
+			assertArrayEquals("trial " + t, before.get(t), trials.get(t).scoresAt(0));
+			assertArrayEquals("trial " + t, after.get(t), trials.get(t).scoresAt(Integer.MAX_VALUE));
+			assertTrue("trial " + t, trials.get(t).replaysFinalScores());
+		}
+	}
+
+	private static int[] scores(Simulation simulation) {
+		int[] scores = new int[simulation.getNumOfJurors()];
+		for(int j=0; j<scores.length; j++) {
+			scores[j] = simulation.getJurorScore(j);
+		}
+		return scores;
+	}
+}
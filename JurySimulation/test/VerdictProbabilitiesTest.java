@@ -0,0 +1,234 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks VerdictProbabilities against two oracles: a brute force enumeration of every case and every accepted
+ * subset on tiny cases, and a seeded Monte Carlo run of the vote right after the case arguments
+ *
+ */
+public class VerdictProbabilitiesTest {
+	// acceptance ranges of Utils.generateAcceptance
+	private static final double[] PREFERRED = {0.7, 0.85};
+	private static final double[] OTHER = {0.4, 0.6};
+	private static final double[] BIASED_EVIDENCE = {0.35, 0.55};
+	// standard scores a seeded run stays within
+	private static final double MAX_Z = 4.5;
+
+	@Test
+	public void tinyUnbiasedJuriesMatchEnumeration() {
+		assertMatchesEnumeration(new MenuSelectionObject(3, Utils.VoteType.UNANIMOUS, 4, 0, 0, 0, 1));
+		assertMatchesEnumeration(new MenuSelectionObject(3, Utils.VoteType.MAJORITY, 4, 0, 0, 0, 1));
+		// an even jury can split evenly and hang a majority vote
+		assertMatchesEnumeration(new MenuSelectionObject(4, Utils.VoteType.MAJORITY, 6, 0, 0, 0, 1));
+	}
+
+	@Test
+	public void tinyBiasedJuriesMatchEnumeration() {
+		// 10 arguments give low biased jurors 1 claim and high biased ones 2
+		assertMatchesEnumeration(new MenuSelectionObject(5, Utils.VoteType.MAJORITY, 10, 2, 1, 1, 1));
+		assertMatchesEnumeration(new MenuSelectionObject(3, Utils.VoteType.UNANIMOUS, 10, 1, 0, 1, 1));
+		// a menu point whose biased jurors are not as many as low plus high
+		assertMatchesEnumeration(new MenuSelectionObject(4, Utils.VoteType.MAJORITY, 10, 3, 1, 1, 1));
+	}
+
+	@Test
+	public void votesBeforeDeliberationMatchMonteCarlo() {
+		assertMatchesMonteCarlo(new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 20000), Utils.EngineType.COMPACT);
+		assertMatchesMonteCarlo(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 6, 2, 4, 20000), Utils.EngineType.COMPACT);
+		assertMatchesMonteCarlo(new MenuSelectionObject(9, Utils.VoteType.MAJORITY, 40, 3, 1, 1, 20000), Utils.EngineType.COMPACT);
+		assertMatchesMonteCarlo(new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 50, 2, 1, 1, 5000), Utils.EngineType.OBJECT);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void juryWithoutJurorsIsRejected() {
+		VerdictProbabilities.compute(new MenuSelectionObject(2, Utils.VoteType.MAJORITY, 10, 2, 0, 0, 1));
+	}
+
+	private static void assertMatchesEnumeration(MenuSelectionObject mso) {
+		VerdictProbabilities exact = VerdictProbabilities.compute(mso);
+		Enumeration enumeration = new Enumeration(mso);
+		String point = mso.getJurySize() + " " + mso.getVoteChoice() + " " + mso.getArgumentChoice() + " " + mso.getBiasedChoice();
+		assertEquals(point, 1, enumeration.innocent + enumeration.guilty + enumeration.hung, 1e-12);
+		assertEquals(point + " innocent", enumeration.innocent, exact.getInnocent(), 1e-10);
+		assertEquals(point + " guilty", enumeration.guilty, exact.getGuilty(), 1e-10);
+		assertEquals(point + " hung jury", enumeration.hung, exact.getHungJury(), 1e-10);
+		assertEquals(point + " wrong verdict", enumeration.wrong, exact.getWrongVerdict(), 1e-10);
+		assertEquals(point + " correct verdict", enumeration.innocent + enumeration.guilty - enumeration.wrong,
+				exact.getCorrectVerdict(), 1e-10);
+		Utils.BiasLevel[] kinds = {null, Utils.BiasLevel.LOW, Utils.BiasLevel.HIGH};
+		for(int k=0; k<kinds.length; k++) {
+			double[] scores = exact.getScoreDistribution(kinds[k]);
+			for(int i=0; i<scores.length; i++) {
+				int score = i - exact.getScoreOffset();
+				assertEquals(point + " " + kinds[k] + " score " + score, enumeration.score(k, score), scores[i], 1e-10);
+			}
+		}
+	}
+
+	private static void assertMatchesMonteCarlo(MenuSelectionObject mso, Utils.EngineType engine) {
+		VerdictProbabilities exact = VerdictProbabilities.compute(mso);
+		int wrong = 0;
+		int hung = 0;
+		OnlineStatistic scores = new OnlineStatistic(-200, 200, 1);
+		for(int i=0; i<mso.getNumOfSimulations(); i++) {
+			Simulation court = SimulationRunner.createSimulation(mso, engine, SimulationRandom.forSimulation(31, i));
+			court.provideArguments();
+			for(int j=0; j<court.getNumOfJurors(); j++) {
+				scores.add(court.getJurorScore(j));
+			}
+			// the jury votes before deliberating
+			String verdict = court.juryVote();
+			hung += verdict.equals("hung jury") ? 1 : 0;
+			wrong += verdict.equals(court.isCorrectVerdict() ? "guilty" : "innocent") ? 1 : 0;
+		}
+		String point = engine + " " + mso.getJurySize() + " " + mso.getVoteChoice() + " " + mso.getArgumentChoice();
+		assertRate(point + " wrong verdicts", wrong, mso.getNumOfSimulations(), exact.getWrongVerdict());
+		assertRate(point + " hung juries", hung, mso.getNumOfSimulations(), exact.getHungJury());
+		// scores of one jury share the case, so the error of their mean is taken per simulation
+		double error = Math.sqrt(scores.getVariance()*numOfJurors(mso)/scores.getCount());
+		double z = (scores.getMean() - exact.getMeanScore())/error;
+		assertTrue(String.format("%s mean score %.4f, exact %.4f, z %.2f", point, scores.getMean(), exact.getMeanScore(), z),
+				Math.abs(z) <= MAX_Z);
+	}
+
+	private static int numOfJurors(MenuSelectionObject mso) {
+		return mso.getJurySize() - mso.getBiasedChoice()
+				+ ((mso.getBiasedChoice() > 0) ? mso.getLowBiasedChoice() + mso.getHighBiasedChoice() : 0);
+	}
+
+	private static void assertRate(String name, int count, int trials, double p) {
+		double z = (count - trials*p)/Math.sqrt(Math.max(trials*p*(1-p), 1e-12));
+		assertTrue(String.format("%s %d of %d, exact %.5f, z %.2f", name, count, trials, p, z),
+				Math.abs(z) <= MAX_Z || Math.abs(count - trials*p) < 1);
+	}
+
+	/**
+	 * Verdicts and scores before deliberation by enumeration: both sides of the case, the type of every argument,
+	 * and for every kind of juror every subset of accepted arguments, with the acceptances integrated exactly
+	 */
+	private static class Enumeration {
+		private double innocent;
+		private double guilty;
+		private double hung;
+		private double wrong;
+		// score distributions of neutral, low and high biased jurors, score s at index s+offset
+		private double[][] scores;
+		private int offset;
+
+		private Enumeration(MenuSelectionObject mso) {
+			int n = mso.getArgumentChoice();
+			int numOfNeutral = mso.getJurySize() - mso.getBiasedChoice();
+			int numOfLow = (mso.getBiasedChoice() > 0) ? mso.getLowBiasedChoice() : 0;
+			int numOfHigh = (mso.getBiasedChoice() > 0) ? mso.getHighBiasedChoice() : 0;
+			this.offset = 2*n;
+			this.scores = new double[3][4*n+1];
+			int fewer = (int)Math.floor(n*0.45);
+			int more = (int)Math.ceil(n*0.55);
+			for(int side=0; side<2; side++) {
+				int exonerating = (side == 0) ? fewer : more;
+				int incriminating = (side == 0) ? more : fewer;
+				int total = exonerating + incriminating;
+				boolean innocentSuspect = exonerating >= incriminating;
+				// claims speak for the wrong verdict
+				int lowClaims = (innocentSuspect ? -1 : 1)*(int)(n*Utils.BiasLevel.LOW.getPercentage());
+				int highClaims = (innocentSuspect ? -1 : 1)*(int)(n*Utils.BiasLevel.HIGH.getPercentage());
+				// bit a of evidence is set if argument a is evidence, the first arguments are the exonerating ones
+				for(int evidence=0; evidence<(1 << total); evidence++) {
+					double weight = 0.5/(1 << total);
+					double[][] kindScores = new double[4][this.scores[0].length];
+					acceptedScores(evidence, total, exonerating, PREFERRED, OTHER, kindScores[0]);
+					acceptedScores(evidence, total, exonerating, OTHER, PREFERRED, kindScores[1]);
+					acceptedScores(evidence, total, exonerating, BIASED_EVIDENCE, OTHER, kindScores[2]);
+					for(int s=0; s<kindScores[0].length; s++) {
+						// a neutral juror prefers evidence or testimony with probability 1/2
+						this.scores[0][s] += weight*0.5*(kindScores[0][s] + kindScores[1][s]);
+						if(s-lowClaims >= 0 && s-lowClaims < kindScores[2].length) {
+							this.scores[1][s] += weight*kindScores[2][s-lowClaims];
+						}
+						if(s-highClaims >= 0 && s-highClaims < kindScores[2].length) {
+							this.scores[2][s] += weight*kindScores[2][s-highClaims];
+						}
+					}
+					double neutralVote = 0.5*(this.atLeastZero(kindScores[0], 0) + this.atLeastZero(kindScores[1], 0));
+					double lowVote = this.atLeastZero(kindScores[2], lowClaims);
+					double highVote = this.atLeastZero(kindScores[2], highClaims);
+					// distribution of the number of innocent votes, juror by juror
+					double[] votes = {1};
+					for(int j=0; j<numOfNeutral+numOfLow+numOfHigh; j++) {
+						double p = (j < numOfNeutral) ? neutralVote : (j < numOfNeutral+numOfLow) ? lowVote : highVote;
+						double[] next = new double[votes.length+1];
+						for(int v=0; v<votes.length; v++) {
+							next[v] += votes[v]*(1-p);
+							next[v+1] += votes[v]*p;
+						}
+						votes = next;
+					}
+					int jurors = votes.length-1;
+					double acquit = 0, convict = 0;
+					for(int v=0; v<=jurors; v++) {
+						boolean acquits = (mso.getVoteChoice() == Utils.VoteType.UNANIMOUS) ? v == jurors : 2*v > jurors;
+						boolean convicts = (mso.getVoteChoice() == Utils.VoteType.UNANIMOUS) ? v == 0 : 2*v < jurors;
+						acquit += acquits ? votes[v] : 0;
+						convict += convicts ? votes[v] : 0;
+					}
+					this.innocent += weight*acquit;
+					this.guilty += weight*convict;
+					this.hung += weight*(1 - acquit - convict);
+					this.wrong += weight*(innocentSuspect ? convict : acquit);
+				}
+			}
+		}
+
+		private double score(int kind, int score) {
+			int i = score + this.offset;
+			return (i >= 0 && i < this.scores[kind].length) ? this.scores[kind][i] : 0;
+		}
+
+		/**
+		 * Probability that a score of the distribution plus the claims is at least 0
+		 */
+		private double atLeastZero(double[] scores, int claims) {
+			double probability = 0;
+			for(int s=0; s<scores.length; s++) {
+				probability += (s - this.offset + claims >= 0) ? scores[s] : 0;
+			}
+			return probability;
+		}
+
+		/**
+		 * Adds the probability of every accepted subset of the case to the score it gives
+		 */
+		private void acceptedScores(int evidence, int total, int exonerating, double[] evidenceAcceptance,
+				double[] testimonyAcceptance, double[] scores) {
+			for(int accepted=0; accepted<(1 << total); accepted++) {
+				int[] counts = new int[4];
+				int score = 0;
+				for(int a=0; a<total; a++) {
+					boolean isEvidence = (evidence & (1 << a)) != 0;
+					boolean isAccepted = (accepted & (1 << a)) != 0;
+					counts[(isEvidence ? 0 : 2) + (isAccepted ? 0 : 1)]++;
+					if(isAccepted) {
+						score += (a < exonerating) ? 1 : -1;
+					}
+				}
+				scores[score + this.offset] += moment(evidenceAcceptance, counts[0], counts[1])
+						* moment(testimonyAcceptance, counts[2], counts[3]);
+			}
+		}
+
+		/**
+		 * Mean of a^k*(1-a)^j for a uniform on a range, integrated term by term
+		 */
+		private static double moment(double[] range, int k, int j) {
+			double integral = 0;
+			double choose = 1;
+			for(int i=0; i<=j; i++) {
+				integral += ((i % 2 == 0) ? 1 : -1)*choose*(Math.pow(range[1], k+i+1) - Math.pow(range[0], k+i+1))/(k+i+1);
+				choose = choose*(j-i)/(i+1);
+			}
+			return integral/(range[1] - range[0]);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+import benchmarks.SimulationHandle;
+
+/**
+ * Benchmark access to the simulation classes of the default package
+ *
+ */
+public class TrialHandle implements SimulationHandle {
+	// fixed master seed, so every benchmark run sees the same sequence of trials
+	private static final long MASTER_SEED = 42;
+
+	private MenuSelectionObject mso;
+	private Utils.EngineType engine;
+	// index of the next trial's random stream
+	private long nextTrial;
+	// current trial
+	private Simulation simulation;
+	// court reused by reset with the compact engine
+	private CompactCourt arena;
+
+	/**
+	 * Creates a handle for the given simulation parameters
+	 * @param engine
+	 * @param jurySize name (SMALL, BIG) or number of jurors
+	 * @param voteType
+	 * @param numOfArguments
+	 * @param numOfBiasedJurors
+	 */
+	public TrialHandle(String engine, String jurySize, String voteType, int numOfArguments, int numOfBiasedJurors) {
+		int lowBiased = numOfBiasedJurors/2;
+		this.mso = new MenuSelectionObject(Utils.parseJurySize(jurySize), Utils.VoteType.valueOf(voteType),
+				numOfArguments, numOfBiasedJurors, lowBiased, numOfBiasedJurors-lowBiased, 1);
+		this.engine = Utils.EngineType.valueOf(engine);
+	}
+
+	private TrialHandle(MenuSelectionObject mso, Utils.EngineType engine) {
+		this.mso = mso;
+		this.engine = engine;
+	}
+
+	@Override
+	public void create() {
+		this.simulation = SimulationRunner.createSimulation(this.mso, this.engine,
+				SimulationRandom.forSimulation(MASTER_SEED, this.nextTrial++));
+	}
+
+	@Override
+	public SimulationHandle next() {
+		TrialHandle next = new TrialHandle(this.mso, this.engine);
+		next.simulation = SimulationRunner.createSimulation(this.mso, this.engine,
+				SimulationRandom.forSimulation(MASTER_SEED, this.nextTrial++));
+		return next;
+	}
+
+	@Override
+	public void reset() {
+		if(this.engine != Utils.EngineType.COMPACT) {
+			create();
+			return;
+		}
+		if(this.arena == null) {
+			this.arena = new CompactCourt();
+		}
+		this.arena.reset(SimulationRandom.streamSeed(MASTER_SEED, this.nextTrial++), this.mso);
+		this.simulation = this.arena;
+	}
+
+	@Override
+	public void provideArguments() {
+		this.simulation.provideArguments();
+	}
+
+	@Override
+	public void juryDeliberation() {
+		this.simulation.juryDeliberation();
+	}
+
+	@Override
+	public String juryVote() {
+		return this.simulation.juryVote();
+	}
+}
@@ -0,0 +1,193 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the phases of a trial: court construction, provideArguments, juryDeliberation and juryVote.
+ * Every phase is measured on a fresh trial that has gone through the phases before it.
+ * provideArguments and juryDeliberation change their trial, so their trials are built ahead in batches of
+ * {@link #BATCH} per iteration and each iteration times exactly one batch, keeping the setup out of the timing.
+ * Their score is the time of a whole batch.
+ * reusedTrial runs full trials on a court that is reset between them, as the simulation runner does.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourtBenchmark {
+	// trials prepared for, and timed by, one iteration of a phase that changes its trial
+	public static final int BATCH = 100;
+
+	/**
+	 * Simulation parameters of a benchmark point
+	 */
+	@State(Scope.Thread)
+	public static class Parameters {
+		@Param({"OBJECT", "COMPACT"})
+		public String engine;
+		@Param({"SMALL", "BIG"})
+		public String jurySize;
+		@Param({"UNANIMOUS", "MAJORITY"})
+		public String voteType;
+		@Param({"25", "100", "500", "5000"})
+		public int numOfArguments;
+		@Param({"0", "2", "6"})
+		public int numOfBiasedJurors;
+
+		public SimulationHandle handle() {
+			return SimulationHandle.create(engine, jurySize, voteType, numOfArguments, numOfBiasedJurors);
+		}
+	}
+
+	/**
+	 * Trial before construction
+	 */
+	@State(Scope.Thread)
+	public static class NewTrial {
+		public SimulationHandle trial;
+
+		@Setup(Level.Trial)
+		public void setup(Parameters parameters) {
+			this.trial = parameters.handle();
+		}
+	}
+
+	/**
+	 * Batch of trials that have been constructed
+	 */
+	@State(Scope.Thread)
+	public static class ConstructedTrials {
+		public SimulationHandle source;
+		public SimulationHandle[] trials = new SimulationHandle[BATCH];
+		public int next;
+
+		@Setup(Level.Trial)
+		public void setup(Parameters parameters) {
+			this.source = parameters.handle();
+		}
+
+		@Setup(Level.Iteration)
+		public void prepare() {
+			for(int i=0; i<BATCH; i++) {
+				this.trials[i] = this.source.next();
+			}
+			this.next = 0;
+		}
+
+		public SimulationHandle take() {
+			return this.trials[this.next++];
+		}
+	}
+
+	/**
+	 * Batch of trials whose juries have received the case arguments
+	 */
+	@State(Scope.Thread)
+	public static class InformedTrials {
+		public SimulationHandle source;
+		public SimulationHandle[] trials = new SimulationHandle[BATCH];
+		public int next;
+
+		@Setup(Level.Trial)
+		public void setup(Parameters parameters) {
+			this.source = parameters.handle();
+		}
+
+		@Setup(Level.Iteration)
+		public void prepare() {
+			for(int i=0; i<BATCH; i++) {
+				this.trials[i] = this.source.next();
+				this.trials[i].provideArguments();
+			}
+			this.next = 0;
+		}
+
+		public SimulationHandle take() {
+			return this.trials[this.next++];
+		}
+	}
+
+	/**
+	 * Trial that has deliberated, voting does not change it so it is reused for a whole iteration
+	 */
+	@State(Scope.Thread)
+	public static class DeliberatedTrial {
+		public SimulationHandle trial;
+
+		@Setup(Level.Trial)
+		public void setup(Parameters parameters) {
+			this.trial = parameters.handle();
+		}
+
+		@Setup(Level.Iteration)
+		public void next() {
+			this.trial.create();
+			this.trial.provideArguments();
+			this.trial.juryDeliberation();
+		}
+	}
+
+	@Benchmark
+	public SimulationHandle construction(NewTrial state) {
+		state.trial.create();
+		return state.trial;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 10, batchSize = BATCH)
+	@Measurement(iterations = 20, batchSize = BATCH)
+	public SimulationHandle provideArguments(ConstructedTrials state) {
+		SimulationHandle trial = state.take();
+		trial.provideArguments();
+		return trial;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 10, batchSize = BATCH)
+	@Measurement(iterations = 20, batchSize = BATCH)
+	public SimulationHandle juryDeliberation(InformedTrials state) {
+		SimulationHandle trial = state.take();
+		trial.juryDeliberation();
+		return trial;
+	}
+
+	@Benchmark
+	public String juryVote(DeliberatedTrial state) {
+		return state.trial.juryVote();
+	}
+
+	@Benchmark
+	public String fullTrial(NewTrial state) {
+		state.trial.create();
+		state.trial.provideArguments();
+		state.trial.juryDeliberation();
+		return state.trial.juryVote();
+	}
+
+	@Benchmark
+	public String reusedTrial(NewTrial state) {
+		state.trial.reset();
+		state.trial.provideArguments();
+		state.trial.juryDeliberation();
+		return state.trial.juryVote();
+	}
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+/**
+ * Access to one simulated trial for the benchmarks.
+ * The simulation classes live in the default package, which JMH benchmarks cannot reference,
+ * so the default package class TrialHandle implements this interface and is loaded by name.
+ *
+ */
+public interface SimulationHandle {
+
+	/**
+	 * Builds the court of the next trial from the next random stream
+	 */
+	void create();
+
+	/**
+	 * Builds the court of the next trial from the next random stream in a handle of its own,
+	 * so a benchmark can prepare many trials ahead of the phase it measures
+	 * @return handle of the new trial
+	 */
+	SimulationHandle next();
+
+	/**
+	 * Resets a reused court to the next trial from the next random stream. Only the COMPACT engine
+	 * reuses its court, the OBJECT engine builds a new one as in create
+	 */
+	void reset();
+
+	/**
+	 * Presents the case arguments to the jury
+	 */
+	void provideArguments();
+
+	/**
+	 * Runs the deliberation rounds
+	 */
+	void juryDeliberation();
+
+	/**
+	 * Lets the jury vote
+	 * @return verdict
+	 */
+	String juryVote();
+
+	/**
+	 * Creates the handle of the simulation module
+	 * @param engine OBJECT or COMPACT
+	 * @param jurySize SMALL, BIG or a number of jurors
+	 * @param voteType UNANIMOUS or MAJORITY
+	 * @param numOfArguments
+	 * @param numOfBiasedJurors half of them with low bias, the rest with high bias
+	 * @return handle
+	 */
+	static SimulationHandle create(String engine, String jurySize, String voteType, int numOfArguments, int numOfBiasedJurors) {
+		try {
+			return (SimulationHandle) Class.forName("TrialHandle")
+					.getConstructor(String.class, String.class, String.class, int.class, int.class)
+					.newInstance(engine, jurySize, voteType, numOfArguments, numOfBiasedJurors);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create the simulation handle", e);
+		}
+	}
+}
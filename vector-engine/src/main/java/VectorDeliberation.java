@@ -0,0 +1,337 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Lock-step deliberation of LANES CompactCourts on jdk.incubator.vector, one vector lane per court.
+ * What the rounds go through for every juror of every lane, its participation, willingness and acceptances, and the
+ * generator states of the courts are kept lane-major, the value of juror j in lane l at j*LANES+l and the acceptance
+ * of type t at (j*TYPES+t)*LANES+l, so one vector operation advances every lane: the SplitMix64 steps of the
+ * generators, the willingness and participation draws against their thresholds, the acceptance draw of a listener
+ * against the acceptance of the type presented in every lane, the willingness decay and the jury willingness.
+ * Lanes that draw nothing at a step, courts that have finished or whose speaker presents nothing, step their
+ * generators by zero, so every court draws the same numbers in the same order as its own juryDeliberation.
+ * The lanes a step applies to are the bits of a long, and comparisons come back as such bits: on JDK 17 the vector
+ * masks only compile to vector instructions in compare and blend, their conversions allocate.
+ * The engine keeps a lane-major copy of the knowledge bitsets too, so whether a listener already knows the argument
+ * presented in its lane is a gather. Picking the argument of a speaker and adding an argument new to a listener to
+ * their knowledge stay per court.
+ * Deliberations take from a few rounds to dozens, so a lane whose court stops deliberating takes the next simulation
+ * at once instead of idling until the longest deliberation of the lanes is over. Finished courts wait in a pool of
+ * MAX_COURTS courts until the simulations before them have finished and are handed out in the order of the simulations.
+ *
+ */
+public class VectorDeliberation implements LockStepDeliberation {
+	private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+	// as many double lanes as long lanes, both are 64 bits
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+	// courts deliberating together
+	public static final int LANES = LONGS.length();
+	private static final int TYPES = Utils.ArgumentType.values().length;
+	// steps of SimulationRandom
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+	// index of every lane, and 1L << index as the raw bits of a double
+	private static final LongVector LANE_INDEX = LongVector.zero(LONGS).addIndex(1);
+	private static final DoubleVector LANE_BITS = LongVector.broadcast(LONGS, 1L).lanewise(VectorOperators.LSHL, LANE_INDEX)
+			.reinterpretAsDoubles();
+	private static final long ALL_LANES = (LANES == 64) ? -1L : (1L << LANES) - 1;
+	private static final LongVector LANE_BITS_OF_LONGS = LANE_BITS.reinterpretAsLongs();
+
+	// courts of the simulations in the lanes or waiting to be handed out, simulation i in courts[(i-first)%MAX_COURTS]
+	private CompactCourt[] courts = new CompactCourt[MAX_COURTS];
+	private int[][] scoresBefore = new int[MAX_COURTS][0];
+	private boolean[] finished = new boolean[MAX_COURTS];
+	// the run
+	private MenuSelectionObject mso;
+	private long masterSeed;
+	private int first;
+	private int end;
+	// next simulation to start and next to hand out
+	private int next;
+	private int emitted;
+	private int numOfJurors;
+	// court of every lane, null for an empty lane
+	private CompactCourt[] lanes = new CompactCourt[LANES];
+	private int[] laneSlot = new int[LANES];
+	// generator state of every lane
+	private long[] states = new long[LANES];
+	// lane-major juror values
+	private double[] participation = new double[0];
+	private double[] willingness = new double[0];
+	private double[] acceptance = new double[0];
+	// knowledge bitsets, word w of juror j in lane l at (j*words+w)*LANES+l, the same as those of the courts
+	private long[] known = new long[0];
+	private int words;
+	private double[] juryWillingness = new double[LANES];
+	// rounds, distinct presented arguments and arguments the jury can present of every lane
+	private int[] rounds = new int[LANES];
+	private int[] distinctPresented = new int[LANES];
+	private int[] argumentsToPresent = new int[LANES];
+	// multiplier of the willingness of every lane in the current round
+	private double[] decay = new double[LANES];
+	// argument presented in every lane, its type, its listeners that accepted it, and its word and bit in a bitset
+	private int[] argument = new int[LANES];
+	private double[] type = new double[LANES];
+	private int[] accepted = new int[LANES];
+	private int[] word = new int[LANES];
+	private long[] bit = new long[LANES];
+
+	@Override
+	public void run(MenuSelectionObject mso, long masterSeed, int first, int size, TrialSink sink) {
+		this.mso = mso;
+		this.masterSeed = masterSeed;
+		this.first = first;
+		this.end = first + size;
+		this.next = first;
+		this.emitted = first;
+		double penalty = 1-mso.getVoteChoice().getPenalty();
+		// lanes holding a court
+		long occupied = this.fill(0L);
+		while(occupied != 0) {
+			// every court draws against the willingness of its jury before a round, a court that stops hands its lane
+			// to the next simulation, whose court draws before the round as well
+			long deliberating = 0;
+			long pending = occupied;
+			while(pending != 0) {
+				long passed = lanes(DoubleVector.fromArray(DOUBLES, this.juryWillingness, 0)
+						.compare(VectorOperators.GE, this.nextDouble(pending))) & pending;
+				for(long bits=passed; bits!=0; bits&=bits-1) {
+					int l = Long.numberOfTrailingZeros(bits);
+					if(this.distinctPresented[l] >= this.argumentsToPresent[l]) {
+						passed &= ~(1L << l);
+					}
+				}
+				deliberating |= passed;
+				long stopped = pending & ~passed;
+				for(long bits=stopped; bits!=0; bits&=bits-1) {
+					this.finish(Long.numberOfTrailingZeros(bits));
+				}
+				occupied &= ~stopped;
+				this.emit(sink);
+				long refilled = this.fill(occupied);
+				pending = refilled & ~occupied;
+				occupied = refilled;
+			}
+			if(deliberating != 0) {
+				this.round(deliberating, penalty);
+			}
+		}
+		this.emit(sink);
+	}
+
+	/**
+	 * One deliberation round of the deliberating lanes, the steps of a round of CompactCourt.juryDeliberation
+	 * @param deliberating lanes that deliberate
+	 * @param penalty
+	 */
+	private void round(long deliberating, double penalty) {
+		for(long bits=deliberating; bits!=0; bits&=bits-1) {
+			int l = Long.numberOfTrailingZeros(bits);
+			// after 10 deliberations, the willingness of the other lanes is multiplied by 1
+			this.decay[l] = (++this.rounds[l] > 10) ? penalty : 1.0;
+		}
+		for(long bits=~deliberating & ALL_LANES; bits!=0; bits&=bits-1) {
+			this.decay[Long.numberOfTrailingZeros(bits)] = 1.0;
+		}
+		DoubleVector decay = DoubleVector.fromArray(DOUBLES, this.decay, 0);
+		DoubleVector totalWillingness = DoubleVector.zero(DOUBLES);
+		for(int j=0; j<this.numOfJurors; j++) {
+			// jurors who want to speak
+			long speaking = lanes(DoubleVector.fromArray(DOUBLES, this.participation, j*LANES)
+					.compare(VectorOperators.GE, this.nextDouble(deliberating))) & deliberating;
+			long presenting = 0;
+			for(long bits=speaking; bits!=0; bits&=bits-1) {
+				int l = Long.numberOfTrailingZeros(bits);
+				int argument = this.lanes[l].speak(j);
+				if(argument >= 0) {
+					this.argument[l] = argument;
+					this.type[l] = this.lanes[l].getArgumentTypeOrdinal(argument);
+					this.accepted[l] = 0;
+					this.word[l] = (argument >>> 6)*LANES + l;
+					this.bit[l] = 1L << argument;
+					presenting |= 1L << l;
+				}
+			}
+			if(presenting != 0) {
+				this.present(j, presenting);
+			}
+			DoubleVector willingness = DoubleVector.fromArray(DOUBLES, this.willingness, j*LANES).mul(decay);
+			willingness.intoArray(this.willingness, j*LANES);
+			totalWillingness = totalWillingness.add(willingness);
+		}
+		totalWillingness.div(this.numOfJurors).intoArray(this.juryWillingness, 0);
+	}
+
+	/**
+	 * Presents the argument of every presenting lane to the other jurors of its court
+	 * @param speaker
+	 * @param presenting lanes whose speaker presents an argument
+	 */
+	private void present(int speaker, long presenting) {
+		DoubleVector types = DoubleVector.fromArray(DOUBLES, this.type, 0);
+		VectorMask<Double> second = types.compare(VectorOperators.EQ, 1);
+		VectorMask<Double> third = types.compare(VectorOperators.EQ, 2);
+		LongVector steps = steps(presenting);
+		LongVector argumentBits = LongVector.fromArray(LONGS, this.bit, 0);
+		for(int listener=0; listener<this.numOfJurors; listener++) {
+			if(listener == speaker) {
+				continue;
+			}
+			// acceptance of the type presented in every lane, of the three types
+			int row = listener*TYPES*LANES;
+			DoubleVector acceptance = DoubleVector.fromArray(DOUBLES, this.acceptance, row)
+					.blend(DoubleVector.fromArray(DOUBLES, this.acceptance, row+LANES), second)
+					.blend(DoubleVector.fromArray(DOUBLES, this.acceptance, row+2*LANES), third);
+			long taken = lanes(this.nextDouble(steps).compare(VectorOperators.LE, acceptance)) & presenting;
+			if(taken != 0) {
+				// only arguments new to the listener are taken in, the others are told apart by a gather of the bitsets
+				int offset = listener*this.words*LANES;
+				long unknown = lanesOfLongs(LongVector.fromArray(LONGS, this.known, offset, this.word, 0).and(argumentBits)
+						.compare(VectorOperators.EQ, 0));
+				for(long lanes=taken & unknown; lanes!=0; lanes&=lanes-1) {
+					int l = Long.numberOfTrailingZeros(lanes);
+					this.lanes[l].admit(listener, this.argument[l]);
+					this.known[offset+this.word[l]] |= this.bit[l];
+					this.accepted[l]++;
+				}
+			}
+		}
+		for(long bits=presenting; bits!=0; bits&=bits-1) {
+			int l = Long.numberOfTrailingZeros(bits);
+			if(this.lanes[l].countPresentation(this.argument[l], this.accepted[l])) {
+				this.distinctPresented[l]++;
+			}
+		}
+	}
+
+	private DoubleVector nextDouble(long drawing) {
+		return this.nextDouble(steps(drawing));
+	}
+
+	/**
+	 * Next double of the generator of every lane, SimulationRandom.nextDouble, lanes whose step is 0 do not move
+	 * @param steps GOLDEN_GAMMA for the lanes that draw, 0 for the others
+	 */
+	private DoubleVector nextDouble(LongVector steps) {
+		LongVector state = LongVector.fromArray(LONGS, this.states, 0).add(steps);
+		state.intoArray(this.states, 0);
+		LongVector z = state.lanewise(VectorOperators.XOR, state.lanewise(VectorOperators.LSHR, 30)).mul(0xbf58476d1ce4e5b9L);
+		z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 27)).mul(0x94d049bb133111ebL);
+		z = z.lanewise(VectorOperators.XOR, z.lanewise(VectorOperators.LSHR, 31));
+		return ((DoubleVector) z.lanewise(VectorOperators.LSHR, 11).convertShape(VectorOperators.L2D, DOUBLES, 0)).mul(DOUBLE_UNIT);
+	}
+
+	/**
+	 * Generator steps of the lanes that draw
+	 * @param drawing bit l set if lane l draws
+	 * @return GOLDEN_GAMMA in the lanes that draw, 0 in the others
+	 */
+	private static LongVector steps(long drawing) {
+		return LongVector.broadcast(LONGS, drawing).lanewise(VectorOperators.LSHR, LANE_INDEX).and(1L).neg().and(GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Lanes of a comparison that holds, as the bits of a long. Masks are only used by blend: the bit of every lane is
+	 * blended in as the raw bits of a double and the lanes are or-ed together
+	 * @param holds
+	 * @return bit l set if the comparison holds in lane l
+	 */
+	private static long lanes(VectorMask<Double> holds) {
+		return DoubleVector.zero(DOUBLES).blend(LANE_BITS, holds).reinterpretAsLongs().reduceLanes(VectorOperators.OR);
+	}
+
+	private static long lanesOfLongs(VectorMask<Long> holds) {
+		return LongVector.zero(LONGS).blend(LANE_BITS_OF_LONGS, holds).reduceLanes(VectorOperators.OR);
+	}
+
+	/**
+	 * Starts the next simulations in the empty lanes, as long as there are simulations left and room in the pool
+	 * @param occupied lanes holding a court
+	 * @return lanes holding a court afterwards
+	 */
+	private long fill(long occupied) {
+		for(int l=0; l<LANES && this.next<this.end && this.next-this.emitted<MAX_COURTS; l++) {
+			if((occupied & (1L << l)) == 0) {
+				this.start(l);
+				occupied |= 1L << l;
+			}
+		}
+		return occupied;
+	}
+
+	/**
+	 * Builds the court of the next simulation in a lane, provides the arguments and loads its jurors into the lane
+	 */
+	private void start(int lane) {
+		int slot = (this.next - this.first) % MAX_COURTS;
+		if(this.courts[slot] == null) {
+			this.courts[slot] = new CompactCourt();
+		}
+		CompactCourt court = this.courts[slot];
+		court.reset(SimulationRandom.streamSeed(this.masterSeed, this.next), this.mso);
+		court.provideArguments();
+		int jurors = court.getNumOfJurors();
+		// the jury and the number of arguments of a run are the same in every lane
+		this.numOfJurors = jurors;
+		this.words = (court.getNumOfArgumentIds()+63) >>> 6;
+		if(this.willingness.length < jurors*LANES) {
+			this.participation = new double[jurors*LANES];
+			this.willingness = new double[jurors*LANES];
+			this.acceptance = new double[jurors*TYPES*LANES];
+		}
+		if(this.known.length < jurors*this.words*LANES) {
+			this.known = new long[jurors*this.words*LANES];
+		}
+		if(this.scoresBefore[slot].length < jurors) {
+			this.scoresBefore[slot] = new int[jurors];
+		}
+		double totalWillingness = 0.0;
+		for(int j=0; j<jurors; j++) {
+			this.scoresBefore[slot][j] = court.getJurorScore(j);
+			this.participation[j*LANES+lane] = court.getParticipation(j);
+			this.willingness[j*LANES+lane] = court.getWillingness(j);
+			for(int t=0; t<TYPES; t++) {
+				this.acceptance[(j*TYPES+t)*LANES+lane] = court.getAcceptance(j, t);
+			}
+			for(int w=0; w<this.words; w++) {
+				this.known[(j*this.words+w)*LANES+lane] = court.getKnowledgeWord(j, w);
+			}
+			totalWillingness += court.getWillingness(j);
+		}
+		court.startDeliberation();
+		this.juryWillingness[lane] = totalWillingness/jurors;
+		this.states[lane] = court.getRandom().getState();
+		this.rounds[lane] = 0;
+		this.distinctPresented[lane] = 0;
+		this.argumentsToPresent[lane] = court.getArgumentsToPresent();
+		this.lanes[lane] = court;
+		this.laneSlot[lane] = slot;
+		this.next++;
+	}
+
+	/**
+	 * Ends the deliberation of the court of a lane and empties the lane
+	 */
+	private void finish(int lane) {
+		CompactCourt court = this.lanes[lane];
+		court.getRandom().reseed(this.states[lane]);
+		court.finishDeliberation(this.rounds[lane]);
+		this.finished[this.laneSlot[lane]] = true;
+		this.lanes[lane] = null;
+	}
+
+	/**
+	 * Hands out the finished courts whose earlier simulations have all been handed out
+	 */
+	private void emit(TrialSink sink) {
+		while(this.emitted < this.next && this.finished[(this.emitted - this.first) % MAX_COURTS]) {
+			int slot = (this.emitted - this.first) % MAX_COURTS;
+			this.finished[slot] = false;
+			sink.deliberated(this.emitted, this.courts[slot], this.scoresBefore[slot]);
+			this.emitted++;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that the lock-step courts of the vector engine are the trials of the compact engine, draw for draw
+ *
+ */
+public class VectorDeliberationTest {
+	private static final long MASTER_SEED = 77;
+	private static final List<MenuSelectionObject> POINTS = Arrays.asList(
+			new MenuSelectionObject(6, Utils.VoteType.UNANIMOUS, 25, 0, 0, 0, 2500),
+			new MenuSelectionObject(12, Utils.VoteType.MAJORITY, 100, 6, 2, 4, 1200),
+			// intake by skip sampling, and a menu point whose biased jurors are not as many as low plus high
+			new MenuSelectionObject(9, Utils.VoteType.UNANIMOUS, 500, 3, 1, 1, 300),
+			// deliberations that stop after a round or two, so lanes are refilled all the time
+			new MenuSelectionObject(3, Utils.VoteType.MAJORITY, 4, 0, 0, 0, 1037),
+			new MenuSelectionObject(40, Utils.VoteType.MAJORITY, 60, 10, 5, 5, 45));
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void courtsAreHandedOutInOrderAsTheyDeliberateAlone() {
+		for(MenuSelectionObject mso:POINTS) {
+			List<Integer> simulations = new ArrayList<Integer>();
+			// a range that starts inside a point and does not fill the last lanes
+			new VectorDeliberation().run(mso, MASTER_SEED, 5, 4*VectorDeliberation.LANES+3, (i, court, before) -> {
+				simulations.add(i);
+				CompactCourt alone = (CompactCourt) SimulationRunner.createSimulation(mso, Utils.EngineType.COMPACT,
+						SimulationRandom.forSimulation(MASTER_SEED, i));
+				alone.provideArguments();
+				String trial = mso + " simulation " + i;
+				assertArrayEquals(trial, scores(alone), Arrays.copyOf(before, alone.getNumOfJurors()));
+				alone.juryDeliberation();
+				assertEquals(trial, alone.getTotalDeliberations(), court.getTotalDeliberations());
+				assertEquals(trial, alone.getSpeakerTurns(), court.getSpeakerTurns());
+				assertEquals(trial, alone.getTotalClaimsSpread(), court.getTotalClaimsSpread());
+				assertEquals(trial, alone.getTotalNonClaimsSpread(), court.getTotalNonClaimsSpread());
+				assertArrayEquals(trial, scores(alone), scores(court));
+				// the lanes drew exactly the numbers of the court's own deliberation
+				assertEquals(trial, alone.getRandom().getState(), court.getRandom().getState());
+				assertEquals(trial, alone.juryVote(), court.juryVote());
+			});
+			List<Integer> expected = new ArrayList<Integer>();
+			for(int i=5; i<5+4*VectorDeliberation.LANES+3; i++) {
+				expected.add(i);
+			}
+			assertEquals(mso.toString(), expected, simulations);
+		}
+	}
+
+	@Test
+	public void sweepStatisticsAreThoseOfTheCompactEngine() throws Exception {
+		List<SimulationStatistics> compact = sweep(Utils.EngineType.COMPACT, null);
+		List<SimulationStatistics> vector = sweep(Utils.EngineType.VECTOR, null);
+		for(int p=0; p<POINTS.size(); p++) {
+			assertArrayEquals(POINTS.get(p).toString(), bytes(compact.get(p)), bytes(vector.get(p)));
+		}
+	}
+
+	@Test
+	public void recordsAreThoseOfTheCompactEngine() throws Exception {
+		Path compact = folder.getRoot().toPath().resolve("compact.csv");
+		Path vector = folder.getRoot().toPath().resolve("vector.csv");
+		sweep(Utils.EngineType.COMPACT, compact);
+		sweep(Utils.EngineType.VECTOR, vector);
+		assertEquals(Files.readAllLines(compact), Files.readAllLines(vector));
+	}
+
+	@Test
+	public void trialsOnASparseTopologyRunOneAtATime() throws Exception {
+		List<SimulationStatistics> results = new ArrayList<SimulationStatistics>();
+		for(Utils.EngineType engine:new Utils.EngineType[]{Utils.EngineType.COMPACT, Utils.EngineType.VECTOR}) {
+			SimulationRunner runner = new SimulationRunner(1);
+			runner.setEngine(engine);
+			runner.setTopology(DeliberationTopology.ring(2));
+			results.add(runner.run(POINTS.get(1), MASTER_SEED));
+			runner.shutdown();
+		}
+		assertArrayEquals(bytes(results.get(0)), bytes(results.get(1)));
+	}
+
+	@Test
+	public void trialsWithAListenerRunOneAtATime() throws Exception {
+		List<SimulationStatistics> results = new ArrayList<SimulationStatistics>();
+		List<Integer> cases = new ArrayList<Integer>();
+		for(Utils.EngineType engine:new Utils.EngineType[]{Utils.EngineType.COMPACT, Utils.EngineType.VECTOR}) {
+			AtomicInteger generated = new AtomicInteger();
+			SimulationRunner runner = new SimulationRunner(1);
+			runner.setEngine(engine);
+			runner.setListener(new SimulationListener() {
+				@Override
+				public void caseGenerated(Simulation simulation) {
+					generated.incrementAndGet();
+				}
+			});
+			results.add(runner.run(POINTS.get(1), MASTER_SEED));
+			runner.shutdown();
+			cases.add(generated.get());
+		}
+		assertArrayEquals(bytes(results.get(0)), bytes(results.get(1)));
+		assertEquals(Arrays.asList(POINTS.get(1).getNumOfSimulations(), POINTS.get(1).getNumOfSimulations()), cases);
+	}
+
+	private static List<SimulationStatistics> sweep(Utils.EngineType engine, Path records) throws Exception {
+		SimulationRecordWriter writer = (records != null) ? new SimulationRecordWriter(records) : null;
+		// one thread keeps the records in the order of the simulations
+		SimulationRunner runner = new SimulationRunner((records != null) ? 1 : 2);
+		runner.setEngine(engine);
+		runner.setRecordWriter(writer);
+		List<SimulationStatistics> results = runner.runSweep(POINTS, MASTER_SEED);
+		runner.shutdown();
+		if(writer != null) {
+			writer.close();
+		}
+		return results;
+	}
+
+	private static byte[] bytes(SimulationStatistics statistics) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		statistics.writeTo(new DataOutputStream(bytes));
+		return bytes.toByteArray();
+	}
+
+	private static int[] scores(Simulation simulation) {
+		int[] scores = new int[simulation.getNumOfJurors()];
+		for(int j=0; j<scores.length; j++) {
+			scores[j] = simulation.getJurorScore(j);
+		}
+		return scores;
+	}
+}